@@ -0,0 +1,338 @@
+package com.apple.automation.crawler;
+
+import com.apple.automation.core.DriverManager;
+import com.apple.automation.pages.AppleSearchResultsPage;
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk keyword crawler for catalog-scale search validation.
+ * Fans keywords out across a pool of headless sessions, opens search result URLs directly,
+ * extracts each page with a single script and streams records to gzip-compressed JSONL.
+ * Completed keywords are checkpointed so an interrupted crawl resumes where it stopped;
+ * keywords that failed are not checkpointed and are crawled again on resume.
+ *
+ * <p>Usage: {@code SearchCrawler <keywords-file> <output.jsonl.gz> [workers]}</p>
+ */
+public class SearchCrawler {
+
+    private static final Logger logger = LogManager.getLogger(SearchCrawler.class);
+    private static final String POISON_PILL = "\u0000";
+    private static final Json JSON = new Json();
+
+    private final String baseUrl;
+    private final int workers;
+    private final long resultTimeoutMillis;
+    private final int flushEvery;
+    private final int sessionAttempts;
+    private final Path output;
+    private final Path checkpoint;
+    // Keywords whose records are written but not yet flushed
+    private final List<String> pendingCheckpoint = new ArrayList<>();
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicInteger liveWorkers = new AtomicInteger();
+
+    private Writer recordWriter;
+    private Writer checkpointWriter;
+    private Path part;
+
+    public SearchCrawler(Path output, int workers) {
+        ConfigReader config = ConfigReader.getInstance();
+        this.baseUrl = config.getProperty("base.url", "https://www.apple.com");
+        this.workers = workers;
+        this.resultTimeoutMillis = config.getIntProperty("crawler.result.timeout.ms", 10000);
+        this.flushEvery = config.getIntProperty("crawler.flush.every", 50);
+        this.sessionAttempts = config.getIntProperty("crawler.session.attempts", 3);
+        this.output = output;
+        this.checkpoint = Paths.get(output + ".checkpoint");
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: SearchCrawler <keywords-file> <output.jsonl.gz> [workers]");
+            System.exit(1);
+        }
+
+        int workers = args.length > 2
+            ? Integer.parseInt(args[2])
+            : ConfigReader.getInstance().getIntProperty("crawler.workers", 4);
+
+        new SearchCrawler(Paths.get(args[1]), workers).run(Paths.get(args[0]));
+    }
+
+    /**
+     * Crawls every keyword in the file (one per line), skipping keywords already checkpointed.
+     *
+     * @throws IllegalStateException if every worker stopped, e.g. because no browser session could be started
+     */
+    public void run(Path keywordsFile) throws IOException, InterruptedException {
+        Set<String> done = loadCheckpoint();
+        logger.info("Starting crawl: {} workers, {} keywords already completed", workers, done.size());
+
+        openWriters();
+        BlockingQueue<String> queue = new ArrayBlockingQueue<>(workers * 4);
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long startNanos = System.nanoTime();
+
+        reporter.scheduleAtFixedRate(() -> logProgress(startNanos), 10, 10, TimeUnit.SECONDS);
+        liveWorkers.set(workers);
+        for (int i = 0; i < workers; i++) {
+            pool.submit(() -> crawl(queue));
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(keywordsFile, StandardCharsets.UTF_8)) {
+            String keyword;
+            while ((keyword = reader.readLine()) != null) {
+                keyword = keyword.trim();
+                if (keyword.isEmpty() || keyword.startsWith("#")) {
+                    continue;
+                }
+                if (done.contains(keyword)) {
+                    skipped.incrementAndGet();
+                    continue;
+                }
+                if (!enqueue(queue, keyword)) {
+                    throw new IllegalStateException("All crawler workers stopped; see the log for the cause."
+                        + " Keywords not crawled yet are picked up when the crawl is resumed");
+                }
+            }
+        } finally {
+            for (int i = 0; i < workers; i++) {
+                enqueue(queue, POISON_PILL);
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            reporter.shutdownNow();
+            closeWriters();
+        }
+
+        logProgress(startNanos);
+        logger.info("Crawl finished. Output: {}", part.toAbsolutePath());
+    }
+
+    /**
+     * Queues an item, waiting while the queue is full as long as a worker is left to take it.
+     *
+     * @return false if no worker is left
+     */
+    private boolean enqueue(BlockingQueue<String> queue, String item) throws InterruptedException {
+        while (!queue.offer(item, 1, TimeUnit.SECONDS)) {
+            if (liveWorkers.get() == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Worker loop. Each worker keeps one headless session for as long as it works, and replaces
+     * it when it breaks. A keyword that fails, including when its session cannot be started, is
+     * recorded as failed; a worker stops only after {@code crawler.session.attempts} session
+     * starts in a row failed, or if the output cannot be written.
+     */
+    private void crawl(BlockingQueue<String> queue) {
+        WebDriver driver = null;
+        int sessionFailures = 0;
+        try {
+            String keyword;
+            while (!(keyword = queue.take()).equals(POISON_PILL)) {
+                if (driver == null) {
+                    try {
+                        driver = DriverManager.createDriver(DriverManager.BrowserType.CHROME_HEADLESS);
+                        sessionFailures = 0;
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        write(keyword, errorRecord(keyword, e), false);
+                        DriverManager.quitDriver();
+                        if (++sessionFailures >= sessionAttempts) {
+                            logger.error("Crawler worker stopped after {} failed session starts", sessionFailures, e);
+                            return;
+                        }
+                        Thread.sleep(1000L * sessionFailures);
+                        continue;
+                    }
+                }
+
+                Map<String, Object> record;
+                boolean success = false;
+                try {
+                    record = fetch(driver, keyword);
+                    success = true;
+                } catch (TimeoutException e) {
+                    record = errorRecord(keyword, e);
+                } catch (RuntimeException e) {
+                    // Session is likely broken; replace it before the next keyword
+                    record = errorRecord(keyword, e);
+                    DriverManager.quitDriver();
+                    driver = null;
+                }
+                if (!success) {
+                    failed.incrementAndGet();
+                }
+                write(keyword, record, success);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Crawler worker stopped unexpectedly", e);
+        } finally {
+            liveWorkers.decrementAndGet();
+            DriverManager.quitDriver();
+        }
+    }
+
+    private Map<String, Object> fetch(WebDriver driver, String keyword) {
+        long start = System.nanoTime();
+        String url = AppleSearchResultsPage.searchUrl(baseUrl, keyword);
+        driver.get(url);
+
+        Map<String, Object> extracted = AppleSearchResultsPage.extractResults(driver, resultTimeoutMillis);
+        Object results = extracted.get("results");
+
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("keyword", keyword);
+        record.put("url", url);
+        record.put("found", extracted.get("found"));
+        record.put("count", results instanceof List ? ((List<?>) results).size() : 0);
+        record.put("results", results);
+        record.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        completed.incrementAndGet();
+        return record;
+    }
+
+    private Map<String, Object> errorRecord(String keyword, Exception e) {
+        logger.warn("Failed to crawl '{}': {}", keyword, e.getClass().getSimpleName());
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("keyword", keyword);
+        record.put("error", e.getClass().getSimpleName());
+        return record;
+    }
+
+    /**
+     * Appends the record. Successful keywords are checkpointed only after their records have
+     * been flushed through the gzip stream, so a crash can cause a keyword to be crawled twice
+     * but never lost. Failed keywords are never checkpointed and are retried on resume.
+     */
+    private synchronized void write(String keyword, Map<String, Object> record, boolean success) {
+        try {
+            recordWriter.write(JSON.toJson(record).replace('\n', ' '));
+            recordWriter.write('\n');
+            if (success) {
+                pendingCheckpoint.add(keyword);
+            }
+            if (pendingCheckpoint.size() >= flushEvery) {
+                flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write crawl record", e);
+        }
+    }
+
+    /**
+     * Sync-flushes the records, then writes and flushes the checkpoint entries for them.
+     */
+    private void flush() throws IOException {
+        recordWriter.flush();
+        for (String keyword : pendingCheckpoint) {
+            checkpointWriter.write(keyword);
+            checkpointWriter.write('\n');
+        }
+        checkpointWriter.flush();
+        pendingCheckpoint.clear();
+    }
+
+    private Set<String> loadCheckpoint() throws IOException {
+        Set<String> done = new HashSet<>();
+        if (Files.exists(checkpoint)) {
+            try (BufferedReader reader = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    done.add(line);
+                }
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Opens the record writer on a new part file and the checkpoint in append mode. The first
+     * run writes to the output path; each resumed run writes {@code <name>-2.jsonl.gz},
+     * {@code <name>-3.jsonl.gz} and so on, so a part cut short by a crash, which has no gzip
+     * trailer, is never followed by more data.
+     */
+    private void openWriters() throws IOException {
+        if (output.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        part = nextPart();
+        if (!part.equals(output)) {
+            logger.info("Resuming into new part {}", part.toAbsolutePath());
+        }
+        // syncFlush: flush() pushes every record written so far to the file
+        recordWriter = new BufferedWriter(new OutputStreamWriter(
+            new GZIPOutputStream(Files.newOutputStream(part, StandardOpenOption.CREATE_NEW), 64 * 1024, true),
+            StandardCharsets.UTF_8));
+        checkpointWriter = Files.newBufferedWriter(checkpoint, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private Path nextPart() {
+        String name = output.getFileName().toString();
+        int extension = name.indexOf('.');
+        String base = extension < 0 ? name : name.substring(0, extension);
+        String suffix = extension < 0 ? "" : name.substring(extension);
+        Path candidate = output;
+        for (int n = 2; Files.exists(candidate); n++) {
+            candidate = output.resolveSibling(base + "-" + n + suffix);
+        }
+        return candidate;
+    }
+
+    private synchronized void closeWriters() throws IOException {
+        flush();
+        recordWriter.close();
+        checkpointWriter.close();
+    }
+
+    private void logProgress(long startNanos) {
+        double seconds = Math.max(1e-3, (System.nanoTime() - startNanos) / 1e9);
+        long processed = completed.get() + failed.get();
+        logger.info("Crawled {} keywords ({} failed, {} skipped) - {} keywords/sec",
+            processed, failed.get(), skipped.get(), String.format("%.2f", processed / seconds));
+    }
+}
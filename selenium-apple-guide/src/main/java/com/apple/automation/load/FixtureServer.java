@@ -0,0 +1,167 @@
+package com.apple.automation.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP server with minimal copies of the homepage, search results, product and bag
+ * pages, using the same selectors as the page objects, plus a checkout shipping form.
+ * Lets journeys, the load generator and benchmarks run offline against a target whose
+ * latency is known.
+ *
+ * <p>Pages are read from {@code fixtures/} on the classpath. {@code <!-- global-nav -->}
+ * in a page is replaced with {@code fixtures/nav.html}.</p>
+ */
+public final class FixtureServer implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(FixtureServer.class);
+    private static final String NAV_PLACEHOLDER = "<!-- global-nav -->";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMillis;
+    private final Map<String, byte[]> pages = new ConcurrentHashMap<>();
+
+    private FixtureServer(HttpServer server, ExecutorService executor, long latencyMillis) {
+        this.server = server;
+        this.executor = executor;
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * Starts the server on the loopback interface.
+     *
+     * @param port Port to listen on, or 0 for any free port
+     * @param latencyMillis Delay added to every response, to simulate server time
+     */
+    public static FixtureServer start(int port, long latencyMillis) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 256);
+            ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "fixture-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+            FixtureServer fixtures = new FixtureServer(server, executor, latencyMillis);
+            server.createContext("/", fixtures::handle);
+            server.setExecutor(executor);
+            server.start();
+            logger.info("Fixture server listening on {}", fixtures.baseUrl());
+            return fixtures;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start fixture server on port " + port, e);
+        }
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String page = route(exchange.getRequestURI().getPath());
+            byte[] body = page == null ? null : page(page);
+
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", contentType(page));
+            exchange.getResponseHeaders().set("Cache-Control", page.endsWith(".html") ? "no-cache" : "max-age=3600");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String route(String path) {
+        if (path.equals("/") || path.equals("/us") || path.equals("/us/")) {
+            return "index.html";
+        }
+        if (path.startsWith("/us/search/")) {
+            return "search.html";
+        }
+        if (path.startsWith("/shop/product/")) {
+            return "product.html";
+        }
+        if (path.equals("/shop/bag")) {
+            return "bag.html";
+        }
+        if (path.equals("/shop/checkout")) {
+            return "checkout.html";
+        }
+        String file = path.substring(1);
+        return file.contains("..") || file.isEmpty() ? null : file;
+    }
+
+    private byte[] page(String name) {
+        byte[] cached = pages.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] content = read(name);
+        if (content == null) {
+            return null;
+        }
+        if (name.endsWith(".html")) {
+            String html = new String(content, StandardCharsets.UTF_8);
+            if (html.contains(NAV_PLACEHOLDER)) {
+                byte[] nav = read("nav.html");
+                html = html.replace(NAV_PLACEHOLDER, nav == null ? "" : new String(nav, StandardCharsets.UTF_8));
+            }
+            content = html.getBytes(StandardCharsets.UTF_8);
+        }
+        pages.put(name, content);
+        return content;
+    }
+
+    private static byte[] read(String name) {
+        try (InputStream in = FixtureServer.class.getClassLoader().getResourceAsStream("fixtures/" + name)) {
+            return in == null ? null : in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read fixture " + name, e);
+        }
+    }
+
+    private static String contentType(String name) {
+        if (name.endsWith(".html")) {
+            return "text/html; charset=utf-8";
+        }
+        if (name.endsWith(".css")) {
+            return "text/css; charset=utf-8";
+        }
+        if (name.endsWith(".js")) {
+            return "application/javascript; charset=utf-8";
+        }
+        return "application/octet-stream";
+    }
+}
@@ -0,0 +1,13 @@
+package com.apple.automation.load;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * A user flow built from page objects, run repeatedly by each virtual user.
+ * Wrap every action that should be measured in {@link StepTimer#step}.
+ */
+@FunctionalInterface
+public interface Journey {
+
+    void run(WebDriver driver, StepTimer steps) throws Exception;
+}
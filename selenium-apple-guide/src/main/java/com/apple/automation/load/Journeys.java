@@ -0,0 +1,85 @@
+package com.apple.automation.load;
+
+import com.apple.automation.pages.AppleBagPage;
+import com.apple.automation.pages.AppleHomePage;
+import com.apple.automation.pages.AppleSearchResultsPage;
+import com.apple.automation.utils.ConfigReader;
+import org.openqa.selenium.WebDriver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Named user journeys available to the load generator.
+ *
+ * <ul>
+ *   <li>{@code home} - open the homepage</li>
+ *   <li>{@code search} - open the homepage and search for a random term</li>
+ *   <li>{@code search-to-bag} - search, open the first result, then open the bag</li>
+ * </ul>
+ *
+ * <p>Search terms are picked from {@code load.search.terms}.</p>
+ */
+public final class Journeys {
+
+    private static final Map<String, Journey> journeys = new LinkedHashMap<>();
+
+    static {
+        journeys.put("home", (driver, steps) -> openHome(driver, steps));
+
+        journeys.put("search", (driver, steps) -> {
+            AppleHomePage home = openHome(driver, steps);
+            String term = randomSearchTerm();
+            steps.step("search", () -> home.search(term));
+        });
+
+        journeys.put("search-to-bag", (driver, steps) -> {
+            AppleHomePage home = openHome(driver, steps);
+            String term = randomSearchTerm();
+            AppleSearchResultsPage results = steps.step("search", () -> home.search(term));
+            steps.step("open-result", () -> {
+                results.clickResult(0);
+                return null;
+            });
+            steps.step("open-bag", () -> {
+                driver.get(baseUrl() + "/shop/bag");
+                return new AppleBagPage(driver);
+            });
+        });
+    }
+
+    private Journeys() {
+    }
+
+    /**
+     * Gets a journey by name.
+     *
+     * @throws IllegalArgumentException if no journey has that name
+     */
+    public static Journey get(String name) {
+        Journey journey = journeys.get(name);
+        if (journey == null) {
+            throw new IllegalArgumentException("Unknown journey '" + name + "', available: " + journeys.keySet());
+        }
+        return journey;
+    }
+
+    private static AppleHomePage openHome(WebDriver driver, StepTimer steps) throws Exception {
+        return steps.step("home", () -> {
+            driver.get(baseUrl());
+            return new AppleHomePage(driver);
+        });
+    }
+
+    private static String randomSearchTerm() {
+        String[] terms = ConfigReader.getInstance()
+            .getProperty("load.search.terms", "iPhone,iPad,MacBook,Watch,AirPods")
+            .split(",");
+        return terms[ThreadLocalRandom.current().nextInt(terms.length)].trim();
+    }
+
+    private static String baseUrl() {
+        return ConfigReader.getInstance().getProperty("base.url", "https://www.apple.com").replaceAll("/+$", "");
+    }
+}
@@ -0,0 +1,155 @@
+package com.apple.automation.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets, in the style of HdrHistogram.
+ * Values are recorded in microseconds; every bucket is at most 1/64 (about 1.6%) of its
+ * value wide, so quantiles keep two significant digits from 1 µs to hours at a fixed
+ * footprint of a few KB.
+ *
+ * <p>Recording is a single atomic increment and safe from any number of threads.
+ * {@link #snapshot()} copies the counts; subtracting an earlier snapshot gives the
+ * histogram of just the interval in between.</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int BUCKETS = SUB_BUCKETS + (64 - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+    }
+
+    private LatencyHistogram(long[] counts) {
+        this.counts = new AtomicLongArray(counts);
+    }
+
+    /**
+     * Records one value in microseconds. Negative values are recorded as 0.
+     */
+    public void recordMicros(long micros) {
+        counts.incrementAndGet(bucketOf(Math.max(0, micros)));
+    }
+
+    /**
+     * Returns a copy of the current counts.
+     */
+    public LatencyHistogram snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new LatencyHistogram(copy);
+    }
+
+    /**
+     * Returns the counts recorded since the earlier snapshot.
+     */
+    public LatencyHistogram minus(LatencyHistogram earlier) {
+        long[] difference = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            difference[i] = counts.get(i) - earlier.counts.get(i);
+        }
+        return new LatencyHistogram(difference);
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Highest value of the bucket holding the quantile, in microseconds, or 0 if empty.
+     */
+    public long quantileMicros(double quantile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(BUCKETS - 1);
+    }
+
+    public long maxMicros() {
+        for (int i = BUCKETS - 1; i >= 0; i--) {
+            if (counts.get(i) > 0) {
+                return highestValueOf(i);
+            }
+        }
+        return 0;
+    }
+
+    public double meanMicros() {
+        long total = 0;
+        double sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                total += count;
+                sum += count * (lowestValueOf(i) + highestValueOf(i)) / 2.0;
+            }
+        }
+        return total == 0 ? 0 : sum / total;
+    }
+
+    /**
+     * Non-empty buckets as upper bound in microseconds -> count, for result files.
+     */
+    public Map<Long, Long> buckets() {
+        Map<Long, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                buckets.put(highestValueOf(i), count);
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Values below 128 get a bucket each; above that, each power of two is split into 64
+     * buckets keyed by the top 7 bits of the value.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        int top = (int) (value >>> shift);
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (top - HALF_SUB_BUCKETS);
+    }
+
+    static long lowestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long top = (bucket - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return top << shift;
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        return lowestValueOf(bucket) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,360 @@
+package com.apple.automation.load;
+
+import com.apple.automation.core.DriverManager;
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives many concurrent real-browser users through a named {@link Journey}.
+ *
+ * <p>The number of active users follows {@code load.schedule} (see {@link LoadSchedule}).
+ * Each virtual user owns one headless session for the whole run; when the schedule ramps
+ * down, surplus users finish their current journey and idle with their session open, so
+ * a later ramp-up does not pay for browser startup again. Every journey step is timed into
+ * a shared {@link LatencyHistogram}; a summary of the last interval is logged every
+ * {@code load.report.interval.seconds}, and the full histograms are written to
+ * {@code load.output.dir/<journey>-<timestamp>.json} at the end.</p>
+ *
+ * <p>With {@code load.fixtures=true} the journeys run against a local {@link FixtureServer}
+ * instead of {@code base.url}, which verifies the setup without touching the real site.</p>
+ *
+ * <p>Usage: {@code LoadGenerator <journey> [schedule]}, e.g.
+ * {@code LoadGenerator search-to-bag 60s:100,5m:100,30s:0}</p>
+ */
+public class LoadGenerator {
+
+    private static final Logger logger = LogManager.getLogger(LoadGenerator.class);
+    private static final Json JSON = new Json();
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final String JOURNEY = "(journey)";
+
+    private final String journeyName;
+    private final Journey journey;
+    private final LoadSchedule schedule;
+    private final DriverManager.BrowserType browserType;
+    private final long thinkTimeMillis;
+    private final int reportIntervalSeconds;
+    private final Path outputDir;
+
+    private final StepTimer steps = new StepTimer();
+    private final LatencyHistogram journeyLatency = new LatencyHistogram();
+    private final LatencyHistogram sessionStartLatency = new LatencyHistogram();
+    private final AtomicLong journeysCompleted = new AtomicLong();
+    private final AtomicLong journeysFailed = new AtomicLong();
+    private final AtomicInteger busyUsers = new AtomicInteger();
+    private final AtomicInteger openSessions = new AtomicInteger();
+    // Users within the target that have a session, i.e. actually generating load
+    private final AtomicInteger liveUsers = new AtomicInteger();
+    private final AtomicLong sessionStartFailures = new AtomicLong();
+    private final List<Map<String, Object>> intervals = new ArrayList<>();
+
+    private volatile int targetUsers;
+    private volatile boolean running;
+    private Map<String, LatencyHistogram> previousSnapshots = new HashMap<>();
+    private Map<String, Long> previousErrors = new HashMap<>();
+
+    public LoadGenerator(String journeyName, LoadSchedule schedule) {
+        ConfigReader config = ConfigReader.getInstance();
+        this.journeyName = journeyName;
+        this.journey = Journeys.get(journeyName);
+        this.schedule = schedule;
+        this.browserType = browserType(config.getProperty("load.browser", "chrome-headless"));
+        this.thinkTimeMillis = config.getIntProperty("load.think.time.ms", 1000);
+        this.reportIntervalSeconds = config.getIntProperty("load.report.interval.seconds", 5);
+        this.outputDir = Paths.get(config.getProperty("load.output.dir", "target/load"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: LoadGenerator <journey> [schedule]");
+            System.exit(1);
+        }
+
+        ConfigReader config = ConfigReader.getInstance();
+        LoadSchedule schedule = LoadSchedule.parse(args.length > 1
+            ? args[1]
+            : config.getProperty("load.schedule", "30s:10,60s:10,15s:0"));
+
+        FixtureServer fixtures = null;
+        if (config.getBooleanProperty("load.fixtures", false)) {
+            fixtures = FixtureServer.start(config.getIntProperty("load.fixture.port", 0),
+                config.getIntProperty("load.fixture.latency.ms", 0));
+            // Read by page objects and journeys through ConfigReader
+            System.setProperty("base.url", fixtures.baseUrl());
+        }
+
+        try {
+            new LoadGenerator(args[0], schedule).run();
+        } finally {
+            if (fixtures != null) {
+                fixtures.close();
+            }
+        }
+    }
+
+    /**
+     * Runs the schedule to the end, then waits for in-flight journeys and writes the results.
+     */
+    public void run() throws InterruptedException {
+        // Per-action page object logs are noise at this concurrency; the interval summary replaces them
+        Configurator.setLevel("com.apple.automation.pages", Level.WARN);
+        Configurator.setLevel("com.apple.automation.core", Level.WARN);
+
+        logger.info("Starting load: journey '{}', {} ({} peak users, {})", journeyName, schedule,
+            schedule.getPeakUsers(), browserType.getBrowserName());
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService users = Executors.newFixedThreadPool(Math.max(1, schedule.getPeakUsers()),
+            runnable -> new Thread(runnable, "virtual-user-" + threadNumber.incrementAndGet()));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long startNanos = System.nanoTime();
+
+        running = true;
+        for (int i = 0; i < schedule.getPeakUsers(); i++) {
+            int index = i;
+            users.submit(() -> virtualUser(index));
+        }
+        reporter.scheduleAtFixedRate(() -> report(startNanos), reportIntervalSeconds, reportIntervalSeconds,
+            TimeUnit.SECONDS);
+
+        try {
+            long elapsed;
+            while ((elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)) < schedule.getTotalMillis()) {
+                targetUsers = schedule.targetUsers(elapsed);
+                Thread.sleep(200);
+            }
+        } finally {
+            targetUsers = 0;
+            running = false;
+            users.shutdown();
+            users.awaitTermination(5, TimeUnit.MINUTES);
+            reporter.shutdownNow();
+        }
+
+        report(startNanos);
+        writeResults(startNanos);
+    }
+
+    /**
+     * Virtual user loop. User {@code index} is active while the target exceeds its index.
+     * A session that fails to start counts as a failed journey; the user backs off and tries
+     * again on a later pass instead of dropping out of the load.
+     */
+    private void virtualUser(int index) {
+        WebDriver driver = null;
+        boolean live = false;
+        int failedStarts = 0;
+        try {
+            while (running) {
+                if (index >= targetUsers) {
+                    if (live) {
+                        liveUsers.decrementAndGet();
+                        live = false;
+                    }
+                    Thread.sleep(100);
+                    continue;
+                }
+
+                if (driver == null) {
+                    long sessionStart = System.nanoTime();
+                    try {
+                        driver = DriverManager.createDriver(browserType);
+                    } catch (RuntimeException e) {
+                        journeysFailed.incrementAndGet();
+                        sessionStartFailures.incrementAndGet();
+                        DriverManager.quitDriver();
+                        failedStarts++;
+                        logger.warn("Virtual user {} could not start a session ({} in a row): {}", index, failedStarts,
+                            e.getClass().getSimpleName());
+                        // 1, 2, 4 ... up to 30 seconds
+                        Thread.sleep(Math.min(30_000L, 1000L << Math.min(failedStarts - 1, 5)));
+                        continue;
+                    }
+                    failedStarts = 0;
+                    openSessions.incrementAndGet();
+                    sessionStartLatency.recordMicros((System.nanoTime() - sessionStart) / 1000);
+                }
+                if (!live) {
+                    liveUsers.incrementAndGet();
+                    live = true;
+                }
+
+                busyUsers.incrementAndGet();
+                long start = System.nanoTime();
+                try {
+                    journey.run(driver, steps);
+                    journeyLatency.recordMicros((System.nanoTime() - start) / 1000);
+                    journeysCompleted.incrementAndGet();
+                } catch (TimeoutException e) {
+                    journeysFailed.incrementAndGet();
+                    logger.debug("Journey timed out: {}", e.getMessage());
+                } catch (WebDriverException e) {
+                    // Session is likely broken; replace it before the next journey
+                    journeysFailed.incrementAndGet();
+                    logger.warn("Virtual user {} lost its session: {}", index, e.getClass().getSimpleName());
+                    DriverManager.quitDriver();
+                    openSessions.decrementAndGet();
+                    driver = null;
+                    liveUsers.decrementAndGet();
+                    live = false;
+                } catch (Exception e) {
+                    journeysFailed.incrementAndGet();
+                    logger.debug("Journey failed: {}", e.toString());
+                } finally {
+                    busyUsers.decrementAndGet();
+                }
+
+                think();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Virtual user {} stopped unexpectedly", index, e);
+        } finally {
+            if (live) {
+                liveUsers.decrementAndGet();
+            }
+            if (driver != null) {
+                DriverManager.quitDriver();
+                openSessions.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Pauses between journeys for the think time, randomized by +/-50% so users drift apart.
+     */
+    private void think() throws InterruptedException {
+        if (thinkTimeMillis > 0) {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(thinkTimeMillis / 2, thinkTimeMillis * 3 / 2 + 1));
+        }
+    }
+
+    /**
+     * Logs the latency of each step over the interval since the previous report.
+     */
+    private synchronized void report(long startNanos) {
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
+        Map<String, LatencyHistogram> current = new LinkedHashMap<>();
+        current.put(JOURNEY, journeyLatency.snapshot());
+        steps.histograms().forEach((step, histogram) -> current.put(step, histogram.snapshot()));
+        Map<String, Long> currentErrors = new HashMap<>();
+        for (String step : current.keySet()) {
+            currentErrors.put(step, JOURNEY.equals(step) ? journeysFailed.get() : steps.errors(step));
+        }
+
+        int target = Math.min(targetUsers, schedule.getPeakUsers());
+        logger.info(String.format(Locale.ROOT,
+            "[%4ds] users %d live/%d target, peak %d (%d busy, %d sessions, %d failed starts) | journeys %d ok, %d failed",
+            elapsedSeconds, liveUsers.get(), target, schedule.getPeakUsers(), busyUsers.get(), openSessions.get(),
+            sessionStartFailures.get(), journeysCompleted.get(), journeysFailed.get()));
+        logger.info(String.format(Locale.ROOT, "  %-16s %7s %7s %8s %8s %8s %8s %7s",
+            "step", "count", "rate/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors"));
+
+        Map<String, Object> interval = new LinkedHashMap<>();
+        interval.put("elapsedSeconds", elapsedSeconds);
+        interval.put("targetUsers", target);
+        interval.put("liveUsers", liveUsers.get());
+        Map<String, Object> intervalSteps = new LinkedHashMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : current.entrySet()) {
+            LatencyHistogram previous = previousSnapshots.get(entry.getKey());
+            LatencyHistogram delta = previous == null ? entry.getValue() : entry.getValue().minus(previous);
+            long errors = currentErrors.get(entry.getKey()) - previousErrors.getOrDefault(entry.getKey(), 0L);
+            logger.info(String.format(Locale.ROOT, "  %-16s %7d %7.1f %8.0f %8.0f %8.0f %8.0f %7d",
+                entry.getKey(), delta.count(), delta.count() / (double) reportIntervalSeconds,
+                delta.quantileMicros(0.50) / 1000.0, delta.quantileMicros(0.90) / 1000.0,
+                delta.quantileMicros(0.99) / 1000.0, delta.maxMicros() / 1000.0, errors));
+            intervalSteps.put(entry.getKey(), summary(delta, errors, false));
+        }
+        interval.put("steps", intervalSteps);
+        intervals.add(interval);
+        previousSnapshots = current;
+        previousErrors = currentErrors;
+    }
+
+    private void writeResults(long startNanos) {
+        Instant now = Instant.now();
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("journey", journeyName);
+        document.put("schedule", schedule.toString());
+        document.put("peakUsers", schedule.getPeakUsers());
+        document.put("browser", browserType.getBrowserName());
+        document.put("baseUrl", ConfigReader.getInstance().getProperty("base.url", ""));
+        document.put("finishedAt", now.toString());
+        document.put("durationSeconds", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos));
+        document.put("journeys", summary(journeyLatency, journeysFailed.get(), true));
+        document.put("sessionStart", summary(sessionStartLatency, sessionStartFailures.get(), true));
+        Map<String, Object> stepResults = new LinkedHashMap<>();
+        steps.histograms().forEach((step, histogram) ->
+            stepResults.put(step, summary(histogram, steps.errors(step), true)));
+        document.put("steps", stepResults);
+        document.put("intervals", intervals);
+
+        Path file = outputDir.resolve(journeyName + "-" + FILE_TIMESTAMP.format(now) + ".json");
+        try {
+            Files.createDirectories(outputDir);
+            Files.writeString(file, JSON.toJson(document), StandardCharsets.UTF_8);
+            logger.info("Load results written to {}", file.toAbsolutePath());
+        } catch (IOException e) {
+            logger.error("Failed to write load results {}", file, e);
+        }
+    }
+
+    private static Map<String, Object> summary(LatencyHistogram histogram, long errors, boolean withBuckets) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.count());
+        summary.put("errors", errors);
+        summary.put("meanMs", histogram.meanMicros() / 1000.0);
+        summary.put("p50Ms", histogram.quantileMicros(0.50) / 1000.0);
+        summary.put("p90Ms", histogram.quantileMicros(0.90) / 1000.0);
+        summary.put("p99Ms", histogram.quantileMicros(0.99) / 1000.0);
+        summary.put("p999Ms", histogram.quantileMicros(0.999) / 1000.0);
+        summary.put("maxMs", histogram.maxMicros() / 1000.0);
+        if (withBuckets) {
+            // Upper bound in microseconds -> count, enough to merge or re-derive any quantile later
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            histogram.buckets().forEach((upperMicros, count) -> buckets.put(String.valueOf(upperMicros), count));
+            summary.put("bucketsMicros", buckets);
+        }
+        return summary;
+    }
+
+    private static DriverManager.BrowserType browserType(String name) {
+        for (DriverManager.BrowserType type : DriverManager.BrowserType.values()) {
+            if (type.getBrowserName().equalsIgnoreCase(name) || type.name().equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown browser for load.browser: " + name);
+    }
+}
@@ -0,0 +1,103 @@
+package com.apple.automation.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Target number of concurrent virtual users over time, as a list of stages.
+ * Each stage moves linearly from the previous target to its own over its duration,
+ * so {@code 60s:100,5m:100,30s:0} is a one-minute ramp-up to 100 users, five minutes
+ * of steady state and a 30-second ramp-down.
+ */
+public final class LoadSchedule {
+
+    private final List<long[]> stages;
+    private final int peakUsers;
+    private final long totalMillis;
+
+    private LoadSchedule(List<long[]> stages) {
+        this.stages = stages;
+        this.peakUsers = (int) stages.stream().mapToLong(stage -> stage[1]).max().orElse(0);
+        this.totalMillis = stages.stream().mapToLong(stage -> stage[0]).sum();
+    }
+
+    /**
+     * Parses stages of the form {@code <duration>:<users>} separated by commas, where the
+     * duration has an {@code ms}, {@code s}, {@code m} or {@code h} suffix.
+     */
+    public static LoadSchedule parse(String schedule) {
+        List<long[]> stages = new ArrayList<>();
+        for (String stage : schedule.split(",")) {
+            if (stage.isBlank()) {
+                continue;
+            }
+            String[] parts = stage.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load stage '" + stage + "', expected <duration>:<users>");
+            }
+            stages.add(new long[] {parseMillis(parts[0].trim()), Long.parseLong(parts[1].trim())});
+        }
+        if (stages.isEmpty()) {
+            throw new IllegalArgumentException("Load schedule has no stages: " + schedule);
+        }
+        return new LoadSchedule(stages);
+    }
+
+    /**
+     * Users that should be active at the given time since the start.
+     */
+    public int targetUsers(long elapsedMillis) {
+        long stageStart = 0;
+        long previousUsers = 0;
+        for (long[] stage : stages) {
+            long duration = stage[0];
+            long users = stage[1];
+            if (elapsedMillis < stageStart + duration) {
+                double progress = (elapsedMillis - stageStart) / (double) duration;
+                return (int) Math.round(previousUsers + (users - previousUsers) * progress);
+            }
+            stageStart += duration;
+            previousUsers = users;
+        }
+        return (int) previousUsers;
+    }
+
+    public int getPeakUsers() {
+        return peakUsers;
+    }
+
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder();
+        for (long[] stage : stages) {
+            if (description.length() > 0) {
+                description.append(", ");
+            }
+            description.append(stage[0] / 1000).append("s to ").append(stage[1]).append(" users");
+        }
+        return description.toString();
+    }
+
+    private static long parseMillis(String duration) {
+        String value = duration.toLowerCase(Locale.ROOT);
+        if (value.endsWith("ms")) {
+            return Long.parseLong(value.substring(0, value.length() - 2));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        switch (value.charAt(value.length() - 1)) {
+            case 's':
+                return amount * 1000;
+            case 'm':
+                return amount * 60_000;
+            case 'h':
+                return amount * 3_600_000;
+            default:
+                throw new IllegalArgumentException("Invalid duration '" + duration + "', use ms, s, m or h");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.apple.automation.load;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Times named journey steps into one latency histogram per step, shared by all virtual users.
+ * Failed steps are counted separately and not recorded as latencies.
+ */
+public final class StepTimer {
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> errors = new ConcurrentHashMap<>();
+    private final List<String> order = new CopyOnWriteArrayList<>();
+
+    /**
+     * Runs and times a step.
+     *
+     * @return The step's result, e.g. the page object it leads to
+     */
+    public <T> T step(String name, Callable<T> action) throws Exception {
+        LatencyHistogram histogram = histograms.computeIfAbsent(name, key -> {
+            order.add(key);
+            return new LatencyHistogram();
+        });
+        long start = System.nanoTime();
+        try {
+            T result = action.call();
+            histogram.recordMicros((System.nanoTime() - start) / 1000);
+            return result;
+        } catch (Exception e) {
+            errors.computeIfAbsent(name, key -> new AtomicLong()).incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Histograms per step, in the order steps were first run.
+     */
+    Map<String, LatencyHistogram> histograms() {
+        Map<String, LatencyHistogram> ordered = new LinkedHashMap<>();
+        for (String step : order) {
+            LatencyHistogram histogram = histograms.get(step);
+            if (histogram != null) {
+                ordered.put(step, histogram);
+            }
+        }
+        return ordered;
+    }
+
+    long errors(String step) {
+        AtomicLong count = errors.get(step);
+        return count == null ? 0 : count.get();
+    }
+}
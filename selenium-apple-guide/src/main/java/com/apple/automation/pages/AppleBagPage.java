@@ -1,11 +1,14 @@
 package com.apple.automation.pages;
 
 import com.apple.automation.core.BasePage;
+import com.apple.automation.core.DomSnapshot;
+import com.apple.automation.core.ListLocator;
 import io.qameta.allure.Step;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.ui.ExpectedConditions;
 
 import java.util.List;
 
@@ -17,18 +20,19 @@ public class AppleBagPage extends BasePage {
     // Locators
     private static final By BAG_CONTAINER = By.cssSelector(".rs-bag");
     private static final By EMPTY_BAG_MESSAGE = By.cssSelector(".rs-bag-empty");
+    @ListLocator
     private static final By BAG_ITEMS = By.cssSelector(".rs-bag-item");
     private static final By CHECKOUT_BUTTON = By.cssSelector("button[data-autom='checkout']");
     private static final By SUBTOTAL = By.cssSelector(".rs-summary-subtotal");
     
     @FindBy(css = ".rs-bag-item-name")
-    private List<WebElement> itemNames;
+    List<WebElement> itemNames;
     
     @FindBy(css = ".rs-bag-item-price")
-    private List<WebElement> itemPrices;
+    List<WebElement> itemPrices;
     
     @FindBy(css = ".rs-bag-item-remove")
-    private List<WebElement> removeButtons;
+    List<WebElement> removeButtons;
     
     public AppleBagPage(WebDriver driver) {
         super(driver);
@@ -47,6 +51,19 @@ public class AppleBagPage extends BasePage {
         return isElementVisible(EMPTY_BAG_MESSAGE);
     }
     
+    /**
+     * Captures the bag contents in one call, for checking items, totals and messages at once.
+     * Waits until the bag shows its items or its empty message first, since the snapshot
+     * itself does not wait for content rendered after the container.
+     */
+    @Step("Snapshot shopping bag")
+    public DomSnapshot snapshotBag() {
+        wait.until(ExpectedConditions.or(
+            ExpectedConditions.visibilityOfElementLocated(EMPTY_BAG_MESSAGE),
+            ExpectedConditions.presenceOfElementLocated(BAG_ITEMS)));
+        return snapshot(BAG_CONTAINER);
+    }
+    
     /**
      * Gets the empty bag message.
      */
@@ -92,7 +109,7 @@ public class AppleBagPage extends BasePage {
         removeButton.click();
         
         // Wait for bag to update
-        waitForAjax();
+        waitForNetworkIdle();
         logger.info("Removed item at position {}", index + 1);
     }
     
@@ -162,7 +179,7 @@ public class AppleBagPage extends BasePage {
             By.cssSelector(String.format("option[value='%d']", quantity))).click();
         
         // Wait for bag to update
-        waitForAjax();
+        waitForNetworkIdle();
         logger.info("Updated quantity for item {} to {}", index + 1, quantity);
     }
 }
\ No newline at end of file
@@ -1,14 +1,16 @@
 package com.apple.automation.pages;
 
 import com.apple.automation.core.BasePage;
+import com.apple.automation.core.DomSnapshot;
+import com.apple.automation.core.ListLocator;
 import io.qameta.allure.Step;
 import org.openqa.selenium.By;
+import org.openqa.selenium.Keys;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Page Object for Apple Homepage.
@@ -21,17 +23,16 @@ public class AppleHomePage extends BasePage {
     private static final By SEARCH_BUTTON = By.cssSelector("a.ac-gn-link-search");
     private static final By SEARCH_INPUT = By.cssSelector("input.ac-gn-searchform-input");
     private static final By BAG_BUTTON = By.cssSelector("a.ac-gn-link-bag");
+    @ListLocator
     private static final By NAV_MENU_ITEMS = By.cssSelector("ul.ac-gn-list li.ac-gn-item");
+    private static final By GLOBAL_NAV = By.cssSelector("nav.ac-gn");
     
     // Page Factory elements
     @FindBy(css = ".ribbon-drop-wrapper")
-    private WebElement promoRibbon;
+    WebElement promoRibbon;
     
     @FindBy(css = ".unit-wrapper.unit-hero")
-    private List<WebElement> heroUnits;
-    
-    @FindBy(css = "a.ac-gn-link")
-    private List<WebElement> navigationLinks;
+    List<WebElement> heroUnits;
     
     public AppleHomePage(WebDriver driver) {
         super(driver);
@@ -66,9 +67,8 @@ public class AppleHomePage extends BasePage {
             click(SEARCH_BUTTON);
         }
         
-        type(SEARCH_INPUT, searchTerm);
-        WebElement searchField = driver.findElement(SEARCH_INPUT);
-        searchField.submit();
+        // Type and submit with Enter in one Actions call
+        input().clearAndType(SEARCH_INPUT, searchTerm + Keys.ENTER).perform();
         
         return new AppleSearchResultsPage(driver);
     }
@@ -95,10 +95,15 @@ public class AppleHomePage extends BasePage {
      * Gets all navigation menu items.
      */
     public List<String> getNavigationItems() {
-        return navigationLinks.stream()
-            .map(WebElement::getText)
-            .filter(text -> !text.isEmpty())
-            .collect(Collectors.toList());
+        return snapshotNavigation().getTexts("a.ac-gn-link");
+    }
+    
+    /**
+     * Captures the global navigation in one call, for checking several of its items at once.
+     */
+    @Step("Snapshot global navigation")
+    public DomSnapshot snapshotNavigation() {
+        return snapshot(GLOBAL_NAV);
     }
     
     /**
@@ -1,13 +1,18 @@
 package com.apple.automation.pages;
 
 import com.apple.automation.core.BasePage;
+import com.apple.automation.core.ListLocator;
 import io.qameta.allure.Step;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -17,18 +22,47 @@ public class AppleSearchResultsPage extends BasePage {
     
     // Locators
     private static final By SEARCH_RESULTS_CONTAINER = By.cssSelector(".rf-serp-results");
+    @ListLocator
     private static final By SEARCH_RESULT_ITEMS = By.cssSelector(".rf-serp-product-item");
     private static final By NO_RESULTS_MESSAGE = By.cssSelector(".rf-serp-noresults");
+    @ListLocator
     private static final By SEARCH_SUGGESTIONS = By.cssSelector(".ac-gn-searchresults-item");
     
+    private static final String SEARCH_PATH = "/us/search/";
+    
+    /**
+     * Waits for results or the no-results message and extracts every result in one round trip.
+     * Runs as an async script; resolves with {found, results: [{title, price, url}]}.
+     */
+    private static final String EXTRACT_RESULTS_SCRIPT =
+        "var done = arguments[arguments.length - 1];" +
+        "var deadline = Date.now() + arguments[0];" +
+        "(function poll() {" +
+        "  var container = document.querySelector('.rf-serp-results');" +
+        "  var empty = document.querySelector('.rf-serp-noresults');" +
+        "  if (!container && !empty && Date.now() < deadline) { return setTimeout(poll, 100); }" +
+        "  var results = [];" +
+        "  document.querySelectorAll('.rf-serp-product-item').forEach(function (item) {" +
+        "    var title = item.querySelector('.rf-serp-product-item-title');" +
+        "    var price = item.querySelector('.rf-serp-product-item-price');" +
+        "    var link = item.querySelector('a[href]');" +
+        "    results.push({" +
+        "      title: title ? title.textContent.trim() : ''," +
+        "      price: price ? price.textContent.trim() : ''," +
+        "      url: link ? link.href : ''" +
+        "    });" +
+        "  });" +
+        "  done({found: !!(container || empty), results: results});" +
+        "})();";
+    
     @FindBy(css = ".rf-serp-product-item-title")
-    private List<WebElement> resultTitles;
+    List<WebElement> resultTitles;
     
     @FindBy(css = ".rf-serp-product-item-price")
-    private List<WebElement> resultPrices;
+    List<WebElement> resultPrices;
     
     @FindBy(css = ".rf-serp-exploration-curated-position")
-    private WebElement curatedSection;
+    WebElement curatedSection;
     
     public AppleSearchResultsPage(WebDriver driver) {
         super(driver);
@@ -159,6 +193,28 @@ public class AppleSearchResultsPage extends BasePage {
         return resultPrices.get(index).getText().trim();
     }
     
+    /**
+     * Builds the search results URL for a term, bypassing the search UI.
+     */
+    public static String searchUrl(String baseUrl, String searchTerm) {
+        String encoded = URLEncoder.encode(searchTerm.trim(), StandardCharsets.UTF_8).replace("+", "%20");
+        return baseUrl.replaceAll("/+$", "") + SEARCH_PATH + encoded;
+    }
+    
+    /**
+     * Extracts all results from the current search page with a single script execution.
+     * Does not require a page object instance, so no element proxies or page load checks are created.
+     * 
+     * @param driver Driver currently showing a search results page
+     * @param timeoutMillis Maximum time to wait for results to render
+     * @return Map with "found" (page rendered) and "results" (list of title/price/url maps)
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> extractResults(WebDriver driver, long timeoutMillis) {
+        return (Map<String, Object>) ((JavascriptExecutor) driver)
+            .executeAsyncScript(EXTRACT_RESULTS_SCRIPT, timeoutMillis);
+    }
+    
     /**
      * Filters results by price range.
      */
@@ -0,0 +1,106 @@
+package com.apple.automation.load;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Bucket arithmetic and quantiles of the load generator's latency histogram.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void valuesBelow128HaveABucketEach() {
+        for (long value = 0; value < 128; value++) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertThat(bucket).isEqualTo((int) value);
+            assertThat(LatencyHistogram.lowestValueOf(bucket)).isEqualTo(value);
+            assertThat(LatencyHistogram.highestValueOf(bucket)).isEqualTo(value);
+        }
+    }
+
+    @Test
+    public void powersOfTwoAreSplitIntoSixtyFourBuckets() {
+        assertThat(LatencyHistogram.bucketOf(128)).isEqualTo(128);
+        assertThat(LatencyHistogram.bucketOf(129)).isEqualTo(128);
+        assertThat(LatencyHistogram.bucketOf(255)).isEqualTo(191);
+        assertThat(LatencyHistogram.bucketOf(256)).isEqualTo(192);
+        assertThat(LatencyHistogram.lowestValueOf(192)).isEqualTo(256);
+        assertThat(LatencyHistogram.highestValueOf(192)).isEqualTo(259);
+    }
+
+    @Test
+    public void bucketsAreContiguousAndWithinRelativeError() {
+        long expectedLowest = 0;
+        for (int bucket = 0; bucket <= LatencyHistogram.bucketOf(Long.MAX_VALUE); bucket++) {
+            long lowest = LatencyHistogram.lowestValueOf(bucket);
+            long highest = LatencyHistogram.highestValueOf(bucket);
+            assertThat(lowest).as("lowest value of bucket %d", bucket).isEqualTo(expectedLowest);
+            assertThat(highest - lowest).as("width of bucket %d", bucket).isLessThanOrEqualTo(lowest / 64);
+            assertThat(LatencyHistogram.bucketOf(lowest)).isEqualTo(bucket);
+            assertThat(LatencyHistogram.bucketOf(highest)).isEqualTo(bucket);
+            expectedLowest = highest + 1;
+        }
+        assertThat(LatencyHistogram.highestValueOf(LatencyHistogram.bucketOf(Long.MAX_VALUE))).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void smallValuesGiveExactQuantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100; value++) {
+            histogram.recordMicros(value);
+        }
+
+        assertThat(histogram.count()).isEqualTo(100);
+        assertThat(histogram.quantileMicros(0.50)).isEqualTo(50);
+        assertThat(histogram.quantileMicros(0.99)).isEqualTo(99);
+        assertThat(histogram.quantileMicros(0)).isEqualTo(1);
+        assertThat(histogram.maxMicros()).isEqualTo(100);
+        assertThat(histogram.meanMicros()).isEqualTo(50.5);
+    }
+
+    @Test
+    public void quantileIsHighestValueOfItsBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.recordMicros(value);
+        }
+
+        // 50_000 falls in the bucket 49_920..50_175
+        assertThat(histogram.quantileMicros(0.50)).isEqualTo(50_175);
+        assertThat(histogram.quantileMicros(0.90)).isBetween(90_000L, 90_000L + 90_000 / 64);
+        assertThat(histogram.maxMicros()).isBetween(100_000L, 100_000L + 100_000 / 64);
+    }
+
+    @Test
+    public void negativeValuesAreRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(-5);
+
+        assertThat(histogram.buckets()).containsExactly(entry(0L, 1L));
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.quantileMicros(0.99)).isZero();
+        assertThat(histogram.maxMicros()).isZero();
+        assertThat(histogram.meanMicros()).isZero();
+    }
+
+    @Test
+    public void minusLeavesOnlyTheInterval() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordMicros(10);
+        histogram.recordMicros(20);
+        LatencyHistogram earlier = histogram.snapshot();
+        histogram.recordMicros(30);
+
+        LatencyHistogram interval = histogram.snapshot().minus(earlier);
+
+        assertThat(interval.count()).isEqualTo(1);
+        assertThat(interval.buckets()).containsExactly(entry(30L, 1L));
+        assertThat(earlier.count()).isEqualTo(2);
+    }
+}
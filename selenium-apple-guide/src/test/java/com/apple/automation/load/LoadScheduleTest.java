@@ -0,0 +1,57 @@
+package com.apple.automation.load;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Parsing of load schedules and interpolation of the target user count between stages.
+ */
+public class LoadScheduleTest {
+
+    private final LoadSchedule rampUpHoldDown = LoadSchedule.parse("10s:100, 20s:100, 10s:0");
+
+    @Test
+    public void rampsLinearlyFromZero() {
+        assertThat(rampUpHoldDown.targetUsers(0)).isZero();
+        assertThat(rampUpHoldDown.targetUsers(2_500)).isEqualTo(25);
+        assertThat(rampUpHoldDown.targetUsers(5_000)).isEqualTo(50);
+        assertThat(rampUpHoldDown.targetUsers(10_000)).isEqualTo(100);
+    }
+
+    @Test
+    public void holdsAndRampsDownFromThePreviousTarget() {
+        assertThat(rampUpHoldDown.targetUsers(25_000)).isEqualTo(100);
+        assertThat(rampUpHoldDown.targetUsers(35_000)).isEqualTo(50);
+        assertThat(rampUpHoldDown.targetUsers(39_999)).isZero();
+    }
+
+    @Test
+    public void keepsLastTargetAfterTheEnd() {
+        assertThat(rampUpHoldDown.targetUsers(40_000)).isZero();
+        assertThat(LoadSchedule.parse("1s:5").targetUsers(60_000)).isEqualTo(5);
+    }
+
+    @Test
+    public void roundsToTheNearestUser() {
+        LoadSchedule schedule = LoadSchedule.parse("3s:1");
+
+        assertThat(schedule.targetUsers(1_000)).isZero();
+        assertThat(schedule.targetUsers(2_000)).isEqualTo(1);
+    }
+
+    @Test
+    public void parsesDurationUnits() {
+        assertThat(LoadSchedule.parse("500ms:1").getTotalMillis()).isEqualTo(500);
+        assertThat(LoadSchedule.parse("2S:1,1m:1,1h:0").getTotalMillis()).isEqualTo(2_000 + 60_000 + 3_600_000);
+        assertThat(rampUpHoldDown.getPeakUsers()).isEqualTo(100);
+        assertThat(rampUpHoldDown.getTotalMillis()).isEqualTo(40_000);
+    }
+
+    @Test
+    public void rejectsInvalidStages() {
+        assertThatIllegalArgumentException().isThrownBy(() -> LoadSchedule.parse("10s"));
+        assertThatIllegalArgumentException().isThrownBy(() -> LoadSchedule.parse("10d:5"));
+        assertThatIllegalArgumentException().isThrownBy(() -> LoadSchedule.parse(" , "));
+    }
+}
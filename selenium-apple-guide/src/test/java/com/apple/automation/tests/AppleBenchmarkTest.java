@@ -0,0 +1,171 @@
+package com.apple.automation.tests;
+
+import com.apple.automation.core.BasePage;
+import com.apple.automation.core.BaseTest;
+import com.apple.automation.core.InputSequence;
+import com.apple.automation.load.FixtureServer;
+import com.apple.automation.pages.AppleHomePage;
+import com.apple.automation.performance.PageBenchmark;
+import io.qameta.allure.*;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.annotations.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Page-level benchmarks with warmup, cold and warm cache runs and percentile statistics.
+ * Run them on their own with testng-benchmark.xml, never next to parallel tests:
+ * mvn test -Dtestng.suite=src/test/resources/testng-benchmark.xml
+ */
+@Epic("Apple Website")
+@Feature("Performance Benchmarks")
+public class AppleBenchmarkTest extends BaseTest {
+
+    @Test(
+        groups = {"benchmark"},
+        description = "Benchmark homepage load"
+    )
+    @Story("Homepage Load Benchmark")
+    public void benchmarkHomepageLoad() {
+        String baseUrl = config.getProperty("base.url", "https://www.apple.com");
+
+        Map<PageBenchmark.CacheMode, Map<String, Object>> results = PageBenchmark.scenario("homepage-load")
+            .before(driver -> driver.get("about:blank"))
+            .run(getDriver(), driver -> {
+                driver.get(baseUrl);
+                new AppleHomePage(driver);
+            });
+
+        assertThat(results).as("At least one cache mode should have been measured").isNotEmpty();
+    }
+
+    @Test(
+        groups = {"benchmark"},
+        description = "Benchmark product search from the homepage"
+    )
+    @Story("Search Benchmark")
+    public void benchmarkSearch() {
+        String baseUrl = config.getProperty("base.url", "https://www.apple.com");
+        AppleHomePage[] homePage = new AppleHomePage[1];
+
+        Map<PageBenchmark.CacheMode, Map<String, Object>> results = PageBenchmark.scenario("search")
+            .before(driver -> {
+                driver.get(baseUrl);
+                homePage[0] = new AppleHomePage(driver);
+            })
+            .run(getDriver(), driver -> homePage[0].search("iPhone"));
+
+        assertThat(results).as("At least one cache mode should have been measured").isNotEmpty();
+    }
+
+    @Test(
+        groups = {"benchmark"},
+        description = "Benchmark opening the shopping bag from the homepage"
+    )
+    @Story("Bag Benchmark")
+    public void benchmarkOpenBag() {
+        String baseUrl = config.getProperty("base.url", "https://www.apple.com");
+        AppleHomePage[] homePage = new AppleHomePage[1];
+
+        Map<PageBenchmark.CacheMode, Map<String, Object>> results = PageBenchmark.scenario("open-bag")
+            .before(driver -> {
+                driver.get(baseUrl);
+                homePage[0] = new AppleHomePage(driver);
+            })
+            .run(getDriver(), driver -> homePage[0].openBag());
+
+        assertThat(results).as("At least one cache mode should have been measured").isNotEmpty();
+    }
+
+    @Test(
+        groups = {"benchmark"},
+        description = "Benchmark filling a ten-field form per field versus in one Actions call"
+    )
+    @Story("Form Input Benchmark")
+    public void benchmarkFormInput() {
+        Map<By, String> address = new LinkedHashMap<>();
+        address.put(By.id("firstName"), "Ada");
+        address.put(By.id("lastName"), "Lovelace");
+        address.put(By.id("street"), "1 Apple Park Way");
+        address.put(By.id("street2"), "Building 4");
+        address.put(By.id("postalCode"), "95014");
+        address.put(By.id("city"), "Cupertino");
+        address.put(By.id("state"), "CA");
+        address.put(By.id("emailAddress"), "ada.lovelace@example.com");
+        address.put(By.id("mobilePhone"), "4085551234");
+        address.put(By.id("notes"), "Leave at the front desk, ask for the analytical engine team.");
+
+        // Local form so the comparison measures input round trips, not the network
+        try (FixtureServer fixtures = FixtureServer.start(0, 0)) {
+            String checkoutUrl = fixtures.baseUrl() + "/shop/checkout";
+            ShippingFormPage[] form = new ShippingFormPage[1];
+            Consumer<WebDriver> openForm = driver -> {
+                driver.get(checkoutUrl);
+                form[0] = new ShippingFormPage(driver);
+            };
+
+            Map<PageBenchmark.CacheMode, Map<String, Object>> perField = PageBenchmark.scenario("form-input-per-field")
+                .cacheModes(PageBenchmark.CacheMode.WARM)
+                .before(openForm)
+                .run(getDriver(), driver -> form[0].fillPerField(address));
+            assertThat(form[0].values(address)).as("Per-field input").isEqualTo(address);
+
+            Map<PageBenchmark.CacheMode, Map<String, Object>> sequence = PageBenchmark.scenario("form-input-actions")
+                .cacheModes(PageBenchmark.CacheMode.WARM)
+                .before(openForm)
+                .run(getDriver(), driver -> form[0].fillWithActions(address));
+            assertThat(form[0].values(address)).as("Single Actions call input").isEqualTo(address);
+
+            logger.info("Form input p50: per field {} ms, one Actions call {} ms",
+                p50(perField), p50(sequence));
+            assertThat(perField).as("Per-field input should have been measured").isNotEmpty();
+            assertThat(sequence).as("Actions input should have been measured").isNotEmpty();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object p50(Map<PageBenchmark.CacheMode, Map<String, Object>> results) {
+        Map<String, Object> warm = results.get(PageBenchmark.CacheMode.WARM);
+        return warm == null ? "n/a" : ((Map<String, Object>) warm.get("p50")).get("value");
+    }
+
+    /**
+     * Shipping form of the fixture checkout page, filled the current way and with {@link InputSequence}.
+     */
+    private static final class ShippingFormPage extends BasePage {
+
+        private ShippingFormPage(WebDriver driver) {
+            super(driver);
+        }
+
+        @Override
+        public boolean isPageLoaded() {
+            return isElementVisible(By.cssSelector("form.rs-checkout-shipping"));
+        }
+
+        void fillPerField(Map<By, String> values) {
+            values.forEach(this::type);
+        }
+
+        void fillWithActions(Map<By, String> values) {
+            InputSequence sequence = input();
+            values.forEach(sequence::clearAndType);
+            sequence.perform();
+        }
+
+        Map<By, String> values(Map<By, String> fields) {
+            Map<By, String> values = new LinkedHashMap<>();
+            for (By field : fields.keySet()) {
+                WebElement element = driver.findElement(field);
+                values.put(field, element.getAttribute("value"));
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.apple.automation.core;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sequence of fills and clicks executed in as few WebDriver round trips as possible.
+ *
+ * <pre>
+ * batch().fill(USERNAME, user).fill(PASSWORD, password).click(SUBMIT).run();
+ * </pre>
+ *
+ * <p>All actions that can be done from script run in one {@code executeScript} call: each
+ * element is located, checked for visibility and enabled state, then filled (value set with
+ * the native setter, followed by {@code input} and {@code change} events) or clicked. When an
+ * element is not ready yet the script stops there and is polled from that action until the
+ * wait times out, like {@code visibilityOf}/{@code elementToBeClickable} would.</p>
+ *
+ * <p>Actions fall back to native WebDriver commands where script is not equivalent: fills of
+ * anything but textareas and text, search, email, url, tel and password inputs (checkboxes,
+ * ranges, colors, dates, files and non-form fields go through {@code sendKeys}), clicks on
+ * elements covered by another element (so the usual click interception applies), locators
+ * that cannot be resolved in the page, and {@link #type} for fields that listen for key
+ * events. A click that navigates ends the script; the batch waits until the new document
+ * has replaced the old one and then runs the following actions on it.</p>
+ */
+public final class ActionBatch {
+
+    private static final Logger logger = LogManager.getLogger(ActionBatch.class);
+
+    private static final String SCRIPT =
+        PageScripts.FIND
+        + PageScripts.VISIBLE
+        + "var actions = arguments[0];"
+        // Input types whose value is free text; sendKeys on the others (checkbox, range, color, date...) does something else
+        + "var textTypes = {text: 1, search: 1, email: 1, url: 1, tel: 1, password: 1};"
+        // Whether a click on e starts loading another document: a link to another page in this
+        // window, or a form submission, either not cancelled by the page's handlers
+        + "var navigates = function(e, click, submit) {"
+        + "  var target = e.closest('a[href], button, input[type=submit], input[type=image]');"
+        + "  if (!target || click.defaultPrevented) { return false; }"
+        + "  if (target.tagName === 'A') {"
+        + "    var self = !target.target || target.target === '_self';"
+        + "    var samePage = target.href.split('#')[0] === location.href.split('#')[0] && target.href.indexOf('#') >= 0;"
+        + "    return self && !samePage && target.protocol !== 'javascript:';"
+        + "  }"
+        + "  return !!submit && !submit.defaultPrevented;"
+        + "};"
+        + "for (var i = arguments[1]; i < actions.length; i++) {"
+        + "  var a = actions[i];"
+        + "  if (a.kind === 'native') { return {done: i, next: 'native', reason: 'native action'}; }"
+        + "  var e = find(a);"
+        + "  if (!e) { return {done: i, next: 'wait', reason: 'not found'}; }"
+        + "  if (!visible(e)) { return {done: i, next: 'wait', reason: 'not visible'}; }"
+        + "  if (e.disabled) { return {done: i, next: 'wait', reason: 'disabled'}; }"
+        + "  if (a.kind === 'fill') {"
+        + "    var proto = e instanceof HTMLInputElement ? HTMLInputElement.prototype"
+        + "      : e instanceof HTMLTextAreaElement ? HTMLTextAreaElement.prototype : null;"
+        + "    if (!proto || proto === HTMLInputElement.prototype && !textTypes[e.type]) {"
+        + "      return {done: i, next: 'native', reason: 'not a text field'};"
+        + "    }"
+        + "    if (e.readOnly) { return {done: i, next: 'wait', reason: 'read-only'}; }"
+        + "    e.focus();"
+        // The native setter keeps frameworks that track the value property (e.g. React) in sync
+        + "    Object.getOwnPropertyDescriptor(proto, 'value').set.call(e, a.text);"
+        + "    e.dispatchEvent(new Event('input', {bubbles: true}));"
+        + "    e.dispatchEvent(new Event('change', {bubbles: true}));"
+        + "    continue;"
+        + "  }"
+        + "  if (a.kind === 'check' && e.checked === a.checked) { continue; }"
+        + "  e.scrollIntoView({block: 'center', inline: 'center'});"
+        + "  var rect = e.getBoundingClientRect();"
+        + "  var top = document.elementFromPoint(rect.left + rect.width / 2, rect.top + rect.height / 2);"
+        + "  if (top && top !== e && !e.contains(top)) {"
+        + "    return {done: i, next: 'native', reason: 'covered by <' + top.tagName.toLowerCase() + '>'};"
+        + "  }"
+        // Captured on window before any page handler; once dispatch is over the events tell
+        // whether a handler prevented the default
+        + "  var events = {};"
+        + "  var record = function(ev) { events[ev.type] = ev; };"
+        + "  window.addEventListener('click', record, true);"
+        + "  window.addEventListener('submit', record, true);"
+        + "  try { e.click(); } finally {"
+        + "    window.removeEventListener('click', record, true);"
+        + "    window.removeEventListener('submit', record, true);"
+        + "  }"
+        + "  if (i < actions.length - 1 && navigates(e, events.click || {}, events.submit)) {"
+        + "    return {done: i + 1, next: 'page', reason: 'navigation', origin: performance.timeOrigin};"
+        + "  }"
+        + "}"
+        + "return {done: actions.length};";
+
+    private final WebDriverWait wait;
+    private final List<Action> actions = new ArrayList<>();
+
+    ActionBatch(WebDriverWait wait) {
+        this.wait = wait;
+    }
+
+    /**
+     * Replaces the value of a text field, like {@code clear()} followed by {@code sendKeys()},
+     * but without per-key events.
+     */
+    public ActionBatch fill(By locator, String text) {
+        actions.add(new Action(Kind.FILL, locator, text, false));
+        return this;
+    }
+
+    /**
+     * Clears a field and types into it with native key events, for fields whose
+     * handlers react to keystrokes (autocomplete, input masks).
+     */
+    public ActionBatch type(By locator, String text) {
+        actions.add(new Action(Kind.TYPE, locator, text, false));
+        return this;
+    }
+
+    /**
+     * Clicks an element once it is visible and enabled.
+     */
+    public ActionBatch click(By locator) {
+        actions.add(new Action(Kind.CLICK, locator, null, false));
+        return this;
+    }
+
+    /**
+     * Clicks a checkbox or radio button if its checked state differs from {@code checked}.
+     */
+    public ActionBatch check(By locator, boolean checked) {
+        actions.add(new Action(Kind.CHECK, locator, null, checked));
+        return this;
+    }
+
+    /**
+     * Runs all actions in order.
+     *
+     * @throws TimeoutException if an element does not become ready within the page's wait
+     */
+    public Result run() {
+        List<Map<String, Object>> script = new ArrayList<>();
+        for (Action action : actions) {
+            script.add(action.toScript());
+        }
+
+        Result result = new Result(actions);
+        int index = 0;
+        while (index < actions.size()) {
+            Map<String, Object> outcome = advance(script, index, result);
+            int done = ((Number) outcome.get("done")).intValue();
+            if ("page".equals(outcome.get("next"))) {
+                awaitNewDocument(((Number) outcome.get("origin")).doubleValue(), result);
+                index = done;
+            } else if ("native".equals(outcome.get("next"))) {
+                Action action = actions.get(done);
+                logger.debug("Batch action {} runs natively: {}", action, outcome.get("reason"));
+                runNative(action);
+                result.nativeActions++;
+                result.roundTrips += action.kind.conventionalCalls;
+                index = done + 1;
+            } else {
+                index = done;
+            }
+        }
+
+        logger.debug("Ran {} actions in {} round trips instead of about {}",
+            actions.size(), result.roundTrips, result.conventionalRoundTrips);
+        return result;
+    }
+
+    /**
+     * Runs the script from {@code from} until it makes progress or asks for a native action.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> advance(List<Map<String, Object>> script, int from, Result result) {
+        if (!actions.get(from).scriptable()) {
+            Map<String, Object> outcome = new HashMap<>();
+            outcome.put("done", from);
+            outcome.put("next", "native");
+            outcome.put("reason", actions.get(from).kind == Kind.TYPE ? "key events" : "locator not resolvable in page");
+            return outcome;
+        }
+
+        String[] reason = {null};
+        try {
+            return wait.until(d -> {
+                result.roundTrips++;
+                Map<String, Object> outcome = (Map<String, Object>) ((JavascriptExecutor) d)
+                    .executeScript(SCRIPT, script, from);
+                if ("wait".equals(outcome.get("next")) && ((Number) outcome.get("done")).intValue() == from) {
+                    reason[0] = String.valueOf(outcome.get("reason"));
+                    return null;
+                }
+                return outcome;
+            });
+        } catch (TimeoutException e) {
+            throw new TimeoutException(String.format("Batch action %d (%s) never became ready: %s",
+                from + 1, actions.get(from), reason[0]), e);
+        }
+    }
+
+    /**
+     * Waits until the document the click started loading has replaced the one with the given
+     * time origin, so the next actions are not run against the page that is being left.
+     * If no new document arrives within the wait (e.g. the response was a download or
+     * 204), the batch goes on with the current one.
+     */
+    private void awaitNewDocument(double origin, Result result) {
+        try {
+            wait.until(d -> {
+                result.roundTrips++;
+                try {
+                    Map<?, ?> state = (Map<?, ?>) ((JavascriptExecutor) d).executeScript(
+                        "return {origin: performance.timeOrigin, ready: document.readyState};");
+                    return ((Number) state.get("origin")).doubleValue() != origin
+                        && !"loading".equals(state.get("ready")) ? Boolean.TRUE : null;
+                } catch (WebDriverException e) {
+                    // The old document is being unloaded
+                    return null;
+                }
+            });
+        } catch (TimeoutException e) {
+            logger.warn("Batch click did not load a new document within the wait; continuing on the current one");
+        }
+    }
+
+    private void runNative(Action action) {
+        switch (action.kind) {
+            case FILL:
+            case TYPE:
+                WebElement field = wait.until(ExpectedConditions.visibilityOfElementLocated(action.locator));
+                field.clear();
+                field.sendKeys(action.text);
+                break;
+            case CHECK:
+                WebElement box = wait.until(ExpectedConditions.elementToBeClickable(action.locator));
+                if (box.isSelected() != action.checked) {
+                    box.click();
+                }
+                break;
+            case CLICK:
+            default:
+                wait.until(ExpectedConditions.elementToBeClickable(action.locator)).click();
+                break;
+        }
+    }
+
+    private enum Kind {
+        // Calls made when the action is done one by one: find, state checks, then the action itself
+        FILL("fill", 4),
+        TYPE("native", 4),
+        CLICK("click", 4),
+        CHECK("check", 3);
+
+        private final String scriptName;
+        private final int conventionalCalls;
+
+        Kind(String scriptName, int conventionalCalls) {
+            this.scriptName = scriptName;
+            this.conventionalCalls = conventionalCalls;
+        }
+    }
+
+    private static final class Action {
+        private final Kind kind;
+        private final By locator;
+        private final String text;
+        private final boolean checked;
+
+        private Action(Kind kind, By locator, String text, boolean checked) {
+            this.kind = kind;
+            this.locator = locator;
+            this.text = text;
+            this.checked = checked;
+        }
+
+        private boolean scriptable() {
+            return kind != Kind.TYPE && PageScripts.locator(locator) != null;
+        }
+
+        private Map<String, Object> toScript() {
+            Map<String, Object> locatorMap = PageScripts.locator(locator);
+            Map<String, Object> action = locatorMap == null ? new HashMap<>() : locatorMap;
+            action.put("kind", scriptable() ? kind.scriptName : "native");
+            action.put("text", text == null ? "" : text);
+            action.put("checked", checked);
+            return action;
+        }
+
+        @Override
+        public String toString() {
+            return kind.name().toLowerCase() + " " + locator;
+        }
+    }
+
+    /**
+     * Round trips used by a batch compared with running its actions one by one.
+     */
+    public static final class Result {
+        private final int actions;
+        private final int conventionalRoundTrips;
+        private int roundTrips;
+        private int nativeActions;
+
+        private Result(List<Action> actions) {
+            this.actions = actions.size();
+            this.conventionalRoundTrips = actions.stream().mapToInt(action -> action.kind.conventionalCalls).sum();
+        }
+
+        public int getActions() {
+            return actions;
+        }
+
+        public int getRoundTrips() {
+            return roundTrips;
+        }
+
+        public int getNativeActions() {
+            return nativeActions;
+        }
+
+        /**
+         * Estimated WebDriver calls saved; polls while waiting for elements count against it.
+         */
+        public int getRoundTripsSaved() {
+            return conventionalRoundTrips - roundTrips;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d actions in %d round trips (%d native, ~%d saved)",
+                actions, roundTrips, nativeActions, getRoundTripsSaved());
+        }
+    }
+}
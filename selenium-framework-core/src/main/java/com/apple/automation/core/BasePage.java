@@ -1,8 +1,10 @@
 package com.apple.automation.core;
 
+import com.apple.automation.performance.LocatorAnalyzer;
+import com.apple.automation.performance.PerformanceRecorder;
+import com.apple.automation.performance.ResourceBudget;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
-import org.openqa.selenium.support.PageFactory;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.FluentWait;
 import org.openqa.selenium.support.ui.WebDriverWait;
@@ -39,9 +41,10 @@ public abstract class BasePage {
         this.js = (JavascriptExecutor) driver;
         this.logger = LogManager.getLogger(this.getClass());
         
-        PageFactory.initElements(driver, this);
+        PageBinding.initElements(driver, this);
         
         // Wait for page to be loaded
+        long readyStart = System.nanoTime();
         waitForPageLoad();
         
         // Verify page is loaded correctly
@@ -50,6 +53,9 @@ public abstract class BasePage {
                 String.format("Page %s is not loaded properly", this.getClass().getSimpleName())
             );
         }
+        PerformanceRecorder.recordPage(this.getClass().getSimpleName(),
+            (System.nanoTime() - readyStart) / 1_000_000);
+        LocatorAnalyzer.recordSnapshot(driver, this.getClass());
     }
     
     /**
@@ -99,6 +105,30 @@ public abstract class BasePage {
         element.sendKeys(text);
     }
     
+    /**
+     * Starts a batch of fills and clicks that runs in a single script round trip
+     * where possible, e.g. {@code batch().fill(USER, u).fill(PASS, p).click(SUBMIT).run()}.
+     */
+    protected ActionBatch batch() {
+        return new ActionBatch(wait);
+    }
+    
+    /**
+     * Starts key and pointer input across fields that is sent in one Actions call,
+     * reusing this page's {@link Actions} instance.
+     */
+    protected InputSequence input() {
+        return new InputSequence(driver, wait, actions);
+    }
+    
+    /**
+     * Copies a page region, with visibility and form state, in one script call so several
+     * checks can run against it locally. Waits for the region itself to be present.
+     */
+    protected DomSnapshot snapshot(By region) {
+        return DomSnapshot.capture(wait, region);
+    }
+    
     /**
      * Gets text from element.
      */
@@ -200,20 +230,36 @@ public abstract class BasePage {
     @Step("Wait for page to load")
     protected void waitForPageLoad() {
         logger.debug("Waiting for page to load");
-        wait.until(driver -> js.executeScript("return document.readyState").equals("complete"));
+        wait.until(driver -> js.executeScript(NetworkIdle.READY_STATE_SCRIPT).equals("complete"));
     }
     
     /**
-     * Waits for jQuery AJAX calls to complete.
+     * Waits until no fetch or XHR request has been in flight for {@code network.idle.ms},
+     * e.g. after an action that updates the page in place.
+     *
+     * @throws TimeoutException if requests are still running after the default wait
      */
-    @Step("Wait for AJAX to complete")
-    protected void waitForAjax() {
-        logger.debug("Waiting for AJAX to complete");
-        try {
-            wait.until(driver -> (Boolean) js.executeScript("return jQuery.active == 0"));
-        } catch (Exception e) {
-            // jQuery might not be present on the page
-            logger.debug("jQuery not found or AJAX wait failed");
+    @Step("Wait for network idle")
+    protected void waitForNetworkIdle() {
+        logger.debug("Waiting for network idle");
+        NetworkIdle.await(js, DEFAULT_WAIT);
+    }
+    
+    /**
+     * Measures the page against its resource budget ({@code budget.<PageClass>.*} in config)
+     * and reports every metric to Allure.
+     */
+    public ResourceBudget.Result checkBudget() {
+        return ResourceBudget.check(driver, this.getClass().getSimpleName());
+    }
+    
+    /**
+     * Fails if the page exceeds any of its configured resource budgets.
+     */
+    public void assertWithinBudget() {
+        ResourceBudget.Result result = checkBudget();
+        if (!result.isWithinBudget()) {
+            throw new AssertionError("Resource budget exceeded:\n" + String.join("\n", result.violations()));
         }
     }
     
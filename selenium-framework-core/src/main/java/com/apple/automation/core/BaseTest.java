@@ -0,0 +1,319 @@
+package com.apple.automation.core;
+
+import com.apple.automation.listeners.TestLogAppender;
+import com.apple.automation.performance.PerformanceRecorder;
+import com.apple.automation.performance.TraceRecorder;
+import com.apple.automation.utils.ConfigReader;
+import com.apple.automation.utils.AllureReporter;
+import com.apple.automation.utils.TestImpactMap;
+import io.qameta.allure.Allure;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.testng.IConfigureCallBack;
+import org.testng.IConfigurable;
+import org.testng.IHookCallBack;
+import org.testng.IHookable;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.SkipException;
+import org.testng.annotations.*;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Base test class providing common setup and teardown functionality.
+ * All test classes should extend this class.
+ */
+public abstract class BaseTest implements IHookable, IConfigurable {
+    
+    /** ThreadContext keys printed by the log patterns as %X{testId} and %X{sessionId}. */
+    public static final String TEST_ID_KEY = "testId";
+    public static final String SESSION_ID_KEY = "sessionId";
+    
+    // Skip reason from setUp while the environment circuit breaker is open
+    private static final ThreadLocal<String> environmentOutage = new ThreadLocal<>();
+    
+    protected WebDriver driver;
+    protected final Logger logger = LogManager.getLogger(this.getClass());
+    // Set per instance: @BeforeSuite runs on only one of the suite's test class instances
+    protected final ConfigReader config = ConfigReader.getInstance();
+    
+    @BeforeSuite(alwaysRun = true)
+    public void beforeSuite() {
+        logger.info("=== Test Suite Started ===");
+    }
+    
+    @BeforeMethod(alwaysRun = true)
+    @Parameters({"browser", "headless"})
+    public void setUp(Method method, 
+                      Object[] testArguments,
+                      @Optional("chrome") String browser,
+                      @Optional("false") String headless) {
+        
+        // Tag every log line of this invocation so parallel logs can be split per test
+        String testId = archiveName(method, testArguments);
+        ThreadContext.put(TEST_ID_KEY, testId);
+        PerformanceRecorder.startTest(testId);
+        TraceRecorder.startTest(testId);
+        
+        logger.info("===== Starting test: {} =====", method.getName());
+        logger.info("Browser: {}, Headless: {}", browser, headless);
+        
+        // Skip without starting a browser while the environment is known to be down
+        String outage = CircuitBreaker.skipReason();
+        if (outage != null) {
+            environmentOutage.set(outage);
+            return;
+        }
+        
+        // After the breaker check: a skipped test must not replace its recorded impact entry
+        TestImpactMap.startTest(getClass(), method.getName());
+        try {
+            openSession(method, testId, browser, headless);
+        } catch (RuntimeException e) {
+            CircuitBreaker.recordFailure(e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Starts the driver session for a test and navigates to the base URL.
+     */
+    private void openSession(Method method, String testId, String browser, String headless) {
+        // Create driver based on parameters
+        DriverManager.BrowserType browserType = getBrowserType(browser, Boolean.parseBoolean(headless));
+        WebDriver sessionDriver = SessionPool.isEnabled()
+            ? DriverManager.acquireDriver(browserType)
+            : DriverManager.createDriver(browserType);
+        driver = sessionDriver;
+        if (sessionDriver instanceof RemoteWebDriver) {
+            ThreadContext.put(SESSION_ID_KEY, String.valueOf(((RemoteWebDriver) sessionDriver).getSessionId()));
+        }
+        
+        // Record or replay network traffic when network.mode is set
+        NetworkArchive.start(sessionDriver, testId);
+        
+        // Start from cached cookies and storage instead of repeating UI setup flows
+        UseStorageState storageState = method.isAnnotationPresent(UseStorageState.class)
+            ? method.getAnnotation(UseStorageState.class)
+            : method.getDeclaringClass().getAnnotation(UseStorageState.class);
+        if (storageState != null) {
+            StorageState.restoreOrCapture(sessionDriver, storageState);
+        }
+        
+        // Navigate to base URL
+        String baseUrl = config.getProperty("base.url", "https://www.apple.com");
+        logger.info("Navigating to: {}", baseUrl);
+        long start = System.nanoTime();
+        sessionDriver.get(baseUrl);
+        CircuitBreaker.recordPageLoad(baseUrl, Duration.ofNanos(System.nanoTime() - start));
+    }
+    
+    /**
+     * Runs the test method, or skips it with the outage as reason when setUp found the
+     * environment down.
+     */
+    @Override
+    public void run(IHookCallBack callBack, ITestResult testResult) {
+        String outage = environmentOutage.get();
+        if (outage != null) {
+            environmentOutage.remove();
+            throw new SkipException(outage);
+        }
+        callBack.runTestMethod(testResult);
+    }
+    
+    /**
+     * Runs configuration methods, but leaves out the per-method setup and teardown of
+     * subclasses (page objects, test data) for a test skipped for an outage: there is no
+     * session to work with, and a failure there would skip the rest of the class.
+     */
+    @Override
+    public void run(IConfigureCallBack callBack, ITestResult testResult) {
+        ITestNGMethod method = testResult.getMethod();
+        if (environmentOutage.get() != null
+            && (method.isBeforeMethodConfiguration() || method.isAfterMethodConfiguration())
+            && method.getConstructorOrMethod().getMethod().getDeclaringClass() != BaseTest.class) {
+            testResult.setStatus(ITestResult.SUCCESS);
+            return;
+        }
+        callBack.runConfigurationMethod(testResult);
+    }
+    
+    @AfterMethod(alwaysRun = true)
+    public void tearDown(ITestResult result) {
+        try {
+            // Log test result
+            logTestResult(result);
+            
+            // Capture page source on failure
+            if (result.getStatus() == ITestResult.FAILURE) {
+                captureFailureDetails(result);
+            }
+            
+        } finally {
+            environmentOutage.remove();
+            NetworkArchive.stop();
+            
+            // Always quit driver, or hand it back to the pool for the next test
+            if (SessionPool.isEnabled()) {
+                DriverManager.releaseDriver();
+            } else {
+                DriverManager.quitDriver();
+            }
+            logger.info("===== Test completed: {} =====\n", result.getName());
+            
+            TraceRecorder.finishTest(getStatusString(result.getStatus()));
+            TestImpactMap.finishTest();
+            
+            // Lines logged during teardown are not reported, drop them with the context
+            TestLogAppender.discardCurrentTest();
+            ThreadContext.remove(TEST_ID_KEY);
+            ThreadContext.remove(SESSION_ID_KEY);
+        }
+    }
+    
+    @AfterSuite(alwaysRun = true)
+    public void afterSuite() {
+        DriverManager.logMemoryReport();
+        SessionPool.shutdown();
+        SharedBrowser.shutdown();
+        TestImpactMap.save();
+        CircuitBreaker.logSummary();
+        logger.info("=== Test Suite Completed ===");
+    }
+    
+    /**
+     * Determines browser type based on parameters.
+     */
+    private DriverManager.BrowserType getBrowserType(String browser, boolean headless) {
+        String browserLower = browser.toLowerCase();
+        
+        if (headless) {
+            switch (browserLower) {
+                case "chrome":
+                    return DriverManager.BrowserType.CHROME_HEADLESS;
+                case "chrome-lean":
+                    return DriverManager.BrowserType.CHROME_LEAN;
+                case "firefox":
+                    return DriverManager.BrowserType.FIREFOX_HEADLESS;
+                default:
+                    logger.warn("Headless mode not supported for {}. Using regular mode.", browser);
+            }
+        }
+        
+        switch (browserLower) {
+            case "chrome":
+                return DriverManager.BrowserType.CHROME;
+            case "chrome-lean":
+                return DriverManager.BrowserType.CHROME_LEAN;
+            case "firefox":
+                return DriverManager.BrowserType.FIREFOX;
+            case "safari":
+                return DriverManager.BrowserType.SAFARI;
+            case "edge":
+                return DriverManager.BrowserType.EDGE;
+            default:
+                logger.warn("Unknown browser: {}. Defaulting to Chrome.", browser);
+                return DriverManager.BrowserType.CHROME;
+        }
+    }
+    
+    /**
+     * Builds a stable archive name per test invocation, including data provider arguments.
+     */
+    private String archiveName(Method method, Object[] testArguments) {
+        String name = getClass().getSimpleName() + "." + method.getName();
+        if (testArguments != null && testArguments.length > 0) {
+            name += "-" + Arrays.toString(testArguments);
+        }
+        return name;
+    }
+    
+    /**
+     * Logs test result with duration.
+     */
+    private void logTestResult(ITestResult result) {
+        long duration = result.getEndMillis() - result.getStartMillis();
+        String status = getStatusString(result.getStatus());
+        
+        logger.info("Test: {} - Status: {} - Duration: {}ms", 
+            result.getName(), 
+            status, 
+            duration);
+    }
+    
+    /**
+     * Captures failure details such as the page source.
+     */
+    private void captureFailureDetails(ITestResult result) {
+        try {
+            // Screenshot and URL are already attached to the test by TestListener
+            WebDriver driver = getDriver();
+            
+            // Log failure details
+            logger.error("Test failed: {}", result.getName());
+            logger.error("Failure reason:", result.getThrowable());
+            
+            // Capture page source for debugging
+            String pageSource = driver.getPageSource();
+            AllureReporter.attachText("Page Source", "text/html", pageSource, "html");
+            
+            // Log current URL
+            String currentUrl = driver.getCurrentUrl();
+            logger.error("Failed at URL: {}", currentUrl);
+            
+        } catch (Exception e) {
+            logger.error("Failed to capture failure details", e);
+        }
+    }
+    
+    /**
+     * Converts test status to readable string.
+     */
+    private String getStatusString(int status) {
+        switch (status) {
+            case ITestResult.SUCCESS:
+                return "PASSED";
+            case ITestResult.FAILURE:
+                return "FAILED";
+            case ITestResult.SKIP:
+                return "SKIPPED";
+            default:
+                return "UNKNOWN";
+        }
+    }
+    
+    /**
+     * Gets the WebDriver instance of the current thread.
+     * Use it instead of the {@code driver} field: with parallel data providers, invocations
+     * share this test instance and the field holds whichever session was opened last.
+     */
+    protected WebDriver getDriver() {
+        WebDriver driver = DriverManager.getDriver();
+        if (driver == null) {
+            throw new IllegalStateException("WebDriver is not initialized. Ensure setUp() is called.");
+        }
+        return driver;
+    }
+    
+    /**
+     * Adds custom information to Allure report as a test parameter.
+     */
+    protected void addAllureInfo(String name, String value) {
+        AllureReporter.parameter(name, value);
+    }
+    
+    /**
+     * Adds test step to Allure report.
+     */
+    protected void step(String stepName, Runnable stepAction) {
+        logger.info("Executing step: {}", stepName);
+        Allure.step(stepName, stepAction::run);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,238 @@
+package com.apple.automation.core;
+
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Suite-wide breaker that skips tests while the environment under test is down, instead of
+ * letting every worker wait through page load, implicit and explicit timeouts and retries.
+ *
+ * <p>Environment failures (timeouts, unreachable hosts, browser network error pages) and
+ * base URL loads slower than {@code breaker.latency.ms} are counted across all threads; a
+ * passing test resets the count. After {@code breaker.failure.threshold} in a row the base
+ * URL is probed over plain HTTP, so failures of the application itself do not trip it: only
+ * if the probe fails, answers 5xx or is slow does the breaker open. While open, tests are
+ * skipped before a browser is started, with the outage as the skip reason, and retries are
+ * suppressed. Every {@code breaker.probe.interval.ms} the next test to start probes again
+ * and the breaker closes once the environment answers.</p>
+ */
+public final class CircuitBreaker {
+
+    private static final Logger logger = LogManager.getLogger(CircuitBreaker.class);
+
+    /**
+     * CLOSED lets tests run; OPEN skips them; HALF_OPEN while one thread probes.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private static final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private static final AtomicInteger skippedTests = new AtomicInteger();
+    private static final HttpClient http = HttpClient.newBuilder()
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build();
+
+    private static volatile String lastFailure;
+    private static volatile String probeResult;
+    // Null while closed
+    private static volatile LocalTime openedAt;
+    private static volatile long nextProbeNanos;
+
+    private CircuitBreaker() {
+    }
+
+    public static boolean isEnabled() {
+        return ConfigReader.getInstance().getBooleanProperty("breaker.enabled", true);
+    }
+
+    public static State getState() {
+        return state.get();
+    }
+
+    /**
+     * Whether tests are being skipped for an outage.
+     */
+    public static boolean isOpen() {
+        return openedAt != null;
+    }
+
+    /**
+     * Reason to skip a test that is about to start, or null if it may run. Probes the
+     * environment first when the breaker is open and a probe is due.
+     */
+    public static String skipReason() {
+        if (!isEnabled() || !isOpen()) {
+            return null;
+        }
+        if (System.nanoTime() >= nextProbeNanos && state.compareAndSet(State.OPEN, State.HALF_OPEN) && probe()) {
+            return null;
+        }
+        if (!isOpen()) {
+            return null;
+        }
+        skippedTests.incrementAndGet();
+        return reason();
+    }
+
+    /**
+     * A test passed, so the environment works.
+     */
+    public static void recordSuccess() {
+        consecutiveFailures.set(0);
+    }
+
+    /**
+     * A test or its setup failed; counts if the failure points at the environment.
+     */
+    public static void recordFailure(Throwable failure) {
+        if (isEnabled() && isEnvironmentFailure(failure)) {
+            recordEnvironmentFailure(describe(failure));
+        }
+    }
+
+    /**
+     * The base URL loaded; counts as a failure if it took longer than {@code breaker.latency.ms}.
+     */
+    public static void recordPageLoad(String url, Duration duration) {
+        if (isEnabled() && duration.toMillis() > latencyMillis()) {
+            recordEnvironmentFailure(String.format("%s took %d ms to load", url, duration.toMillis()));
+        }
+    }
+
+    private static void recordEnvironmentFailure(String description) {
+        lastFailure = description;
+        int failures = consecutiveFailures.incrementAndGet();
+        int threshold = ConfigReader.getInstance().getIntProperty("breaker.failure.threshold", 3);
+        logger.warn("Environment failure {} of {} before the circuit breaker trips: {}", failures, threshold, description);
+        if (failures >= threshold && state.compareAndSet(State.CLOSED, State.HALF_OPEN)) {
+            probe();
+        }
+    }
+
+    /**
+     * Requests the probe URL; closes the breaker if it answers in time, opens it otherwise.
+     * Only called by the thread that moved the breaker to HALF_OPEN.
+     */
+    private static boolean probe() {
+        ConfigReader config = ConfigReader.getInstance();
+        String url = config.getProperty("breaker.probe.url", "");
+        if (url.isBlank()) {
+            url = config.getProperty("base.url", "https://www.apple.com");
+        }
+        int timeout = config.getIntProperty("breaker.probe.timeout.ms", 5000);
+
+        String problem;
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = http.send(
+                HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofMillis(timeout)).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            problem = response.statusCode() >= 500 ? "HTTP " + response.statusCode()
+                : millis > latencyMillis() ? "answered after " + millis + " ms"
+                : null;
+        } catch (IOException | IllegalArgumentException e) {
+            problem = describe(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            problem = "probe interrupted";
+        }
+
+        if (problem == null) {
+            consecutiveFailures.set(0);
+            if (isOpen()) {
+                logger.warn("Circuit breaker closed: {} is reachable again after an outage since {}", url, openedAt);
+            } else {
+                logger.info("Probe of {} succeeded; environment failures were not an outage", url);
+            }
+            openedAt = null;
+            state.set(State.CLOSED);
+            return true;
+        }
+
+        probeResult = url + " " + problem;
+        nextProbeNanos = System.nanoTime() + config.getIntProperty("breaker.probe.interval.ms", 30_000) * 1_000_000L;
+        if (!isOpen()) {
+            openedAt = LocalTime.now().truncatedTo(ChronoUnit.SECONDS);
+            logger.error("Circuit breaker opened, skipping tests until the environment recovers: {}", reason());
+        } else {
+            logger.warn("Environment still unavailable: {}", probeResult);
+        }
+        state.set(State.OPEN);
+        return false;
+    }
+
+    /**
+     * Logs how many tests the breaker skipped during the suite.
+     */
+    public static void logSummary() {
+        if (skippedTests.get() > 0) {
+            logger.warn("Circuit breaker skipped {} tests; state at the end of the suite: {}", skippedTests.get(), state.get());
+        }
+    }
+
+    private static String reason() {
+        long nextProbe = Math.max(0, (nextProbeNanos - System.nanoTime()) / 1_000_000_000);
+        return String.format("Environment unavailable since %s (circuit breaker open after %d consecutive "
+                + "environment failures, last: %s; probe: %s); next probe in %d s",
+            openedAt, consecutiveFailures.get(), lastFailure, probeResult, nextProbe);
+    }
+
+    /**
+     * Timeouts, unreachable hosts and browser network error pages anywhere in the cause chain.
+     */
+    static boolean isEnvironmentFailure(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException
+                || cause instanceof ConnectException
+                || cause instanceof UnknownHostException
+                || cause instanceof NoRouteToHostException
+                || cause instanceof SocketTimeoutException
+                || cause instanceof HttpTimeoutException) {
+                return true;
+            }
+            String message = cause.getMessage();
+            if (cause instanceof WebDriverException && message != null
+                && (message.contains("net::ERR_") || message.contains("about:neterror"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long latencyMillis() {
+        return ConfigReader.getInstance().getIntProperty("breaker.latency.ms", 20_000);
+    }
+
+    private static String describe(Throwable failure) {
+        String message = failure.getMessage();
+        if (message == null || message.isBlank()) {
+            return failure.getClass().getSimpleName();
+        }
+        int end = message.indexOf('\n');
+        return failure.getClass().getSimpleName() + ": " + (end < 0 ? message : message.substring(0, end));
+    }
+}
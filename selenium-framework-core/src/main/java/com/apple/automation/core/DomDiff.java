@@ -0,0 +1,299 @@
+package com.apple.automation.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Differences between two {@link DomSnapshot}s of the same region, e.g. before and after an action.
+ *
+ * <p>Children are paired by id, {@code data-autom} or {@code name} where they have one, then
+ * unkeyed children with identical content in order, then the remaining ones by tag in order.
+ * Unpaired children are reported as added or removed with their whole subtree; paired elements
+ * are compared on attributes, form state, visibility and their own text.</p>
+ */
+public final class DomDiff {
+
+    /**
+     * Kind of change.
+     */
+    public enum Type {
+        ADDED,
+        REMOVED,
+        ATTRIBUTE,
+        PROPERTY,
+        TEXT,
+        VISIBILITY
+    }
+
+    private final List<Change> changes;
+
+    private DomDiff(List<Change> changes) {
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    static DomDiff between(DomNode before, DomNode after) {
+        List<Change> changes = new ArrayList<>();
+        if (!before.getTag().equals(after.getTag()) || !Objects.equals(key(before), key(after))) {
+            changes.add(new Change(Type.REMOVED, before, null, null, null));
+            changes.add(new Change(Type.ADDED, after, null, null, null));
+        } else {
+            compare(before, after, changes);
+        }
+        return new DomDiff(changes);
+    }
+
+    private static void compare(DomNode before, DomNode after, List<Change> changes) {
+        compareValues(Type.ATTRIBUTE, before.getAttributes(), after.getAttributes(), after, changes);
+        if (before.isVisible() != after.isVisible()) {
+            changes.add(new Change(Type.VISIBILITY, after, null, before.isVisible(), after.isVisible()));
+        }
+        if (!before.getOwnText().equals(after.getOwnText())) {
+            changes.add(new Change(Type.TEXT, after, null, before.getOwnText(), after.getOwnText()));
+        }
+        compareValues(Type.PROPERTY, properties(before), properties(after), after, changes);
+
+        Map<DomNode, DomNode> pairs = pair(before.getChildren(), after.getChildren());
+        for (DomNode child : before.getChildren()) {
+            if (!pairs.containsKey(child)) {
+                changes.add(new Change(Type.REMOVED, child, null, null, null));
+            }
+        }
+        Map<DomNode, DomNode> reverse = new IdentityHashMap<>();
+        pairs.forEach((previous, current) -> reverse.put(current, previous));
+        for (DomNode child : after.getChildren()) {
+            DomNode previous = reverse.get(child);
+            if (previous == null) {
+                changes.add(new Change(Type.ADDED, child, null, null, null));
+            } else {
+                compare(previous, child, changes);
+            }
+        }
+    }
+
+    /**
+     * Pairs earlier children with later ones: by key where there is one, then unkeyed children
+     * in order by identical content (longest common subsequence), then the rest by tag in order.
+     */
+    private static Map<DomNode, DomNode> pair(List<DomNode> before, List<DomNode> after) {
+        Map<DomNode, DomNode> pairs = new IdentityHashMap<>();
+        Map<String, DomNode> keyed = new LinkedHashMap<>();
+        for (DomNode child : before) {
+            String key = key(child);
+            if (key != null) {
+                keyed.putIfAbsent(key, child);
+            }
+        }
+        List<DomNode> previous = new ArrayList<>();
+        List<DomNode> current = new ArrayList<>();
+        for (DomNode child : after) {
+            String key = key(child);
+            DomNode match = key == null ? null : keyed.remove(key);
+            if (match != null) {
+                pairs.put(match, child);
+            } else if (key == null) {
+                current.add(child);
+            }
+        }
+        for (DomNode child : before) {
+            if (key(child) == null) {
+                previous.add(child);
+            }
+        }
+
+        List<String> previousSignatures = new ArrayList<>();
+        previous.forEach(child -> previousSignatures.add(signature(child)));
+        List<String> currentSignatures = new ArrayList<>();
+        current.forEach(child -> currentSignatures.add(signature(child)));
+
+        int[][] common = new int[previous.size() + 1][current.size() + 1];
+        for (int i = previous.size() - 1; i >= 0; i--) {
+            for (int j = current.size() - 1; j >= 0; j--) {
+                common[i][j] = previousSignatures.get(i).equals(currentSignatures.get(j))
+                    ? common[i + 1][j + 1] + 1
+                    : Math.max(common[i + 1][j], common[i][j + 1]);
+            }
+        }
+        List<DomNode> unpaired = new ArrayList<>();
+        List<DomNode> unpairedLater = new ArrayList<>(current);
+        for (int i = 0, j = 0; i < previous.size(); ) {
+            if (j < current.size() && previousSignatures.get(i).equals(currentSignatures.get(j))) {
+                pairs.put(previous.get(i), current.get(j));
+                unpairedLater.remove(current.get(j));
+                i++;
+                j++;
+            } else if (j < current.size() && common[i][j + 1] >= common[i + 1][j]) {
+                j++;
+            } else {
+                unpaired.add(previous.get(i));
+                i++;
+            }
+        }
+
+        // Same element with changed content
+        for (DomNode child : unpaired) {
+            for (DomNode candidate : unpairedLater) {
+                if (candidate.getTag().equals(child.getTag())) {
+                    pairs.put(child, candidate);
+                    unpairedLater.remove(candidate);
+                    break;
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static void compareValues(Type type, Map<String, ?> before, Map<String, ?> after,
+                                      DomNode node, List<Change> changes) {
+        Set<String> names = new LinkedHashSet<>(before.keySet());
+        names.addAll(after.keySet());
+        for (String name : names) {
+            if (!Objects.equals(before.get(name), after.get(name))) {
+                changes.add(new Change(type, node, name, before.get(name), after.get(name)));
+            }
+        }
+    }
+
+    private static Map<String, Object> properties(DomNode node) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (String name : new String[] {"value", "checked", "selected", "disabled"}) {
+            if (node.getProperty(name) != null) {
+                properties.put(name, node.getProperty(name));
+            }
+        }
+        return properties;
+    }
+
+    private static String key(DomNode node) {
+        if (node.getId() != null) {
+            return node.getTag() + "#" + node.getId();
+        }
+        if (node.getAttribute("data-autom") != null) {
+            return node.getTag() + "[data-autom=" + node.getAttribute("data-autom") + "]";
+        }
+        if (node.getAttribute("name") != null) {
+            return node.getTag() + "[name=" + node.getAttribute("name") + "]";
+        }
+        return null;
+    }
+
+    private static String signature(DomNode node) {
+        StringBuilder signature = new StringBuilder(node.getTag()).append(node.getAttributes());
+        for (DomNode child : node.getChildren()) {
+            signature.append('(').append(signature(child)).append(')');
+        }
+        return signature.append(node.getOwnText()).toString();
+    }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Changes of one type, e.g. {@code diff.getChanges(DomDiff.Type.ADDED)}.
+     */
+    public List<Change> getChanges(Type type) {
+        List<Change> ofType = new ArrayList<>();
+        for (Change change : changes) {
+            if (change.type == type) {
+                ofType.add(change);
+            }
+        }
+        return ofType;
+    }
+
+    /**
+     * Changes to elements matching a selector, checked against the snapshot the element comes from.
+     */
+    public List<Change> getChanges(String selector) {
+        DomSelector parsed = DomSelector.parse(selector);
+        List<Change> matching = new ArrayList<>();
+        for (Change change : changes) {
+            if (parsed.matches(change.node)) {
+                matching.add(change);
+            }
+        }
+        return matching;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        if (changes.isEmpty()) {
+            return "No changes";
+        }
+        StringBuilder text = new StringBuilder();
+        for (Change change : changes) {
+            text.append(change).append('\n');
+        }
+        return text.toString().trim();
+    }
+
+    /**
+     * One difference: an added or removed element, or a changed attribute, property, text or visibility.
+     */
+    public static final class Change {
+        private final Type type;
+        private final DomNode node;
+        private final String name;
+        private final Object before;
+        private final Object after;
+
+        private Change(Type type, DomNode node, String name, Object before, Object after) {
+            this.type = type;
+            this.node = node;
+            this.name = name;
+            this.before = before;
+            this.after = after;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * The element: from the later snapshot, or from the earlier one if it was removed.
+         */
+        public DomNode getNode() {
+            return node;
+        }
+
+        /**
+         * Attribute or property name, or null for other changes.
+         */
+        public String getName() {
+            return name;
+        }
+
+        public Object getBefore() {
+            return before;
+        }
+
+        public Object getAfter() {
+            return after;
+        }
+
+        @Override
+        public String toString() {
+            switch (type) {
+                case ADDED:
+                case REMOVED:
+                    return type + " " + node.getPath();
+                case ATTRIBUTE:
+                case PROPERTY:
+                    return type + " " + node.getPath() + " " + name + ": " + before + " -> " + after;
+                default:
+                    return type + " " + node.getPath() + ": " + before + " -> " + after;
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.apple.automation.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Element of a {@link DomSnapshot}: tag, attributes, form state and computed visibility as they
+ * were when the snapshot was taken. Nodes are immutable and never talk to the browser.
+ */
+public final class DomNode {
+
+    private final String tag;
+    private final Map<String, String> attributes;
+    private final Map<String, Object> properties;
+    private final boolean visible;
+    private final boolean block;
+    private final DomNode parent;
+    private final int index;
+    // Text segments and child nodes in document order
+    private final List<Object> content;
+    private final List<DomNode> children;
+
+    @SuppressWarnings("unchecked")
+    DomNode(Map<String, Object> serialized, DomNode parent, int index) {
+        this.tag = (String) serialized.get("t");
+        this.attributes = Collections.unmodifiableMap(
+            new LinkedHashMap<>((Map<String, String>) serialized.getOrDefault("a", Collections.emptyMap())));
+        this.properties = Collections.unmodifiableMap(
+            new LinkedHashMap<>((Map<String, Object>) serialized.getOrDefault("s", Collections.emptyMap())));
+        this.visible = Boolean.TRUE.equals(serialized.get("v"));
+        this.block = Boolean.TRUE.equals(serialized.get("b"));
+        this.parent = parent;
+        this.index = index;
+
+        List<Object> segments = new ArrayList<>();
+        List<DomNode> elements = new ArrayList<>();
+        for (Object item : (List<Object>) serialized.getOrDefault("c", Collections.emptyList())) {
+            if (item instanceof Map) {
+                DomNode child = new DomNode((Map<String, Object>) item, this, elements.size());
+                elements.add(child);
+                segments.add(child);
+            } else {
+                segments.add(String.valueOf(item));
+            }
+        }
+        this.content = Collections.unmodifiableList(segments);
+        this.children = Collections.unmodifiableList(elements);
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Attribute value, or null if the element does not have the attribute.
+     */
+    public String getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public String getId() {
+        return attributes.get("id");
+    }
+
+    public List<String> getClasses() {
+        String classes = attributes.get("class");
+        return classes == null || classes.isBlank()
+            ? Collections.emptyList()
+            : Arrays.asList(classes.trim().split("\\s+"));
+    }
+
+    public boolean hasClass(String className) {
+        return getClasses().contains(className);
+    }
+
+    /**
+     * Current form state: {@code value}, {@code checked}, {@code selected} or {@code disabled}
+     * where the element has it, or null.
+     */
+    public Object getProperty(String name) {
+        return properties.get(name);
+    }
+
+    /**
+     * Whether the element was displayed, with the same rules as {@code isDisplayed()}: not
+     * hidden by display, visibility or opacity on itself or an ancestor, and taking up space.
+     */
+    public boolean isVisible() {
+        return visible;
+    }
+
+    /**
+     * Visible text of the element and its descendants, like {@code getText()}: hidden
+     * elements contribute nothing, block elements start a new line, whitespace is collapsed.
+     */
+    public String getText() {
+        if (!visible) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        appendText(text);
+        StringBuilder lines = new StringBuilder();
+        for (String line : text.toString().split("\n")) {
+            String trimmed = line.replaceAll("[ \\t\\r\\f\\u00a0]+", " ").trim();
+            if (!trimmed.isEmpty()) {
+                if (lines.length() > 0) {
+                    lines.append('\n');
+                }
+                lines.append(trimmed);
+            }
+        }
+        return lines.toString();
+    }
+
+    private void appendText(StringBuilder text) {
+        for (Object item : content) {
+            if (item instanceof DomNode) {
+                DomNode child = (DomNode) item;
+                if ("br".equals(child.tag)) {
+                    text.append('\n');
+                } else if (child.visible) {
+                    if (child.block) {
+                        text.append('\n');
+                    }
+                    child.appendText(text);
+                    if (child.block) {
+                        text.append('\n');
+                    }
+                }
+            } else {
+                text.append(((String) item).replaceAll("\\s+", " "));
+            }
+        }
+    }
+
+    /**
+     * Text directly inside this element, excluding its children; used when diffing.
+     */
+    String getOwnText() {
+        StringBuilder text = new StringBuilder();
+        for (Object item : content) {
+            if (item instanceof String) {
+                text.append((String) item);
+            }
+        }
+        return text.toString().replaceAll("\\s+", " ").trim();
+    }
+
+    /**
+     * The parent element, or null for the root of the snapshot.
+     */
+    public DomNode getParent() {
+        return parent;
+    }
+
+    public List<DomNode> getChildren() {
+        return children;
+    }
+
+    /**
+     * Position among the parent's element children, starting at 0.
+     */
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * Whether this element matches a selector; see {@link DomSnapshot} for the supported syntax.
+     */
+    public boolean matches(String selector) {
+        return DomSelector.parse(selector).matches(this);
+    }
+
+    /**
+     * Descendants matching a selector, in document order, like {@code querySelectorAll}.
+     */
+    public List<DomNode> query(String selector) {
+        DomSelector parsed = DomSelector.parse(selector);
+        List<DomNode> matches = new ArrayList<>();
+        collect(parsed, matches);
+        return matches;
+    }
+
+    /**
+     * First descendant matching a selector, like {@code querySelector}.
+     */
+    public Optional<DomNode> queryFirst(String selector) {
+        List<DomNode> matches = query(selector);
+        return matches.isEmpty() ? Optional.empty() : Optional.of(matches.get(0));
+    }
+
+    private void collect(DomSelector selector, List<DomNode> matches) {
+        for (DomNode child : children) {
+            if (selector.matches(child)) {
+                matches.add(child);
+            }
+            child.collect(selector, matches);
+        }
+    }
+
+    /**
+     * Short selector-like path from the snapshot root, e.g. {@code div.rs-bag > ul > li:nth-of-type(2)}.
+     */
+    public String getPath() {
+        return parent == null ? describe() : parent.getPath() + " > " + describe();
+    }
+
+    private String describe() {
+        StringBuilder description = new StringBuilder(tag);
+        if (getId() != null) {
+            return description.append('#').append(getId()).toString();
+        }
+        if (!getClasses().isEmpty()) {
+            description.append('.').append(getClasses().get(0));
+        }
+        if (parent != null) {
+            int sameTag = 0;
+            int position = 0;
+            for (DomNode sibling : parent.children) {
+                if (sibling.tag.equals(tag)) {
+                    sameTag++;
+                    if (sibling == this) {
+                        position = sameTag;
+                    }
+                }
+            }
+            if (sameTag > 1) {
+                description.append(":nth-of-type(").append(position).append(')');
+            }
+        }
+        return description.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getPath() + (visible ? "" : " (hidden)");
+    }
+}
@@ -0,0 +1,394 @@
+package com.apple.automation.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CSS selector evaluated against {@link DomNode} trees.
+ *
+ * <p>Supports type, universal, id, class and attribute selectors ({@code = ~= |= ^= $= *=},
+ * with the {@code i} flag), the descendant, child, next-sibling and subsequent-sibling
+ * combinators, selector lists, and the pseudo-classes {@code :not()}, {@code :first-child},
+ * {@code :last-child}, {@code :only-child}, {@code :nth-child()}, {@code :empty},
+ * {@code :checked}, {@code :disabled} and {@code :enabled}. Two additions match on what the
+ * snapshot recorded: {@code :visible}/{@code :hidden} and {@code :contains("text")} on the
+ * visible text.</p>
+ */
+final class DomSelector {
+
+    private static final Map<String, DomSelector> cache = new ConcurrentHashMap<>();
+
+    private final List<Complex> alternatives;
+
+    private DomSelector(List<Complex> alternatives) {
+        this.alternatives = alternatives;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the selector is malformed or uses unsupported syntax
+     */
+    static DomSelector parse(String selector) {
+        return cache.computeIfAbsent(selector, text -> new Parser(text).selectorList());
+    }
+
+    boolean matches(DomNode node) {
+        for (Complex complex : alternatives) {
+            if (complex.matches(node, complex.compounds.size() - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compound selectors joined by combinators, matched right to left.
+     */
+    private static final class Complex {
+        private final List<Compound> compounds = new ArrayList<>();
+        // combinators.get(i) joins compounds i and i + 1
+        private final List<Character> combinators = new ArrayList<>();
+
+        private boolean matches(DomNode node, int position) {
+            if (!compounds.get(position).matches(node)) {
+                return false;
+            }
+            if (position == 0) {
+                return true;
+            }
+            switch (combinators.get(position - 1)) {
+                case '>':
+                    return node.getParent() != null && matches(node.getParent(), position - 1);
+                case '+':
+                    DomNode previous = previousSibling(node);
+                    return previous != null && matches(previous, position - 1);
+                case '~':
+                    for (DomNode sibling = previousSibling(node); sibling != null; sibling = previousSibling(sibling)) {
+                        if (matches(sibling, position - 1)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                case ' ':
+                default:
+                    for (DomNode ancestor = node.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+                        if (matches(ancestor, position - 1)) {
+                            return true;
+                        }
+                    }
+                    return false;
+            }
+        }
+
+        private static DomNode previousSibling(DomNode node) {
+            return node.getParent() == null || node.getIndex() == 0
+                ? null
+                : node.getParent().getChildren().get(node.getIndex() - 1);
+        }
+    }
+
+    /**
+     * Simple selectors that must all match one element.
+     */
+    private static final class Compound {
+        private final List<Condition> conditions = new ArrayList<>();
+
+        private boolean matches(DomNode node) {
+            for (Condition condition : conditions) {
+                if (!condition.matches(node)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private interface Condition {
+        boolean matches(DomNode node);
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int position;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        private DomSelector selectorList() {
+            List<Complex> alternatives = new ArrayList<>();
+            do {
+                skipWhitespace();
+                alternatives.add(complex());
+                skipWhitespace();
+            } while (consume(','));
+            if (position < text.length()) {
+                throw error("Unexpected '" + text.charAt(position) + "'");
+            }
+            return new DomSelector(alternatives);
+        }
+
+        private Complex complex() {
+            Complex complex = new Complex();
+            complex.compounds.add(compound());
+            while (true) {
+                boolean whitespace = skipWhitespace();
+                if (position >= text.length() || peek() == ',' || peek() == ')') {
+                    return complex;
+                }
+                char combinator = ' ';
+                if (peek() == '>' || peek() == '+' || peek() == '~') {
+                    combinator = text.charAt(position++);
+                    skipWhitespace();
+                } else if (!whitespace) {
+                    throw error("Expected a combinator");
+                }
+                complex.combinators.add(combinator);
+                complex.compounds.add(compound());
+            }
+        }
+
+        private Compound compound() {
+            Compound compound = new Compound();
+            if (consume('*')) {
+                compound.conditions.add(node -> true);
+            } else if (position < text.length() && isNameChar(peek())) {
+                String tag = identifier().toLowerCase(Locale.ROOT);
+                compound.conditions.add(node -> node.getTag().equals(tag));
+            }
+            while (position < text.length()) {
+                char c = peek();
+                if (c == '#') {
+                    position++;
+                    String id = identifier();
+                    compound.conditions.add(node -> id.equals(node.getId()));
+                } else if (c == '.') {
+                    position++;
+                    String className = identifier();
+                    compound.conditions.add(node -> node.hasClass(className));
+                } else if (c == '[') {
+                    position++;
+                    compound.conditions.add(attribute());
+                } else if (c == ':') {
+                    position++;
+                    compound.conditions.add(pseudoClass());
+                } else {
+                    break;
+                }
+            }
+            if (compound.conditions.isEmpty()) {
+                throw error("Expected a selector");
+            }
+            return compound;
+        }
+
+        private Condition attribute() {
+            skipWhitespace();
+            String name = identifier();
+            skipWhitespace();
+            if (consume(']')) {
+                return node -> node.getAttribute(name) != null;
+            }
+            String operator = consume('=') ? "=" : text.substring(position, Math.min(position + 2, text.length()));
+            if (!"=".equals(operator)) {
+                if (!operator.matches("[~|^$*]=")) {
+                    throw error("Unsupported attribute operator");
+                }
+                position += 2;
+            }
+            skipWhitespace();
+            String expected = peek() == '"' || peek() == '\'' ? string() : identifier();
+            skipWhitespace();
+            boolean ignoreCase = consume('i') || consume('I');
+            skipWhitespace();
+            expect(']');
+
+            String value = ignoreCase ? expected.toLowerCase(Locale.ROOT) : expected;
+            return node -> {
+                String actual = node.getAttribute(name);
+                if (actual == null) {
+                    return false;
+                }
+                if (ignoreCase) {
+                    actual = actual.toLowerCase(Locale.ROOT);
+                }
+                switch (operator) {
+                    case "~=":
+                        return List.of(actual.trim().split("\\s+")).contains(value);
+                    case "|=":
+                        return actual.equals(value) || actual.startsWith(value + "-");
+                    case "^=":
+                        return !value.isEmpty() && actual.startsWith(value);
+                    case "$=":
+                        return !value.isEmpty() && actual.endsWith(value);
+                    case "*=":
+                        return !value.isEmpty() && actual.contains(value);
+                    case "=":
+                    default:
+                        return actual.equals(value);
+                }
+            };
+        }
+
+        private Condition pseudoClass() {
+            String name = identifier().toLowerCase(Locale.ROOT);
+            switch (name) {
+                case "visible":
+                    return DomNode::isVisible;
+                case "hidden":
+                    return node -> !node.isVisible();
+                case "first-child":
+                    return node -> node.getIndex() == 0;
+                case "last-child":
+                    return node -> node.getParent() == null
+                        || node.getIndex() == node.getParent().getChildren().size() - 1;
+                case "only-child":
+                    return node -> node.getParent() == null || node.getParent().getChildren().size() == 1;
+                case "empty":
+                    return node -> node.getChildren().isEmpty() && node.getOwnText().isEmpty();
+                case "checked":
+                    return node -> Boolean.TRUE.equals(node.getProperty("checked"))
+                        || Boolean.TRUE.equals(node.getProperty("selected"));
+                case "disabled":
+                    return node -> Boolean.TRUE.equals(node.getProperty("disabled"));
+                case "enabled":
+                    return node -> Boolean.FALSE.equals(node.getProperty("disabled"));
+                case "not":
+                    expect('(');
+                    skipWhitespace();
+                    List<Complex> excluded = new ArrayList<>();
+                    do {
+                        skipWhitespace();
+                        excluded.add(complex());
+                        skipWhitespace();
+                    } while (consume(','));
+                    expect(')');
+                    DomSelector not = new DomSelector(excluded);
+                    return node -> !not.matches(node);
+                case "contains":
+                    expect('(');
+                    skipWhitespace();
+                    String contained = string();
+                    skipWhitespace();
+                    expect(')');
+                    return node -> node.getText().contains(contained);
+                case "nth-child":
+                    expect('(');
+                    int end = text.indexOf(')', position);
+                    if (end < 0) {
+                        throw error("Unclosed :nth-child(");
+                    }
+                    int[] step = nth(text.substring(position, end).trim().toLowerCase(Locale.ROOT).replace(" ", ""));
+                    position = end + 1;
+                    return node -> {
+                        int n = node.getIndex() + 1 - step[1];
+                        return step[0] == 0 ? n == 0 : n / step[0] >= 0 && n % step[0] == 0;
+                    };
+                default:
+                    throw error("Unsupported pseudo-class :" + name);
+            }
+        }
+
+        /**
+         * Parses {@code an+b}, {@code odd} or {@code even} into {a, b}.
+         */
+        private int[] nth(String expression) {
+            if ("odd".equals(expression)) {
+                return new int[] {2, 1};
+            }
+            if ("even".equals(expression)) {
+                return new int[] {2, 0};
+            }
+            try {
+                int n = expression.indexOf('n');
+                if (n < 0) {
+                    return new int[] {0, Integer.parseInt(expression)};
+                }
+                String a = expression.substring(0, n);
+                String b = expression.substring(n + 1);
+                return new int[] {
+                    a.isEmpty() || "+".equals(a) ? 1 : "-".equals(a) ? -1 : Integer.parseInt(a),
+                    b.isEmpty() ? 0 : Integer.parseInt(b.startsWith("+") ? b.substring(1) : b)
+                };
+            } catch (NumberFormatException e) {
+                throw error("Invalid :nth-child(" + expression + ")");
+            }
+        }
+
+        private String identifier() {
+            StringBuilder identifier = new StringBuilder();
+            while (position < text.length()) {
+                char c = peek();
+                if (c == '\\' && position + 1 < text.length()) {
+                    identifier.append(text.charAt(position + 1));
+                    position += 2;
+                } else if (isNameChar(c)) {
+                    identifier.append(c);
+                    position++;
+                } else {
+                    break;
+                }
+            }
+            if (identifier.length() == 0) {
+                throw error("Expected a name");
+            }
+            return identifier.toString();
+        }
+
+        private String string() {
+            char quote = peek();
+            if (quote != '"' && quote != '\'') {
+                throw error("Expected a quoted string");
+            }
+            StringBuilder value = new StringBuilder();
+            for (position++; position < text.length(); position++) {
+                char c = text.charAt(position);
+                if (c == quote) {
+                    position++;
+                    return value.toString();
+                }
+                if (c == '\\' && position + 1 < text.length()) {
+                    c = text.charAt(++position);
+                }
+                value.append(c);
+            }
+            throw error("Unclosed string");
+        }
+
+        private static boolean isNameChar(char c) {
+            return Character.isLetterOrDigit(c) || c == '-' || c == '_' || c == '\\' || c > 0x7f;
+        }
+
+        private boolean skipWhitespace() {
+            int start = position;
+            while (position < text.length() && Character.isWhitespace(peek())) {
+                position++;
+            }
+            return position > start;
+        }
+
+        private char peek() {
+            return position < text.length() ? text.charAt(position) : '\0';
+        }
+
+        private boolean consume(char c) {
+            if (position < text.length() && peek() == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position + " in selector: " + text);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.apple.automation.core;
+
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable copy of a page region, taken in one script call, for checking many things at once
+ * without further round trips.
+ *
+ * <pre>
+ * DomSnapshot bag = snapshot(BAG_CONTAINER);
+ * bag.isVisible(".rs-bag-empty");
+ * bag.getText(".rs-bag-empty");
+ * bag.getTexts("li.rs-bag-item:visible");
+ * </pre>
+ *
+ * <p>The region root and all its descendants are serialized with their attributes, form state
+ * ({@code value}, {@code checked}, {@code selected}, {@code disabled}) and computed visibility;
+ * scripts, styles and templates are left out. Queries take CSS selectors (compound, attribute,
+ * combinators, {@code :not()}, {@code :nth-child()} and similar, plus {@code :visible} and
+ * {@code :contains("text")}) and are matched within the region only. {@link #diff} reports
+ * what changed between two snapshots of the same region.</p>
+ *
+ * <p>A snapshot is a point in time: it does not wait for elements to appear. Take it once the
+ * page is in the state under test, e.g. after the page object's own waits.</p>
+ */
+public final class DomSnapshot {
+
+    private static final Logger logger = LogManager.getLogger(DomSnapshot.class);
+
+    // arguments: root locator map or element, node limit; null while the root is not present
+    private static final String CAPTURE_SCRIPT =
+        PageScripts.FIND
+        + "var root = arguments[0] && arguments[0].using ? find(arguments[0]) : arguments[0];"
+        + "if (!root) { return null; }"
+        + "var limit = arguments[1], count = 0;"
+        + "var skip = {SCRIPT: 1, STYLE: 1, NOSCRIPT: 1, TEMPLATE: 1};"
+        + "var ancestorsShown = function(e) {"
+        + "  for (var p = e.parentElement; p; p = p.parentElement) {"
+        + "    var s = getComputedStyle(p);"
+        + "    if (s.display === 'none' || s.opacity === '0') { return false; }"
+        + "  }"
+        + "  return true;"
+        + "};"
+        + "var walk = function(e, shown) {"
+        + "  count++;"
+        + "  var style = getComputedStyle(e), rect = e.getBoundingClientRect();"
+        + "  shown = shown && style.display !== 'none' && style.opacity !== '0';"
+        + "  var node = {t: e.tagName.toLowerCase(), a: {}, s: {}, c: [],"
+        + "    b: style.display.indexOf('inline') !== 0 && style.display !== 'contents' && style.display !== 'none'};"
+        + "  for (var i = 0; i < e.attributes.length; i++) { node.a[e.attributes[i].name] = e.attributes[i].value; }"
+        + "  if (/^(INPUT|TEXTAREA|SELECT|OPTION|BUTTON)$/.test(e.tagName)) {"
+        + "    if (e.tagName !== 'BUTTON' && e.tagName !== 'OPTION') { node.s.value = e.value; }"
+        + "    if (e.type === 'checkbox' || e.type === 'radio') { node.s.checked = e.checked; }"
+        + "    if (e.tagName === 'OPTION') { node.s.selected = e.selected; }"
+        + "    node.s.disabled = e.disabled;"
+        + "  }"
+        + "  var childShown = false;"
+        + "  for (var n = e.firstChild; n; n = n.nextSibling) {"
+        + "    if (n.nodeType === 3 && n.nodeValue.trim()) { node.c.push(n.nodeValue); }"
+        + "    else if (n.nodeType === 1 && !skip[n.tagName] && count < limit) {"
+        + "      var child = walk(n, shown);"
+        + "      node.c.push(child);"
+        + "      childShown = childShown || child.v;"
+        + "    }"
+        + "  }"
+        // Visible like isDisplayed(): shown, not visibility:hidden, and has a size or visible content
+        + "  node.v = shown && style.visibility === 'visible' && (rect.width > 0 && rect.height > 0 || childShown);"
+        + "  return node;"
+        + "};"
+        + "var tree = walk(root, ancestorsShown(root));"
+        + "return {root: tree, nodes: count, truncated: count >= limit, url: location.href};";
+
+    private final DomNode root;
+    private final String url;
+    private final int nodes;
+
+    private DomSnapshot(DomNode root, String url, int nodes) {
+        this.root = root;
+        this.url = url;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Waits until the region root is present, then serializes it in the same script call.
+     *
+     * @throws TimeoutException if the root does not appear within the wait
+     */
+    @SuppressWarnings("unchecked")
+    static DomSnapshot capture(WebDriverWait wait, By region) {
+        int limit = ConfigReader.getInstance().getIntProperty("snapshot.max.nodes", 5000);
+        Map<String, Object> locator = PageScripts.locator(region);
+        long start = System.nanoTime();
+
+        Map<String, Object> result;
+        try {
+            result = wait.until(driver -> {
+                // Locators that cannot be resolved in the page are found by the driver first
+                Object root = locator != null ? locator : driver.findElement(region);
+                return (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT, root, limit);
+            });
+        } catch (TimeoutException e) {
+            throw new TimeoutException("Snapshot region is not present: " + region, e);
+        }
+
+        int nodes = ((Number) result.get("nodes")).intValue();
+        if (Boolean.TRUE.equals(result.get("truncated"))) {
+            logger.warn("Snapshot of {} stopped at {} elements (snapshot.max.nodes); use a smaller region", region, limit);
+        }
+        logger.debug("Snapshot of {}: {} elements in {} ms", region, nodes, (System.nanoTime() - start) / 1_000_000);
+        return new DomSnapshot(new DomNode((Map<String, Object>) result.get("root"), null, 0),
+            (String) result.get("url"), nodes);
+    }
+
+    /**
+     * The region root.
+     */
+    public DomNode getRoot() {
+        return root;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Elements matching a selector, the root included, in document order.
+     */
+    public List<DomNode> query(String selector) {
+        List<DomNode> matches = new ArrayList<>();
+        if (root.matches(selector)) {
+            matches.add(root);
+        }
+        matches.addAll(root.query(selector));
+        return matches;
+    }
+
+    public Optional<DomNode> queryFirst(String selector) {
+        List<DomNode> matches = query(selector);
+        return matches.isEmpty() ? Optional.empty() : Optional.of(matches.get(0));
+    }
+
+    public boolean exists(String selector) {
+        return queryFirst(selector).isPresent();
+    }
+
+    public int count(String selector) {
+        return query(selector).size();
+    }
+
+    /**
+     * Whether any element matching the selector is visible.
+     */
+    public boolean isVisible(String selector) {
+        for (DomNode node : query(selector)) {
+            if (node.isVisible()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visible text of the first visible match, or an empty string if nothing visible matches.
+     */
+    public String getText(String selector) {
+        for (DomNode node : query(selector)) {
+            if (node.isVisible()) {
+                return node.getText();
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Visible text of every visible match, skipping matches without text.
+     */
+    public List<String> getTexts(String selector) {
+        List<String> texts = new ArrayList<>();
+        for (DomNode node : query(selector)) {
+            String text = node.getText();
+            if (!text.isEmpty()) {
+                texts.add(text);
+            }
+        }
+        return texts;
+    }
+
+    /**
+     * Changes from this snapshot to a later one of the same region.
+     */
+    public DomDiff diff(DomSnapshot later) {
+        return DomDiff.between(root, later.root);
+    }
+
+    @Override
+    public String toString() {
+        return "DomSnapshot of " + root.getPath() + " (" + nodes + " elements) at " + url;
+    }
+}
@@ -0,0 +1,377 @@
+package com.apple.automation.core;
+
+import com.apple.automation.performance.PerformanceRecorder;
+import com.apple.automation.performance.TraceRecorder;
+import com.apple.automation.utils.ConfigReader;
+import com.apple.automation.utils.ProcessMemory;
+import com.apple.automation.utils.TestImpactMap;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.edge.EdgeDriver;
+import org.openqa.selenium.edge.EdgeDriverService;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.firefox.GeckoDriverService;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.safari.SafariDriver;
+import org.openqa.selenium.safari.SafariDriverService;
+import org.openqa.selenium.safari.SafariOptions;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe WebDriver factory and manager.
+ * Implements the Factory pattern for browser instantiation.
+ */
+public class DriverManager {
+    
+    private static final Logger logger = LogManager.getLogger(DriverManager.class);
+    private static final ThreadLocal<WebDriver> driverThreadLocal = new ThreadLocal<>();
+    private static final ThreadLocal<BrowserType> browserTypeThreadLocal = new ThreadLocal<>();
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+    private static final AtomicInteger activeSessions = new AtomicInteger();
+    
+    private static int peakSessions;
+    private static ProcessMemory.Usage peakMemory;
+    
+    public enum BrowserType {
+        CHROME("chrome"),
+        FIREFOX("firefox"),
+        SAFARI("safari"),
+        EDGE("edge"),
+        CHROME_HEADLESS("chrome-headless"),
+        CHROME_LEAN("chrome-lean"),
+        FIREFOX_HEADLESS("firefox-headless");
+        
+        private final String browserName;
+        
+        BrowserType(String browserName) {
+            this.browserName = browserName;
+        }
+        
+        public String getBrowserName() {
+            return browserName;
+        }
+    }
+    
+    /**
+     * Creates a new WebDriver instance based on the specified browser type.
+     * 
+     * @param browserType The type of browser to create
+     * @return WebDriver instance
+     */
+    public static WebDriver createDriver(BrowserType browserType) {
+        logger.info("Creating {} driver", browserType.getBrowserName());
+        long startNanos = System.nanoTime();
+        
+        WebDriver driver;
+        
+        if (RemoteGrid.isEnabled()) {
+            driver = RemoteGrid.createDriver(browserType);
+            configureDriver(driver);
+            driverThreadLocal.set(driver);
+            activeSessions.incrementAndGet();
+            logger.info("{} remote session created in {} ms", browserType.getBrowserName(),
+                (System.nanoTime() - startNanos) / 1_000_000);
+            return driver;
+        }
+        
+        switch (browserType) {
+            case CHROME:
+                driver = SharedBrowser.isEnabled(browserType)
+                    ? SharedBrowser.openContext(false)
+                    : createChromeDriver(false);
+                break;
+                
+            case CHROME_HEADLESS:
+                driver = SharedBrowser.isEnabled(browserType)
+                    ? SharedBrowser.openContext(true)
+                    : createChromeDriver(true);
+                break;
+                
+            case CHROME_LEAN:
+                driver = LeanChrome.create();
+                break;
+                
+            case FIREFOX:
+                driver = createFirefoxDriver(false);
+                break;
+                
+            case FIREFOX_HEADLESS:
+                driver = createFirefoxDriver(true);
+                break;
+                
+            case SAFARI:
+                driver = createSafariDriver();
+                break;
+                
+            case EDGE:
+                driver = createEdgeDriver();
+                break;
+                
+            default:
+                throw new IllegalArgumentException("Unsupported browser: " + browserType);
+        }
+        
+        configureDriver(driver);
+        driverThreadLocal.set(driver);
+        activeSessions.incrementAndGet();
+        
+        logger.info("{} driver created successfully in {} ms", browserType.getBrowserName(),
+            (System.nanoTime() - startNanos) / 1_000_000);
+        return driver;
+    }
+    
+    /**
+     * Acquires a driver for the current thread, reusing a pooled session when available.
+     * Sessions obtained here must be given back with {@link #releaseDriver()}.
+     * 
+     * @param browserType The type of browser to acquire
+     * @return WebDriver instance
+     */
+    public static WebDriver acquireDriver(BrowserType browserType) {
+        WebDriver driver = SessionPool.poll(browserType);
+        
+        if (driver == null) {
+            driver = createDriver(browserType);
+            SessionPool.register(driver);
+        } else {
+            driverThreadLocal.set(driver);
+        }
+        
+        browserTypeThreadLocal.set(browserType);
+        return driver;
+    }
+    
+    /**
+     * Releases the current thread's driver back to the session pool.
+     * Falls back to quitting the driver if it cannot be reused.
+     */
+    public static void releaseDriver() {
+        WebDriver driver = driverThreadLocal.get();
+        BrowserType browserType = browserTypeThreadLocal.get();
+        
+        sampleMemory();
+        if (driver == null || browserType == null || !SessionPool.offer(browserType, driver)) {
+            quitDriver();
+            return;
+        }
+        
+        driverThreadLocal.remove();
+        browserTypeThreadLocal.remove();
+        logger.info("Driver released to session pool");
+    }
+    
+    /**
+     * Creates Chrome driver with options.
+     */
+    static WebDriver createChromeDriver(boolean headless) {
+        WebDriverManager.chromedriver().setup();
+        return new ChromeDriver(ChromeDriverService.createDefaultService(), chromeOptions(headless), clientConfig());
+    }
+    
+    /**
+     * Builds the Chrome options shared by local and remote sessions.
+     */
+    static ChromeOptions chromeOptions(boolean headless) {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--disable-notifications");
+        options.addArguments("--disable-popup-blocking");
+        options.addArguments("--disable-translate");
+        options.addArguments("--start-maximized");
+        
+        // Performance improvements
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        options.addArguments("--disable-gpu");
+        
+        if (headless) {
+            options.addArguments("--headless");
+            options.addArguments("--window-size=1920,1080");
+        }
+        
+        // Enable logging for debugging
+        options.setCapability("goog:loggingPrefs", 
+            java.util.Map.of("browser", "ALL", "driver", "ALL"));
+        
+        return options;
+    }
+    
+    /**
+     * Creates Firefox driver with options.
+     */
+    private static WebDriver createFirefoxDriver(boolean headless) {
+        WebDriverManager.firefoxdriver().setup();
+        return new FirefoxDriver(GeckoDriverService.createDefaultService(), firefoxOptions(headless), clientConfig());
+    }
+    
+    /**
+     * Builds the Firefox options shared by local and remote sessions.
+     */
+    static FirefoxOptions firefoxOptions(boolean headless) {
+        FirefoxOptions options = new FirefoxOptions();
+        options.addPreference("dom.webnotifications.enabled", false);
+        options.addPreference("dom.push.enabled", false);
+        
+        if (headless) {
+            options.addArguments("--headless");
+            options.addArguments("--width=1920");
+            options.addArguments("--height=1080");
+        }
+        
+        return options;
+    }
+    
+    /**
+     * Creates Safari driver (macOS only).
+     */
+    private static WebDriver createSafariDriver() {
+        // Safari doesn't require WebDriverManager
+        return new SafariDriver(SafariDriverService.createDefaultService(), new SafariOptions(), clientConfig());
+    }
+    
+    /**
+     * Creates Edge driver with options.
+     */
+    private static WebDriver createEdgeDriver() {
+        WebDriverManager.edgedriver().setup();
+        return new EdgeDriver(EdgeDriverService.createDefaultService(), edgeOptions(), clientConfig());
+    }
+    
+    /**
+     * Builds the Edge options shared by local and remote sessions.
+     */
+    static EdgeOptions edgeOptions() {
+        EdgeOptions options = new EdgeOptions();
+        options.addArguments("--disable-notifications");
+        options.addArguments("--start-maximized");
+        return options;
+    }
+    
+    /**
+     * HTTP client configuration for driver sessions. Counts the WebDriver commands
+     * of each test for the performance trend store, records them as trace spans and
+     * records the classes and locators behind them in the test impact map.
+     */
+    static ClientConfig clientConfig() {
+        return ClientConfig.defaultConfig()
+            .withFilter(PerformanceRecorder.commandCounter()
+                .andThen(TraceRecorder.commandSpans())
+                .andThen(TestImpactMap.commandRecorder()));
+    }
+    
+    /**
+     * Configures common driver settings.
+     */
+    private static void configureDriver(WebDriver driver) {
+        driver.manage().timeouts().implicitlyWait(DEFAULT_TIMEOUT);
+        driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(30));
+        driver.manage().timeouts().scriptTimeout(Duration.ofSeconds(30));
+        
+        // Maximize window (except for Safari which doesn't support it reliably,
+        // and lean Chrome which keeps its fixed window size)
+        if (!(driver instanceof SafariDriver) && !LeanChrome.owns(driver)) {
+            driver.manage().window().maximize();
+        }
+        
+        // Delete cookies for clean state
+        driver.manage().deleteAllCookies();
+    }
+    
+    /**
+     * Gets the driver instance for the current thread.
+     * 
+     * @return WebDriver instance or null if not initialized
+     */
+    public static WebDriver getDriver() {
+        return driverThreadLocal.get();
+    }
+    
+    /**
+     * Quits the driver and removes it from ThreadLocal.
+     */
+    public static void quitDriver() {
+        WebDriver driver = driverThreadLocal.get();
+        if (driver != null) {
+            try {
+                sampleMemory();
+                quit(driver);
+                logger.info("Driver quit successfully");
+            } catch (Exception e) {
+                logger.error("Error quitting driver", e);
+            } finally {
+                driverThreadLocal.remove();
+                browserTypeThreadLocal.remove();
+            }
+        }
+    }
+    
+    /**
+     * Ends a session, closing only its browser context when it shares a browser process.
+     */
+    static void quit(WebDriver driver) {
+        try {
+            if (SharedBrowser.owns(driver)) {
+                SharedBrowser.closeContext(driver);
+            } else {
+                driver.quit();
+                LeanChrome.cleanup(driver);
+            }
+        } finally {
+            activeSessions.decrementAndGet();
+        }
+    }
+    
+    /**
+     * Logs browser and driver memory per session, measured at peak session concurrency.
+     * Enabled with the session.memory.report property.
+     */
+    public static synchronized void logMemoryReport() {
+        if (peakMemory != null) {
+            logger.info("Session memory at peak ({} mode): {}",
+                ConfigReader.getInstance().getProperty("session.mode", "process"),
+                peakMemory.describe(peakSessions));
+        }
+    }
+    
+    /**
+     * Samples memory while sessions still have their pages loaded.
+     */
+    private static synchronized void sampleMemory() {
+        if (!ConfigReader.getInstance().getBooleanProperty("session.memory.report", false)) {
+            return;
+        }
+        
+        int sessions = activeSessions.get();
+        if (sessions >= peakSessions) {
+            peakSessions = sessions;
+            peakMemory = ProcessMemory.measure();
+        }
+    }
+    
+    /**
+     * Checks if driver is active and responsive.
+     * 
+     * @return true if driver is active, false otherwise
+     */
+    public static boolean isDriverActive() {
+        WebDriver driver = driverThreadLocal.get();
+        if (driver == null) {
+            return false;
+        }
+        
+        try {
+            driver.getTitle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
\ No newline at end of file
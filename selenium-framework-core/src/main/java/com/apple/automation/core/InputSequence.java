@@ -0,0 +1,206 @@
+package com.apple.automation.core;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.ImmutableCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.Platform;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Actions;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Key and pointer input across several fields, compiled into a single W3C Actions
+ * {@code perform()} call.
+ *
+ * <pre>
+ * input().clearAndType(FIRST_NAME, "Ada").clearAndType(LAST_NAME, "Lovelace")
+ *        .press(Keys.TAB).click(SUBMIT).perform();
+ * </pre>
+ *
+ * <p>Unlike {@link ActionBatch}, every character is a real key event, so this suits fields
+ * with key handlers, masks or autocomplete. All target elements are located and checked for
+ * visibility in one script call first (polled until the page wait times out), then the whole
+ * input is sent as one Actions payload: two round trips in total instead of a wait, clear and
+ * {@code sendKeys} per field. Fields are cleared with select-all and backspace as a user
+ * would, so key and input handlers see the clear too.</p>
+ */
+public final class InputSequence {
+
+    private static final Logger logger = LogManager.getLogger(InputSequence.class);
+
+    // Returns the elements in order, or the index of the first one that is missing or hidden
+    private static final String RESOLVE_SCRIPT =
+        PageScripts.FIND
+        + PageScripts.VISIBLE
+        + "var locators = arguments[0], found = [];"
+        + "for (var i = 0; i < locators.length; i++) {"
+        + "  var e = find(locators[i]);"
+        + "  if (!e || !visible(e)) { return i; }"
+        + "  found.push(e);"
+        + "}"
+        + "return found;";
+
+    private final WebDriver driver;
+    private final WebDriverWait wait;
+    private final Actions actions;
+    private final List<By> targets = new ArrayList<>();
+    private final List<BiConsumer<Actions, List<WebElement>>> steps = new ArrayList<>();
+    private int conventionalCalls;
+
+    InputSequence(WebDriver driver, WebDriverWait wait, Actions actions) {
+        this.driver = driver;
+        this.wait = wait;
+        this.actions = actions;
+    }
+
+    /**
+     * Clicks into a field, selects and deletes its content, then types the text.
+     */
+    public InputSequence clearAndType(By field, CharSequence text) {
+        int target = target(field);
+        Keys modifier = selectAllModifier();
+        steps.add((chain, elements) -> focus(chain, elements.get(target))
+            .keyDown(modifier).sendKeys("a").keyUp(modifier)
+            .sendKeys(Keys.BACK_SPACE)
+            .sendKeys(text));
+        conventionalCalls += 4;
+        return this;
+    }
+
+    /**
+     * Clicks into a field and types the text after its current content.
+     */
+    public InputSequence type(By field, CharSequence text) {
+        int target = target(field);
+        steps.add((chain, elements) -> focus(chain, elements.get(target)).sendKeys(text));
+        conventionalCalls += 3;
+        return this;
+    }
+
+    /**
+     * Presses keys in the element that has focus, e.g. {@code Keys.TAB} or {@code Keys.ENTER}.
+     */
+    public InputSequence press(CharSequence... keys) {
+        steps.add((chain, elements) -> chain.sendKeys(keys));
+        conventionalCalls += 1;
+        return this;
+    }
+
+    /**
+     * Moves the pointer to the center of an element and clicks.
+     */
+    public InputSequence click(By locator) {
+        int target = target(locator);
+        steps.add((chain, elements) -> focus(chain, elements.get(target)));
+        conventionalCalls += 4;
+        return this;
+    }
+
+    /**
+     * Moves the pointer over an element without clicking.
+     */
+    public InputSequence hover(By locator) {
+        int target = target(locator);
+        steps.add((chain, elements) -> scrollTo(chain, elements.get(target)).moveToElement(elements.get(target)));
+        conventionalCalls += 3;
+        return this;
+    }
+
+    /**
+     * Locates all targets, then sends the whole sequence in one Actions call.
+     *
+     * @throws TimeoutException if a target is not visible within the page's wait
+     */
+    public void perform() {
+        int[] roundTrips = {1};
+        List<WebElement> elements = resolve(roundTrips);
+        for (BiConsumer<Actions, List<WebElement>> step : steps) {
+            step.accept(actions, elements);
+        }
+        actions.perform();
+
+        logger.debug("Sent {} inputs to {} elements in {} round trips instead of about {}",
+            steps.size(), targets.size(), roundTrips[0], conventionalCalls);
+    }
+
+    private int target(By locator) {
+        int index = targets.indexOf(locator);
+        if (index < 0) {
+            targets.add(locator);
+            index = targets.size() - 1;
+        }
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<WebElement> resolve(int[] roundTrips) {
+        List<Map<String, Object>> locators = new ArrayList<>();
+        for (By target : targets) {
+            locators.add(PageScripts.locator(target));
+        }
+        if (targets.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        if (locators.contains(null)) {
+            // Custom locators can only be resolved by the driver, one wait per target
+            List<WebElement> elements = new ArrayList<>();
+            for (By target : targets) {
+                elements.add(wait.until(ExpectedConditions.visibilityOfElementLocated(target)));
+                roundTrips[0] += 2;
+            }
+            return elements;
+        }
+
+        Object[] pending = {null};
+        try {
+            return wait.until(d -> {
+                roundTrips[0]++;
+                Object result = ((JavascriptExecutor) d).executeScript(RESOLVE_SCRIPT, locators);
+                if (result instanceof List) {
+                    return (List<WebElement>) result;
+                }
+                pending[0] = targets.get(((Number) result).intValue());
+                return null;
+            });
+        } catch (TimeoutException e) {
+            throw new TimeoutException("Input target is not visible: " + pending[0], e);
+        }
+    }
+
+    private Actions focus(Actions chain, WebElement element) {
+        return scrollTo(chain, element).click(element);
+    }
+
+    /**
+     * Pointer moves need the element in the viewport; a wheel scroll keeps that inside
+     * the same payload. Safari has no wheel input, so targets there must already be in view.
+     */
+    private Actions scrollTo(Actions chain, WebElement element) {
+        return "safari".equalsIgnoreCase(capabilities().getBrowserName()) ? chain : chain.scrollToElement(element);
+    }
+
+    private Keys selectAllModifier() {
+        Platform platform = capabilities().getPlatformName();
+        return platform != null && platform.is(Platform.MAC) ? Keys.COMMAND : Keys.CONTROL;
+    }
+
+    private Capabilities capabilities() {
+        return driver instanceof HasCapabilities
+            ? ((HasCapabilities) driver).getCapabilities()
+            : new ImmutableCapabilities();
+    }
+}
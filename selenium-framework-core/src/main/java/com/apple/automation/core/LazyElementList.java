@@ -0,0 +1,189 @@
+package com.apple.automation.core;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Element list that is located each time it is used, the list counterpart of {@link LazyElement}.
+ *
+ * <p>Every method call runs {@code findElements} once and works on that result, so
+ * {@code stream()} or a for-each loop sees one consistent lookup while {@code size()}
+ * followed by {@code get(i)} looks up twice, as with PageFactory's list proxy.</p>
+ */
+public final class LazyElementList implements List<WebElement> {
+
+    private final SearchContext context;
+    private final By locator;
+    private final boolean cached;
+    private List<WebElement> elements;
+
+    public LazyElementList(SearchContext context, By locator, boolean cached) {
+        this.context = context;
+        this.locator = locator;
+        this.cached = cached;
+    }
+
+    private List<WebElement> locate() {
+        if (!cached) {
+            return context.findElements(locator);
+        }
+        if (elements == null) {
+            elements = context.findElements(locator);
+        }
+        return elements;
+    }
+
+    @Override
+    public int size() {
+        return locate().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return locate().isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return locate().contains(o);
+    }
+
+    @Override
+    public Iterator<WebElement> iterator() {
+        return locate().iterator();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return locate().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return locate().toArray(a);
+    }
+
+    @Override
+    public boolean add(WebElement element) {
+        return locate().add(element);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return locate().remove(o);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        return locate().containsAll(c);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends WebElement> c) {
+        return locate().addAll(c);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends WebElement> c) {
+        return locate().addAll(index, c);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        return locate().removeAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        return locate().retainAll(c);
+    }
+
+    @Override
+    public void clear() {
+        locate().clear();
+    }
+
+    @Override
+    public WebElement get(int index) {
+        return locate().get(index);
+    }
+
+    @Override
+    public WebElement set(int index, WebElement element) {
+        return locate().set(index, element);
+    }
+
+    @Override
+    public void add(int index, WebElement element) {
+        locate().add(index, element);
+    }
+
+    @Override
+    public WebElement remove(int index) {
+        return locate().remove(index);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return locate().indexOf(o);
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return locate().lastIndexOf(o);
+    }
+
+    @Override
+    public ListIterator<WebElement> listIterator() {
+        return locate().listIterator();
+    }
+
+    @Override
+    public ListIterator<WebElement> listIterator(int index) {
+        return locate().listIterator(index);
+    }
+
+    @Override
+    public List<WebElement> subList(int fromIndex, int toIndex) {
+        return locate().subList(fromIndex, toIndex);
+    }
+
+    @Override
+    public Spliterator<WebElement> spliterator() {
+        return locate().spliterator();
+    }
+
+    @Override
+    public Stream<WebElement> stream() {
+        return locate().stream();
+    }
+
+    @Override
+    public void forEach(Consumer<? super WebElement> action) {
+        locate().forEach(action);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || locate().equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return locate().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "Lazy element list for: " + locator;
+    }
+}
@@ -0,0 +1,23 @@
+package com.apple.automation.core;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a page's {@code By} constant as a locator for several elements, one the page looks up
+ * with {@code findElements} or {@code waitForElements}. The locator analyzer only flags such
+ * locators when they match nothing, not when they match more than one element.
+ *
+ * <pre>
+ * &#64;ListLocator
+ * private static final By SEARCH_RESULT_ITEMS = By.cssSelector(".rf-serp-product-item");
+ * </pre>
+ *
+ * <p>{@code @FindBy} fields need no marker; a {@code List} field is a list locator.</p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ListLocator {
+}
@@ -0,0 +1,321 @@
+package com.apple.automation.core;
+
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Records network traffic of a test into a HAR archive, or replays it from one.
+ * Uses DevTools request interception, so it requires a Chromium-based browser.
+ *
+ * <ul>
+ *   <li>{@code network.mode=record} - every response is captured and written to
+ *       {@code network.har.dir/<test>.har} when the test ends</li>
+ *   <li>{@code network.mode=replay} - requests are answered from the archive without
+ *       touching the network; with {@code network.replay.strict=true} unrecorded
+ *       requests are blocked and fail the test</li>
+ * </ul>
+ */
+public final class NetworkArchive {
+
+    private static final Logger logger = LogManager.getLogger(NetworkArchive.class);
+    private static final Json JSON = new Json();
+    private static final ThreadLocal<NetworkArchive> current = new ThreadLocal<>();
+
+    private static final Set<String> REPLAY_SKIPPED_HEADERS =
+        Set.of("content-encoding", "content-length", "transfer-encoding");
+    private static final int UNRECORDED_STATUS = 504;
+
+    public enum Mode {
+        LIVE, RECORD, REPLAY
+    }
+
+    private final Mode mode;
+    private final Path harFile;
+    private final boolean strict;
+    private final List<Map<String, Object>> entries = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, Deque<Map<String, Object>>> replayIndex = new HashMap<>();
+    private final List<String> unrecorded = Collections.synchronizedList(new ArrayList<>());
+    private NetworkInterceptor interceptor;
+
+    private NetworkArchive(Mode mode, Path harFile, boolean strict) {
+        this.mode = mode;
+        this.harFile = harFile;
+        this.strict = strict;
+    }
+
+    /**
+     * Gets the configured network mode.
+     */
+    public static Mode configuredMode() {
+        String mode = ConfigReader.getInstance().getProperty("network.mode", "live");
+        return Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Starts recording or replaying for the current thread's test, depending on network.mode.
+     *
+     * @param driver Driver of the test, must support DevTools
+     * @param archiveName Name of the HAR file, usually derived from the test name
+     */
+    public static void start(WebDriver driver, String archiveName) {
+        Mode mode = configuredMode();
+        if (mode == Mode.LIVE) {
+            return;
+        }
+        if (!(driver instanceof HasDevTools)) {
+            logger.warn("Network {} requires a DevTools-capable browser; running live", mode);
+            return;
+        }
+
+        ConfigReader config = ConfigReader.getInstance();
+        Path harFile = Paths.get(config.getProperty("network.har.dir", "target/har"),
+            archiveName.replaceAll("[^A-Za-z0-9._-]", "_") + ".har");
+        NetworkArchive archive = new NetworkArchive(mode, harFile,
+            config.getBooleanProperty("network.replay.strict", false));
+
+        if (mode == Mode.REPLAY) {
+            archive.loadArchive();
+            archive.interceptor = new NetworkInterceptor(driver, archive.replayFilter());
+        } else {
+            archive.interceptor = new NetworkInterceptor(driver, archive.recordFilter());
+        }
+
+        current.set(archive);
+        logger.info("Network {} started: {}", mode.name().toLowerCase(Locale.ROOT), harFile);
+    }
+
+    /**
+     * Stops interception for the current thread and writes the archive when recording.
+     */
+    public static void stop() {
+        NetworkArchive archive = current.get();
+        if (archive == null) {
+            return;
+        }
+        current.remove();
+
+        try {
+            archive.interceptor.close();
+        } catch (Exception e) {
+            logger.debug("Error closing network interceptor", e);
+        }
+
+        if (archive.mode == Mode.RECORD) {
+            archive.writeArchive();
+        }
+    }
+
+    /**
+     * Requests of the current test that were blocked in strict replay because they were not recorded.
+     */
+    public static List<String> unrecordedRequests() {
+        NetworkArchive archive = current.get();
+        if (archive == null || !archive.strict) {
+            return List.of();
+        }
+        synchronized (archive.unrecorded) {
+            return new ArrayList<>(archive.unrecorded);
+        }
+    }
+
+    private Filter recordFilter() {
+        return next -> request -> {
+            Instant started = Instant.now();
+            long startNanos = System.nanoTime();
+            byte[] requestBody = Contents.bytes(request.getContent());
+            request.setContent(Contents.bytes(requestBody));
+
+            HttpResponse response = next.execute(request);
+
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            byte[] responseBody = Contents.bytes(response.getContent());
+            response.setContent(Contents.bytes(responseBody));
+
+            entries.add(toEntry(request, requestBody, response, responseBody, started, elapsedMillis));
+            return response;
+        };
+    }
+
+    private Filter replayFilter() {
+        return next -> request -> {
+            Map<String, Object> entry = nextRecorded(request);
+            if (entry != null) {
+                return toResponse(entry);
+            }
+
+            if (strict) {
+                unrecorded.add(request.getMethod() + " " + request.getUri());
+                return new HttpResponse()
+                    .setStatus(UNRECORDED_STATUS)
+                    .setContent(Contents.utf8String("Not recorded: " + request.getUri()));
+            }
+            return next.execute(request);
+        };
+    }
+
+    /**
+     * Returns the next recorded response for the request. Repeated requests are answered
+     * in recording order; the last one is reused once the recordings run out.
+     */
+    private Map<String, Object> nextRecorded(HttpRequest request) {
+        synchronized (replayIndex) {
+            Deque<Map<String, Object>> candidates = replayIndex.get(request.getMethod() + " " + request.getUri());
+            if (candidates == null || candidates.isEmpty()) {
+                return null;
+            }
+            return candidates.size() > 1 ? candidates.pollFirst() : candidates.peekFirst();
+        }
+    }
+
+    private Map<String, Object> toEntry(HttpRequest request, byte[] requestBody, HttpResponse response,
+                                        byte[] responseBody, Instant started, long elapsedMillis) {
+        Map<String, Object> harRequest = new LinkedHashMap<>();
+        harRequest.put("method", request.getMethod().toString());
+        harRequest.put("url", request.getUri());
+        harRequest.put("httpVersion", "HTTP/1.1");
+        harRequest.put("headers", headers(request::forEachHeader));
+        harRequest.put("queryString", List.of());
+        harRequest.put("cookies", List.of());
+        harRequest.put("headersSize", -1);
+        harRequest.put("bodySize", requestBody.length);
+        if (requestBody.length > 0) {
+            harRequest.put("postData", Map.of(
+                "mimeType", String.valueOf(request.getHeader("Content-Type")),
+                "text", new String(requestBody, StandardCharsets.UTF_8)));
+        }
+
+        String mimeType = response.getHeader("Content-Type") == null ? "" : response.getHeader("Content-Type");
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("size", responseBody.length);
+        content.put("mimeType", mimeType);
+        if (isText(mimeType)) {
+            content.put("text", new String(responseBody, StandardCharsets.UTF_8));
+        } else {
+            content.put("text", Base64.getEncoder().encodeToString(responseBody));
+            content.put("encoding", "base64");
+        }
+
+        Map<String, Object> harResponse = new LinkedHashMap<>();
+        harResponse.put("status", response.getStatus());
+        harResponse.put("statusText", "");
+        harResponse.put("httpVersion", "HTTP/1.1");
+        harResponse.put("headers", headers(response::forEachHeader));
+        harResponse.put("cookies", List.of());
+        harResponse.put("content", content);
+        harResponse.put("redirectURL", response.getHeader("Location") == null ? "" : response.getHeader("Location"));
+        harResponse.put("headersSize", -1);
+        harResponse.put("bodySize", responseBody.length);
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("startedDateTime", started.toString());
+        entry.put("time", elapsedMillis);
+        entry.put("request", harRequest);
+        entry.put("response", harResponse);
+        entry.put("cache", Map.of());
+        entry.put("timings", Map.of("send", 0, "wait", elapsedMillis, "receive", 0));
+        return entry;
+    }
+
+    @SuppressWarnings("unchecked")
+    private HttpResponse toResponse(Map<String, Object> entry) {
+        Map<String, Object> harResponse = (Map<String, Object>) entry.get("response");
+        Map<String, Object> content = (Map<String, Object>) harResponse.get("content");
+        String text = content.get("text") == null ? "" : (String) content.get("text");
+        byte[] body = "base64".equals(content.get("encoding"))
+            ? Base64.getDecoder().decode(text)
+            : text.getBytes(StandardCharsets.UTF_8);
+
+        HttpResponse response = new HttpResponse().setStatus(((Number) harResponse.get("status")).intValue());
+        for (Object header : (List<Object>) harResponse.get("headers")) {
+            Map<String, Object> nameValue = (Map<String, Object>) header;
+            String name = (String) nameValue.get("name");
+            if (!REPLAY_SKIPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                response.addHeader(name, (String) nameValue.get("value"));
+            }
+        }
+        return response.setContent(Contents.bytes(body));
+    }
+
+    private static List<Map<String, Object>> headers(Consumer<BiConsumer<String, String>> forEachHeader) {
+        List<Map<String, Object>> headers = new ArrayList<>();
+        forEachHeader.accept((name, value) -> headers.add(Map.of("name", name, "value", value)));
+        return headers;
+    }
+
+    private static boolean isText(String mimeType) {
+        String type = mimeType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.contains("json") || type.contains("javascript")
+            || type.contains("xml") || type.contains("svg");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadArchive() {
+        if (!Files.exists(harFile)) {
+            logger.warn("No recorded archive at {}; {}", harFile,
+                strict ? "all requests will be blocked" : "requests will go to the network");
+            return;
+        }
+
+        try {
+            Map<String, Object> har = JSON.toType(Files.readString(harFile, StandardCharsets.UTF_8), Map.class);
+            List<Object> harEntries = (List<Object>) ((Map<String, Object>) har.get("log")).get("entries");
+            for (Object item : harEntries) {
+                Map<String, Object> entry = (Map<String, Object>) item;
+                Map<String, Object> request = (Map<String, Object>) entry.get("request");
+                replayIndex.computeIfAbsent(request.get("method") + " " + request.get("url"),
+                    key -> new ArrayDeque<>()).addLast(entry);
+            }
+            logger.debug("Loaded {} recorded requests from {}", harEntries.size(), harFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read network archive: " + harFile, e);
+        }
+    }
+
+    private void writeArchive() {
+        Map<String, Object> log = new LinkedHashMap<>();
+        log.put("version", "1.2");
+        log.put("creator", Map.of("name", "selenium-apple-framework", "version", "1.0.0"));
+        log.put("pages", List.of());
+        synchronized (entries) {
+            log.put("entries", new ArrayList<>(entries));
+        }
+
+        try {
+            Files.createDirectories(harFile.toAbsolutePath().getParent());
+            Files.writeString(harFile, JSON.toJson(Map.of("log", log)), StandardCharsets.UTF_8);
+            logger.info("Recorded {} requests to {}", entries.size(), harFile);
+        } catch (IOException e) {
+            logger.error("Failed to write network archive {}", harFile, e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.apple.automation.core;
+
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Waits until the page has no fetch or XMLHttpRequest requests in flight.
+ *
+ * <p>{@link #TRACKER_SCRIPT} wraps {@code fetch} and {@code XMLHttpRequest.send} to count
+ * requests as they start and settle. BasePage installs it with every page load check, so
+ * requests started by an action afterwards are seen. {@link #await} then runs one async
+ * script that resolves once nothing has been in flight for {@code network.idle.ms}, measured
+ * from the later of the call and the last request settling, so a request an action starts
+ * slightly later is still waited for.</p>
+ *
+ * <p>Requests whose URL contains one of {@code network.idle.ignore} (analytics beacons) and
+ * requests older than {@code network.idle.max.request.ms} (long polling, streams) do not keep
+ * the page busy. Unlike polling {@code jQuery.active}, this works on pages without jQuery and
+ * in every browser, since it needs neither DevTools nor BiDi.</p>
+ */
+final class NetworkIdle {
+
+    private static final Logger logger = LogManager.getLogger(NetworkIdle.class);
+
+    // Idempotent; keeps in-flight requests in window.__networkIdle
+    static final String TRACKER_SCRIPT =
+        "if (!window.__networkIdle) {"
+        + "  var tracker = window.__networkIdle = {inflight: {}, next: 0, settled: performance.now()};"
+        + "  var start = function(url) {"
+        + "    var id = ++tracker.next;"
+        + "    tracker.inflight[id] = {url: String(url), started: performance.now()};"
+        + "    return id;"
+        + "  };"
+        + "  var end = function(id) {"
+        + "    if (tracker.inflight[id]) { delete tracker.inflight[id]; tracker.settled = performance.now(); }"
+        + "  };"
+        + "  if (window.fetch) {"
+        + "    var fetch = window.fetch;"
+        + "    window.fetch = function(input) {"
+        + "      var id = start(input && input.url ? input.url : input);"
+        + "      try {"
+        + "        var result = fetch.apply(this, arguments);"
+        + "        result.then(function() { end(id); }, function() { end(id); });"
+        + "        return result;"
+        + "      } catch (e) { end(id); throw e; }"
+        + "    };"
+        + "  }"
+        + "  var open = XMLHttpRequest.prototype.open, send = XMLHttpRequest.prototype.send;"
+        + "  XMLHttpRequest.prototype.open = function(method, url) {"
+        + "    this.__networkIdleUrl = url;"
+        + "    return open.apply(this, arguments);"
+        + "  };"
+        + "  XMLHttpRequest.prototype.send = function() {"
+        + "    var id = start(this.__networkIdleUrl);"
+        + "    this.addEventListener('loadend', function() { end(id); });"
+        + "    try { return send.apply(this, arguments); } catch (e) { end(id); throw e; }"
+        + "  };"
+        + "}";
+
+    // Page load check that installs the tracker in the same call
+    static final String READY_STATE_SCRIPT = TRACKER_SCRIPT + "return document.readyState;";
+
+    // arguments: idle window ms, ignored URL fragments, max request age ms, deadline ms, callback
+    private static final String AWAIT_SCRIPT =
+        "var idleWindow = arguments[0], ignore = arguments[1], maxAge = arguments[2],"
+        + "  deadline = performance.now() + arguments[3], done = arguments[arguments.length - 1];"
+        + "var installed = !!window.__networkIdle;"
+        + TRACKER_SCRIPT
+        + "var tracker = window.__networkIdle, called = performance.now();"
+        + "var busy = function(now) {"
+        + "  var pending = [];"
+        + "  for (var id in tracker.inflight) {"
+        + "    var request = tracker.inflight[id];"
+        + "    if (now - request.started > maxAge) { continue; }"
+        + "    if (ignore.some(function(part) { return request.url.indexOf(part) >= 0; })) { continue; }"
+        + "    pending.push(request.url);"
+        + "  }"
+        + "  return pending;"
+        + "};"
+        + "var check = function() {"
+        + "  var now = performance.now(), pending = busy(now);"
+        + "  if (!pending.length && now - Math.max(called, tracker.settled) >= idleWindow) {"
+        + "    clearInterval(timer); done({idle: true, installed: installed, waited: now - called});"
+        + "  } else if (now >= deadline) {"
+        + "    clearInterval(timer); done({idle: false, installed: installed, pending: pending});"
+        + "  }"
+        + "};"
+        + "var timer = setInterval(check, 25);";
+
+    // Stays below the driver's 30 s script timeout; longer waits use several calls
+    private static final long MAX_SCRIPT_MILLIS = 20_000;
+
+    private NetworkIdle() {
+    }
+
+    /**
+     * Waits for network quiescence.
+     *
+     * @throws TimeoutException if requests are still in flight after {@code timeout}
+     */
+    @SuppressWarnings("unchecked")
+    static void await(JavascriptExecutor js, Duration timeout) {
+        ConfigReader config = ConfigReader.getInstance();
+        int idleWindow = config.getIntProperty("network.idle.ms", 500);
+        int maxAge = config.getIntProperty("network.idle.max.request.ms", 10_000);
+        List<String> ignore = new ArrayList<>();
+        for (String part : config.getProperty("network.idle.ignore", "").split(",")) {
+            if (!part.isBlank()) {
+                ignore.add(part.trim());
+            }
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        while (true) {
+            long remaining = Math.max(1, (deadline - System.nanoTime()) / 1_000_000);
+            Map<String, Object> result;
+            try {
+                result = (Map<String, Object>) js.executeAsyncScript(AWAIT_SCRIPT,
+                    idleWindow, ignore, maxAge, Math.min(remaining, MAX_SCRIPT_MILLIS));
+            } catch (JavascriptException e) {
+                // The page navigated while waiting; wait again on the new document
+                if (System.nanoTime() >= deadline) {
+                    throw new TimeoutException("Network not idle after " + timeout.toMillis() + " ms", e);
+                }
+                logger.debug("Document changed while waiting for network idle: {}", e.getRawMessage());
+                continue;
+            }
+            if (!Boolean.TRUE.equals(result.get("installed"))) {
+                logger.debug("Request tracker was not installed yet; requests started before now are not seen");
+            }
+            if (Boolean.TRUE.equals(result.get("idle"))) {
+                logger.debug("Network idle after {} ms", (System.nanoTime() - start) / 1_000_000);
+                return;
+            }
+            if (System.nanoTime() >= deadline) {
+                throw new TimeoutException(String.format("Network not idle after %d ms, requests in flight: %s",
+                    timeout.toMillis(), result.get("pending")));
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.apple.automation.core;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.FindAll;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.FindBys;
+import org.openqa.selenium.support.PageFactory;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds the {@code @FindBy} fields of a page through its generated {@link PageElements} classes.
+ *
+ * <p>The generated classes of a page and its superclasses are looked up once per page class;
+ * binding a page afterwards is a few field assignments. A class with annotated fields but no
+ * generated class (compiled without the processor, or with private {@code @FindBy} fields)
+ * falls back to {@code PageFactory}.</p>
+ */
+final class PageBinding {
+
+    private static final Logger logger = LogManager.getLogger(PageBinding.class);
+
+    // Binders from the page class up to BasePage, or null to use PageFactory
+    private static final ClassValue<List<PageElements<Object>>> BINDERS = new ClassValue<>() {
+        @Override
+        protected List<PageElements<Object>> computeValue(Class<?> pageClass) {
+            return binders(pageClass);
+        }
+    };
+
+    private PageBinding() {
+    }
+
+    static void initElements(WebDriver driver, Object page) {
+        List<PageElements<Object>> binders = BINDERS.get(page.getClass());
+        if (binders == null) {
+            PageFactory.initElements(driver, page);
+            return;
+        }
+        for (PageElements<Object> binder : binders) {
+            binder.bind(page, driver);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<PageElements<Object>> binders(Class<?> pageClass) {
+        List<PageElements<Object>> binders = new ArrayList<>();
+        for (Class<?> type = pageClass; type != null && type != BasePage.class; type = type.getSuperclass()) {
+            if (!hasLocatorFields(type)) {
+                continue;
+            }
+            try {
+                Class<?> binder = Class.forName(type.getName() + "_Elements", true, type.getClassLoader());
+                binders.add((PageElements<Object>) binder.getDeclaredConstructor().newInstance());
+            } catch (ReflectiveOperationException e) {
+                logger.warn("No generated {}_Elements, binding {} with PageFactory; is selenium-framework-processor "
+                    + "on the compile path and are its @FindBy fields non-private?", type.getSimpleName(),
+                    pageClass.getSimpleName());
+                return null;
+            }
+        }
+        return binders;
+    }
+
+    private static boolean hasLocatorFields(Class<?> type) {
+        for (Field field : type.getDeclaredFields()) {
+            if (field.isAnnotationPresent(FindBy.class) || field.isAnnotationPresent(FindBys.class)
+                || field.isAnnotationPresent(FindAll.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,21 @@
+package com.apple.automation.core;
+
+import org.openqa.selenium.SearchContext;
+
+/**
+ * Element binding of a page object, generated at compile time for every page class with
+ * {@code @FindBy}, {@code @FindBys} or {@code @FindAll} fields as {@code <Page>_Elements}.
+ *
+ * <p>{@link BasePage} binds pages through these classes instead of
+ * {@code PageFactory.initElements}, so no fields are scanned and no proxies are created
+ * when a page is constructed.</p>
+ *
+ * @param <T> The page class
+ */
+public interface PageElements<T> {
+
+    /**
+     * Assigns the page's annotated fields elements that are looked up in {@code context} when used.
+     */
+    void bind(T page, SearchContext context);
+}
@@ -0,0 +1,64 @@
+package com.apple.automation.core;
+
+import org.openqa.selenium.By;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Script fragments shared by the batched input helpers: resolving a {@link By} inside the
+ * page and the visibility check used instead of {@code isDisplayed()}.
+ */
+final class PageScripts {
+
+    /**
+     * Defines {@code find(locator)}, returning the first match of a locator map from
+     * {@link #locator} or null, with the same semantics as {@code findElement}.
+     */
+    static final String FIND =
+        "var find = function(a) {"
+        + "  switch (a.using) {"
+        + "    case 'id': return document.getElementById(a.value);"
+        + "    case 'name': return document.querySelector('[name=\"' + CSS.escape(a.value) + '\"]');"
+        + "    case 'class name': return document.getElementsByClassName(a.value)[0] || null;"
+        + "    case 'tag name': return document.getElementsByTagName(a.value)[0] || null;"
+        + "    case 'css selector': return document.querySelector(a.value);"
+        + "    case 'xpath': return document.evaluate(a.value, document, null,"
+        + "      XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+        + "    case 'link text': case 'partial link text':"
+        + "      return Array.prototype.find.call(document.getElementsByTagName('a'), function(link) {"
+        + "        var text = link.innerText.trim();"
+        + "        return a.using === 'link text' ? text === a.value : text.indexOf(a.value) >= 0;"
+        + "      }) || null;"
+        + "  }"
+        + "  return null;"
+        + "};";
+
+    /**
+     * Defines {@code visible(element)}: rendered with a size and not hidden.
+     */
+    static final String VISIBLE =
+        "var visible = function(e) {"
+        + "  var rect = e.getBoundingClientRect(), style = getComputedStyle(e);"
+        + "  return rect.width > 0 && rect.height > 0 && style.visibility !== 'hidden';"
+        + "};";
+
+    private PageScripts() {
+    }
+
+    /**
+     * Converts a locator to the map {@link #FIND} expects.
+     *
+     * @return The locator map, or null if the locator cannot be resolved in the page
+     */
+    static Map<String, Object> locator(By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            return null;
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        Map<String, Object> map = new HashMap<>();
+        map.put("using", parameters.using());
+        map.put("value", String.valueOf(parameters.value()));
+        return map;
+    }
+}
@@ -0,0 +1,262 @@
+package com.apple.automation.core;
+
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+import org.openqa.selenium.remote.http.jdk.JdkHttpClient;
+import org.openqa.selenium.safari.SafariOptions;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates sessions on Selenium Grid or a standalone server when {@code grid.enabled=true}.
+ *
+ * <p>All sessions to the same server share one HTTP client, and with it one keep-alive
+ * connection pool, instead of opening a client per session. When {@code grid.hub.url}
+ * lists several servers, each new session goes to the one with the most free slots
+ * for the requested browser, based on their {@code /status} endpoint. The probes use a
+ * separate client with a short timeout ({@code grid.status.timeout.seconds}) and none of the
+ * session filters, so an unresponsive server is skipped quickly.</p>
+ */
+final class RemoteGrid {
+
+    private static final Logger logger = LogManager.getLogger(RemoteGrid.class);
+    private static final Json JSON = new Json();
+
+    private static final Map<URI, HttpClient> sharedClients = new ConcurrentHashMap<>();
+    private static final Map<URI, HttpClient> statusClients = new ConcurrentHashMap<>();
+    private static final Map<URI, AtomicInteger> pendingSessions = new ConcurrentHashMap<>();
+    private static final AtomicInteger roundRobin = new AtomicInteger();
+
+    static {
+        // Read once by the JDK client's connection pool, so it must be set before the first client exists
+        ConfigReader config = ConfigReader.getInstance();
+        setIfAbsent("jdk.httpclient.connectionPoolSize", config.getProperty("grid.http.pool.size", "0"));
+        setIfAbsent("jdk.httpclient.keepalive.timeout", config.getProperty("grid.http.keepalive.seconds", "300"));
+    }
+
+    private RemoteGrid() {
+    }
+
+    /**
+     * Checks if remote sessions are enabled in configuration.
+     */
+    static boolean isEnabled() {
+        return ConfigReader.getInstance().getBooleanProperty("grid.enabled", false);
+    }
+
+    /**
+     * Creates a remote session for the browser type on the least-loaded configured server.
+     */
+    static WebDriver createDriver(DriverManager.BrowserType browserType) {
+        Capabilities capabilities = capabilities(browserType);
+        URI server = selectServer(capabilities.getBrowserName());
+
+        AtomicInteger pending = pendingSessions.computeIfAbsent(server, key -> new AtomicInteger());
+        pending.incrementAndGet();
+        try {
+            HttpCommandExecutor executor = new HttpCommandExecutor(Map.of(), clientConfig(server),
+                RemoteGrid::sharedClient);
+            WebDriver driver = new Augmenter().augment(new RemoteWebDriver(executor, capabilities));
+            logger.info("Created remote {} session on {}", browserType.getBrowserName(), server);
+            return driver;
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * Builds the capabilities for a browser type from the same options as local sessions.
+     */
+    private static Capabilities capabilities(DriverManager.BrowserType browserType) {
+        switch (browserType) {
+            case CHROME:
+                return DriverManager.chromeOptions(false);
+            case CHROME_HEADLESS:
+                return DriverManager.chromeOptions(true);
+            case CHROME_LEAN:
+                return LeanChrome.options();
+            case FIREFOX:
+                return DriverManager.firefoxOptions(false);
+            case FIREFOX_HEADLESS:
+                return DriverManager.firefoxOptions(true);
+            case SAFARI:
+                return new SafariOptions();
+            case EDGE:
+                return DriverManager.edgeOptions();
+            default:
+                throw new IllegalArgumentException("Unsupported browser: " + browserType);
+        }
+    }
+
+    /**
+     * Picks the server with the most free slots for the browser, counting sessions this
+     * JVM is still creating there. Unreachable servers are skipped.
+     */
+    private static URI selectServer(String browserName) {
+        List<URI> servers = new ArrayList<>();
+        for (String url : ConfigReader.getInstance().getProperty("grid.hub.url", "http://localhost:4444").split(",")) {
+            if (!url.isBlank()) {
+                servers.add(URI.create(url.trim()));
+            }
+        }
+        if (servers.size() == 1) {
+            return servers.get(0);
+        }
+
+        // Rotate the starting point so ties spread across servers
+        int offset = Math.floorMod(roundRobin.getAndIncrement(), servers.size());
+        URI selected = null;
+        int mostFree = Integer.MIN_VALUE;
+        for (int i = 0; i < servers.size(); i++) {
+            URI server = servers.get((offset + i) % servers.size());
+            int free = freeSlots(server, browserName);
+            if (free == Integer.MIN_VALUE) {
+                continue;
+            }
+            AtomicInteger pending = pendingSessions.get(server);
+            free -= pending == null ? 0 : pending.get();
+            if (free > mostFree) {
+                mostFree = free;
+                selected = server;
+            }
+        }
+
+        if (selected == null) {
+            throw new SessionNotCreatedException("No Selenium server reachable at " + servers);
+        }
+        logger.debug("Routing {} session to {} ({} free slots)", browserName, selected, mostFree);
+        return selected;
+    }
+
+    /**
+     * Counts idle slots for the browser on a server, or returns Integer.MIN_VALUE if the
+     * server is unreachable or not ready.
+     */
+    @SuppressWarnings("unchecked")
+    private static int freeSlots(URI server, String browserName) {
+        try {
+            HttpResponse response = statusClient(server).execute(new HttpRequest(HttpMethod.GET, "/status"));
+            if (response.getStatus() != 200) {
+                return Integer.MIN_VALUE;
+            }
+
+            Map<String, Object> body = JSON.toType(Contents.string(response), Map.class);
+            Map<String, Object> status = (Map<String, Object>) body.get("value");
+            if (status == null || !Boolean.TRUE.equals(status.get("ready"))) {
+                return Integer.MIN_VALUE;
+            }
+
+            int free = 0;
+            for (Object item : (List<Object>) status.getOrDefault("nodes", List.of())) {
+                Map<String, Object> node = (Map<String, Object>) item;
+                if (!"UP".equals(node.get("availability"))) {
+                    continue;
+                }
+
+                int busy = 0;
+                int idleMatching = 0;
+                for (Object slotItem : (List<Object>) node.getOrDefault("slots", List.of())) {
+                    Map<String, Object> slot = (Map<String, Object>) slotItem;
+                    Map<String, Object> stereotype = (Map<String, Object>) slot.getOrDefault("stereotype", Map.of());
+                    if (slot.get("session") != null) {
+                        busy++;
+                    } else if (browserName.equalsIgnoreCase(String.valueOf(stereotype.get("browserName")))) {
+                        idleMatching++;
+                    }
+                }
+                int maxSessions = node.get("maxSessions") instanceof Number
+                    ? ((Number) node.get("maxSessions")).intValue()
+                    : Integer.MAX_VALUE;
+                free += Math.max(0, Math.min(idleMatching, maxSessions - busy));
+            }
+            return free;
+
+        } catch (RuntimeException e) {
+            logger.warn("Selenium server {} is not reachable: {}", server, e.getMessage());
+            return Integer.MIN_VALUE;
+        }
+    }
+
+    private static ClientConfig clientConfig(URI server) {
+        ConfigReader config = ConfigReader.getInstance();
+        return DriverManager.clientConfig()
+            .baseUri(server)
+            .connectionTimeout(Duration.ofSeconds(config.getIntProperty("grid.connect.timeout.seconds", 10)))
+            .readTimeout(Duration.ofSeconds(config.getIntProperty("grid.read.timeout.seconds", 180)));
+    }
+
+    /**
+     * Returns the client for a server's status probes: short timeouts and no test filters,
+     * since the probe is not part of any test and must not hold up session creation.
+     */
+    private static HttpClient statusClient(URI server) {
+        return statusClients.computeIfAbsent(server, uri -> {
+            Duration timeout = Duration.ofSeconds(ConfigReader.getInstance().getIntProperty("grid.status.timeout.seconds", 3));
+            return new JdkHttpClient.Factory().createClient(ClientConfig.defaultConfig()
+                .baseUri(uri)
+                .connectionTimeout(timeout)
+                .readTimeout(timeout));
+        });
+    }
+
+    /**
+     * Returns the JVM-wide client for the server of the config.
+     */
+    private static HttpClient sharedClient(ClientConfig config) {
+        return sharedClients.computeIfAbsent(config.baseUri(),
+            uri -> new SharedClient(new JdkHttpClient.Factory().createClient(config)));
+    }
+
+    /**
+     * Client shared by all sessions. Sessions close their client on quit, so close is ignored.
+     */
+    private static class SharedClient implements HttpClient {
+        private final HttpClient delegate;
+
+        SharedClient(HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            return delegate.execute(request);
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            return delegate.openSocket(request, listener);
+        }
+
+        @Override
+        public void close() {
+            // Kept open for the next session
+        }
+    }
+
+    private static void setIfAbsent(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.apple.automation.core;
+
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of idle browser sessions that can be reused between test invocations.
+ * Sessions are reset (cookies, storage, extra windows) instead of restarted.
+ */
+public final class SessionPool {
+
+    private static final Logger logger = LogManager.getLogger(SessionPool.class);
+    private static final Map<DriverManager.BrowserType, Deque<WebDriver>> idleSessions = new ConcurrentHashMap<>();
+    private static final Set<WebDriver> allSessions = ConcurrentHashMap.newKeySet();
+    private static final AtomicInteger idleCount = new AtomicInteger();
+
+    private static final String CLEAR_STORAGE_SCRIPT =
+        "try { window.localStorage.clear(); } catch (e) {}" +
+        "try { window.sessionStorage.clear(); } catch (e) {}";
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(SessionPool::shutdown, "session-pool-shutdown"));
+    }
+
+    private SessionPool() {
+    }
+
+    /**
+     * Checks if session reuse is enabled in configuration.
+     */
+    public static boolean isEnabled() {
+        return ConfigReader.getInstance().getBooleanProperty("session.reuse", false);
+    }
+
+    /**
+     * Takes an idle session for the browser type, or returns null if none is available.
+     */
+    static WebDriver poll(DriverManager.BrowserType browserType) {
+        Deque<WebDriver> sessions = idleSessions.get(browserType);
+        WebDriver driver = sessions == null ? null : sessions.pollFirst();
+        if (driver != null) {
+            idleCount.decrementAndGet();
+            logger.debug("Reusing pooled {} session", browserType.getBrowserName());
+        }
+        return driver;
+    }
+
+    /**
+     * Registers a newly created session as owned by the pool.
+     */
+    static void register(WebDriver driver) {
+        allSessions.add(driver);
+    }
+
+    /**
+     * Resets the session and returns it to the pool.
+     *
+     * @return true if the session was pooled, false if the caller should quit it
+     */
+    static boolean offer(DriverManager.BrowserType browserType, WebDriver driver) {
+        if (!allSessions.contains(driver)) {
+            return false;
+        }
+
+        int maxIdle = ConfigReader.getInstance().getIntProperty("session.pool.max.idle", 3);
+        if (idleCount.get() >= maxIdle || !reset(driver)) {
+            allSessions.remove(driver);
+            return false;
+        }
+
+        idleSessions.computeIfAbsent(browserType, key -> new ConcurrentLinkedDeque<>()).offerFirst(driver);
+        idleCount.incrementAndGet();
+        logger.debug("Returned {} session to pool", browserType.getBrowserName());
+        return true;
+    }
+
+    /**
+     * Quits every idle session. Sessions still in use are quit by their owners.
+     */
+    public static void shutdown() {
+        for (Deque<WebDriver> sessions : idleSessions.values()) {
+            WebDriver driver;
+            while ((driver = sessions.pollFirst()) != null) {
+                idleCount.decrementAndGet();
+                allSessions.remove(driver);
+                try {
+                    DriverManager.quit(driver);
+                } catch (Exception e) {
+                    logger.debug("Error quitting pooled session", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Clears per-test state so the next test starts from a clean session.
+     */
+    private static boolean reset(WebDriver driver) {
+        try {
+            // Sessions in a shared browser see every context's windows, so only close our own
+            if (!SharedBrowser.owns(driver)) {
+                String mainWindow = driver.getWindowHandle();
+                for (String handle : driver.getWindowHandles()) {
+                    if (!handle.equals(mainWindow)) {
+                        driver.switchTo().window(handle).close();
+                    }
+                }
+                driver.switchTo().window(mainWindow);
+            }
+
+            StorageState.clear(driver);
+            ((JavascriptExecutor) driver).executeScript(CLEAR_STORAGE_SCRIPT);
+            driver.manage().deleteAllCookies();
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to reset pooled session, it will be discarded: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.apple.automation.core;
+
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Alert;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs several logical test sessions inside one Chrome process.
+ * Each session attaches its own ChromeDriver to the shared browser and drives a page
+ * created in a dedicated browser context (CDP {@code Target.createBrowserContext}),
+ * so cookies, storage and cache are isolated while the browser process is shared.
+ * An attached driver sees every page of the process, so window handles and window
+ * switching are limited to the targets of the session's own browser context.
+ */
+public final class SharedBrowser {
+
+    private static final Logger logger = LogManager.getLogger(SharedBrowser.class);
+    private static final List<Host> hosts = new ArrayList<>();
+    private static final Map<WebDriver, Context> contexts = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(SharedBrowser::shutdown, "shared-browser-shutdown"));
+    }
+
+    private SharedBrowser() {
+    }
+
+    /**
+     * A browser process that hosts browser contexts.
+     */
+    private static class Host {
+        private final ChromeDriver driver;
+        private final String debuggerAddress;
+        private final boolean headless;
+        private int activeContexts;
+
+        Host(ChromeDriver driver, String debuggerAddress, boolean headless) {
+            this.driver = driver;
+            this.debuggerAddress = debuggerAddress;
+            this.headless = headless;
+        }
+    }
+
+    /**
+     * A logical session: an attached driver plus the context and page it owns.
+     */
+    private static class Context {
+        private final Host host;
+        private final String browserContextId;
+        private final String targetId;
+
+        Context(Host host, String browserContextId, String targetId) {
+            this.host = host;
+            this.browserContextId = browserContextId;
+            this.targetId = targetId;
+        }
+    }
+
+    /**
+     * Checks if context mode is enabled and supported for the browser type.
+     */
+    public static boolean isEnabled(DriverManager.BrowserType browserType) {
+        boolean contextMode = "context".equalsIgnoreCase(
+            ConfigReader.getInstance().getProperty("session.mode", "process"));
+        boolean chrome = browserType == DriverManager.BrowserType.CHROME
+            || browserType == DriverManager.BrowserType.CHROME_HEADLESS;
+
+        if (contextMode && !chrome) {
+            logger.warn("Context session mode is only supported for Chrome. Using a separate process for {}.",
+                browserType.getBrowserName());
+        }
+        return contextMode && chrome;
+    }
+
+    /**
+     * Checks if the driver is a logical session created by this class.
+     */
+    public static boolean owns(WebDriver driver) {
+        return contexts.containsKey(driver);
+    }
+
+    /**
+     * Opens a new isolated session in a shared browser process.
+     */
+    static WebDriver openContext(boolean headless) {
+        Host host = acquireHost(headless);
+
+        ChromeOptions options = new ChromeOptions();
+        options.setExperimentalOption("debuggerAddress", host.debuggerAddress);
+        ContextDriver driver = new ContextDriver(options);
+
+        try {
+            Map<String, Object> context = driver.executeCdpCommand("Target.createBrowserContext",
+                Map.of("disposeOnDetach", false));
+            String browserContextId = (String) context.get("browserContextId");
+            driver.browserContextId = browserContextId;
+
+            Map<String, Object> targetParams = new HashMap<>();
+            targetParams.put("url", "about:blank");
+            targetParams.put("browserContextId", browserContextId);
+            if (host.headless) {
+                targetParams.put("width", 1920);
+                targetParams.put("height", 1080);
+            }
+            String targetId = driver.createTarget(targetParams);
+
+            driver.switchTo().window(targetId);
+            contexts.put(driver, new Context(host, browserContextId, targetId));
+
+            logger.debug("Opened browser context {} on shared browser {}", browserContextId, host.debuggerAddress);
+            return driver;
+
+        } catch (RuntimeException e) {
+            releaseHost(host);
+            driver.quit();
+            throw new SessionNotCreatedException("Failed to create browser context on shared browser", e);
+        }
+    }
+
+    /**
+     * Closes the session's page and disposes its context. The shared browser keeps running.
+     */
+    static void closeContext(WebDriver driver) {
+        Context context = contexts.remove(driver);
+        if (context == null) {
+            return;
+        }
+
+        try {
+            ChromeDriver chromeDriver = (ChromeDriver) driver;
+            chromeDriver.executeCdpCommand("Target.closeTarget", Map.of("targetId", context.targetId));
+            chromeDriver.executeCdpCommand("Target.disposeBrowserContext",
+                Map.of("browserContextId", context.browserContextId));
+        } catch (Exception e) {
+            logger.debug("Error disposing browser context {}", context.browserContextId, e);
+        } finally {
+            // Attached drivers detach on quit; they never close a browser they did not launch
+            driver.quit();
+            releaseHost(context.host);
+        }
+    }
+
+    /**
+     * Quits all shared browser processes.
+     */
+    public static synchronized void shutdown() {
+        for (WebDriver driver : new ArrayList<>(contexts.keySet())) {
+            closeContext(driver);
+        }
+        for (Host host : hosts) {
+            try {
+                host.driver.quit();
+            } catch (Exception e) {
+                logger.debug("Error quitting shared browser", e);
+            }
+        }
+        hosts.clear();
+    }
+
+    /**
+     * Picks the host with the fewest contexts below the configured limit, launching one if needed.
+     */
+    private static synchronized Host acquireHost(boolean headless) {
+        int maxContexts = ConfigReader.getInstance().getIntProperty("session.contexts.per.browser", 8);
+
+        Host selected = null;
+        for (Host host : hosts) {
+            if (host.headless == headless && host.activeContexts < maxContexts
+                && (selected == null || host.activeContexts < selected.activeContexts)) {
+                selected = host;
+            }
+        }
+
+        if (selected == null) {
+            selected = launchHost(headless);
+            hosts.add(selected);
+        }
+
+        selected.activeContexts++;
+        return selected;
+    }
+
+    private static synchronized void releaseHost(Host host) {
+        host.activeContexts--;
+    }
+
+    private static Host launchHost(boolean headless) {
+        ChromeDriver driver = (ChromeDriver) DriverManager.createChromeDriver(headless);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> chromeOptions = (Map<String, Object>)
+            ((HasCapabilities) driver).getCapabilities().getCapability("goog:chromeOptions");
+        String debuggerAddress = chromeOptions == null ? null : (String) chromeOptions.get("debuggerAddress");
+
+        if (debuggerAddress == null) {
+            driver.quit();
+            throw new SessionNotCreatedException("Chrome did not report a debugger address for context mode");
+        }
+
+        logger.info("Launched shared Chrome process at {}", debuggerAddress);
+        return new Host(driver, debuggerAddress, headless);
+    }
+
+    /**
+     * ChromeDriver attached to the shared browser that only sees the pages of its browser
+     * context. ChromeDriver's window handles are DevTools target ids, so handles are
+     * filtered with {@code Target.getTargets}. Until the context is set it behaves like
+     * a plain attached driver.
+     */
+    private static final class ContextDriver extends ChromeDriver {
+        private volatile String browserContextId;
+
+        ContextDriver(ChromeOptions options) {
+            super(ChromeDriverService.createDefaultService(), options, DriverManager.clientConfig());
+        }
+
+        @Override
+        public Set<String> getWindowHandles() {
+            Set<String> handles = new LinkedHashSet<>(super.getWindowHandles());
+            if (browserContextId != null) {
+                handles.retainAll(targets(true));
+            }
+            return handles;
+        }
+
+        @Override
+        public TargetLocator switchTo() {
+            TargetLocator locator = super.switchTo();
+            return browserContextId == null ? locator : new ContextTargetLocator(this, locator);
+        }
+
+        private String createTarget(Map<String, Object> params) {
+            return (String) executeCdpCommand("Target.createTarget", params).get("targetId");
+        }
+
+        /**
+         * Target ids inside this session's context, or those of all other contexts.
+         */
+        @SuppressWarnings("unchecked")
+        private Set<String> targets(boolean own) {
+            Set<String> targets = new HashSet<>();
+            List<Map<String, Object>> infos = (List<Map<String, Object>>)
+                executeCdpCommand("Target.getTargets", Map.of()).get("targetInfos");
+            for (Map<String, Object> info : infos) {
+                if (browserContextId.equals(info.get("browserContextId")) == own) {
+                    targets.add((String) info.get("targetId"));
+                }
+            }
+            return targets;
+        }
+    }
+
+    /**
+     * Refuses switching to another session's window and opens new windows in the session's context.
+     */
+    private static final class ContextTargetLocator implements WebDriver.TargetLocator {
+        private final ContextDriver driver;
+        private final WebDriver.TargetLocator delegate;
+
+        ContextTargetLocator(ContextDriver driver, WebDriver.TargetLocator delegate) {
+            this.driver = driver;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public WebDriver window(String nameOrHandle) {
+            if (driver.targets(false).contains(nameOrHandle)) {
+                throw new NoSuchWindowException("Window " + nameOrHandle + " belongs to another browser context");
+            }
+            return delegate.window(nameOrHandle);
+        }
+
+        @Override
+        public WebDriver newWindow(WindowType typeHint) {
+            // ChromeDriver would open it in the default context, shared by every session
+            Map<String, Object> params = new HashMap<>();
+            params.put("url", "about:blank");
+            params.put("browserContextId", driver.browserContextId);
+            params.put("newWindow", typeHint == WindowType.WINDOW);
+            return delegate.window(driver.createTarget(params));
+        }
+
+        @Override
+        public WebDriver frame(int index) {
+            return delegate.frame(index);
+        }
+
+        @Override
+        public WebDriver frame(String nameOrId) {
+            return delegate.frame(nameOrId);
+        }
+
+        @Override
+        public WebDriver frame(WebElement frameElement) {
+            return delegate.frame(frameElement);
+        }
+
+        @Override
+        public WebDriver parentFrame() {
+            return delegate.parentFrame();
+        }
+
+        @Override
+        public WebDriver defaultContent() {
+            return delegate.defaultContent();
+        }
+
+        @Override
+        public WebElement activeElement() {
+            return delegate.activeElement();
+        }
+
+        @Override
+        public Alert alert() {
+            return delegate.alert();
+        }
+    }
+}
\ No newline at end of file
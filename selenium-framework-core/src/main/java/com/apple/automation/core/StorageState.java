@@ -0,0 +1,318 @@
+package com.apple.automation.core;
+
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.ChromiumDriver;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshot of a session's cookies, localStorage, sessionStorage and IndexedDB records.
+ * States are captured once per user and environment, cached on disk and injected into
+ * fresh or pooled sessions before their first navigation.
+ */
+public final class StorageState {
+
+    private static final Logger logger = LogManager.getLogger(StorageState.class);
+    private static final Json JSON = new Json();
+    private static final Map<String, StorageState> cache = new ConcurrentHashMap<>();
+    private static final Map<String, Object> locks = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, String> injectedScripts = new ConcurrentHashMap<>();
+
+    private static final String CAPTURE_STORAGE_SCRIPT =
+        "function dump(s) { var o = {}; for (var i = 0; i < s.length; i++) { var k = s.key(i); o[k] = s.getItem(k); } return o; }" +
+        "return {origin: location.origin, local: dump(localStorage), session: dump(sessionStorage)};";
+
+    private static final String CAPTURE_INDEXED_DB_SCRIPT =
+        "var done = arguments[arguments.length - 1];" +
+        "var maxRecords = arguments[0];" +
+        "if (!window.indexedDB || !indexedDB.databases) { return done([]); }" +
+        "indexedDB.databases().then(function (infos) {" +
+        "  return Promise.all(infos.map(function (info) { return new Promise(function (resolve) {" +
+        "    var req = indexedDB.open(info.name);" +
+        "    req.onerror = function () { resolve(null); };" +
+        "    req.onsuccess = function () {" +
+        "      var db = req.result; var names = Array.prototype.slice.call(db.objectStoreNames);" +
+        "      if (!names.length) { db.close(); return resolve({name: db.name, version: db.version, stores: []}); }" +
+        "      var tx = db.transaction(names, 'readonly'); var stores = [];" +
+        "      names.forEach(function (n) {" +
+        "        var store = tx.objectStore(n); var entry = {name: n, keyPath: store.keyPath, autoIncrement: store.autoIncrement, records: []};" +
+        "        stores.push(entry);" +
+        "        store.getAllKeys(null, maxRecords).onsuccess = function (k) {" +
+        "          store.getAll(null, maxRecords).onsuccess = function (v) {" +
+        "            for (var i = 0; i < k.target.result.length; i++) { entry.records.push({key: k.target.result[i], value: v.target.result[i]}); }" +
+        "          };" +
+        "        };" +
+        "      });" +
+        "      tx.oncomplete = function () { db.close(); resolve({name: db.name, version: db.version, stores: stores}); };" +
+        "      tx.onerror = function () { db.close(); resolve(null); };" +
+        "    };" +
+        "  }); }));" +
+        "}).then(function (dbs) { done(dbs.filter(Boolean)); }, function () { done([]); });";
+
+    /**
+     * Populates storage for the state's origin. Runs before page scripts when injected through CDP.
+     * A sessionStorage marker makes sure state is only applied once per tab.
+     */
+    private static final String RESTORE_SCRIPT_TEMPLATE =
+        "(function (state) {" +
+        "  if (location.origin !== state.origin || sessionStorage.getItem('__storageStateApplied')) { return; }" +
+        "  Object.keys(state.localStorage).forEach(function (k) { localStorage.setItem(k, state.localStorage[k]); });" +
+        "  Object.keys(state.sessionStorage).forEach(function (k) { sessionStorage.setItem(k, state.sessionStorage[k]); });" +
+        "  sessionStorage.setItem('__storageStateApplied', '1');" +
+        "  (state.indexedDb || []).forEach(function (d) {" +
+        "    var req = indexedDB.open(d.name, d.version);" +
+        "    req.onupgradeneeded = function () { d.stores.forEach(function (s) {" +
+        "      if (!req.result.objectStoreNames.contains(s.name)) {" +
+        "        req.result.createObjectStore(s.name, {keyPath: s.keyPath || undefined, autoIncrement: s.autoIncrement});" +
+        "      } }); };" +
+        "    req.onsuccess = function () { var db = req.result;" +
+        "      d.stores.forEach(function (s) { if (!db.objectStoreNames.contains(s.name)) { return; }" +
+        "        var store = db.transaction(s.name, 'readwrite').objectStore(s.name);" +
+        "        s.records.forEach(function (r) { s.keyPath ? store.put(r.value) : store.put(r.value, r.key); });" +
+        "      });" +
+        "    };" +
+        "  });" +
+        "})(%s);";
+
+    private final String origin;
+    private final List<Map<String, Object>> cookies;
+    private final Map<String, Object> localStorage;
+    private final Map<String, Object> sessionStorage;
+    private final List<Object> indexedDb;
+
+    private StorageState(String origin, List<Map<String, Object>> cookies, Map<String, Object> localStorage,
+                         Map<String, Object> sessionStorage, List<Object> indexedDb) {
+        this.origin = origin;
+        this.cookies = cookies;
+        this.localStorage = localStorage;
+        this.sessionStorage = sessionStorage;
+        this.indexedDb = indexedDb;
+    }
+
+    /**
+     * UI flow that produces the state to be captured.
+     * Implementations need a public no-argument constructor.
+     */
+    public interface SetupFlow {
+        void run(WebDriver driver, ConfigReader config);
+    }
+
+    /**
+     * Applies the cached state for the annotation's user to the driver, or runs the setup
+     * flow and captures the resulting state if no valid cached state exists yet.
+     * Concurrent callers for the same user and environment run the setup flow only once.
+     *
+     * @return true if cached state was injected, false if the setup flow ran on this driver
+     */
+    public static boolean restoreOrCapture(WebDriver driver, UseStorageState spec) {
+        ConfigReader config = ConfigReader.getInstance();
+        String environment = config.getProperty("environment",
+            URI.create(config.getProperty("base.url", "https://www.apple.com")).getHost());
+        String key = environment + "/" + spec.user();
+
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            StorageState state = cache.get(key);
+            Path file = stateFile(environment, spec.user());
+
+            if (state == null && (state = load(file)) != null) {
+                logger.info("Loaded storage state '{}' from {}", key, file);
+                cache.put(key, state);
+            }
+
+            if (state == null) {
+                logger.info("Running setup flow {} to capture storage state '{}'", spec.setup().getSimpleName(), key);
+                runSetup(spec.setup(), driver, config);
+                StorageState fresh = capture(driver);
+                fresh.save(file);
+                cache.put(key, fresh);
+                return false;
+            }
+
+            state.apply(driver);
+            return true;
+        }
+    }
+
+    /**
+     * Captures the state of the driver's current origin.
+     */
+    @SuppressWarnings("unchecked")
+    public static StorageState capture(WebDriver driver) {
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        Map<String, Object> storage = (Map<String, Object>) js.executeScript(CAPTURE_STORAGE_SCRIPT);
+        int maxRecords = ConfigReader.getInstance().getIntProperty("storage.state.idb.max.records", 1000);
+        List<Object> indexedDb = (List<Object>) js.executeAsyncScript(CAPTURE_INDEXED_DB_SCRIPT, maxRecords);
+
+        List<Map<String, Object>> cookies = new ArrayList<>();
+        for (Cookie cookie : driver.manage().getCookies()) {
+            Map<String, Object> entry = new LinkedHashMap<>(cookie.toJson());
+            if (cookie.getExpiry() != null) {
+                entry.put("expiry", cookie.getExpiry().getTime() / 1000);
+            }
+            cookies.add(entry);
+        }
+
+        return new StorageState((String) storage.get("origin"), cookies,
+            (Map<String, Object>) storage.get("local"), (Map<String, Object>) storage.get("session"), indexedDb);
+    }
+
+    /**
+     * Injects the state into a session that has not navigated to the origin yet.
+     * Chromium sessions get cookies and a document-start script through CDP, so no extra
+     * navigation is needed. Other browsers briefly load the origin to set state directly.
+     */
+    public void apply(WebDriver driver) {
+        String restoreScript = String.format(RESTORE_SCRIPT_TEMPLATE, JSON.toJson(toMap()));
+
+        if (driver instanceof ChromiumDriver) {
+            ChromiumDriver chromium = (ChromiumDriver) driver;
+            List<Map<String, Object>> cdpCookies = new ArrayList<>();
+            for (Map<String, Object> cookie : cookies) {
+                cdpCookies.add(toCdpCookie(cookie));
+            }
+            chromium.executeCdpCommand("Network.setCookies", Map.of("cookies", cdpCookies));
+            Map<String, Object> script = chromium.executeCdpCommand(
+                "Page.addScriptToEvaluateOnNewDocument", Map.of("source", restoreScript));
+            injectedScripts.put(driver, (String) script.get("identifier"));
+        } else {
+            driver.get(origin);
+            for (Map<String, Object> cookie : cookies) {
+                driver.manage().addCookie(toCookie(cookie));
+            }
+            ((JavascriptExecutor) driver).executeScript(restoreScript);
+        }
+
+        logger.debug("Applied storage state for {} ({} cookies, {} localStorage keys)",
+            origin, cookies.size(), localStorage.size());
+    }
+
+    /**
+     * Removes a previously injected restore script, so a pooled session can be reused
+     * by a test with a different state.
+     */
+    static void clear(WebDriver driver) {
+        String identifier = injectedScripts.remove(driver);
+        if (identifier != null && driver instanceof ChromiumDriver) {
+            ((ChromiumDriver) driver).executeCdpCommand(
+                "Page.removeScriptToEvaluateOnNewDocument", Map.of("identifier", identifier));
+        }
+    }
+
+    /**
+     * Writes the state as JSON.
+     */
+    public void save(Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, JSON.toJson(toMap()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save storage state: " + file, e);
+        }
+    }
+
+    /**
+     * Reads a saved state, or returns null if it is missing or older than storage.state.ttl.minutes.
+     */
+    @SuppressWarnings("unchecked")
+    public static StorageState load(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try {
+            long ttlMinutes = ConfigReader.getInstance().getIntProperty("storage.state.ttl.minutes", 60);
+            Instant modified = Files.getLastModifiedTime(file).toInstant();
+            if (modified.plus(Duration.ofMinutes(ttlMinutes)).isBefore(Instant.now())) {
+                logger.info("Storage state {} expired", file);
+                return null;
+            }
+
+            Map<String, Object> data = JSON.toType(Files.readString(file, StandardCharsets.UTF_8), Map.class);
+            return new StorageState((String) data.get("origin"),
+                (List<Map<String, Object>>) data.get("cookies"),
+                (Map<String, Object>) data.get("localStorage"),
+                (Map<String, Object>) data.get("sessionStorage"),
+                (List<Object>) data.get("indexedDb"));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable storage state {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("origin", origin);
+        map.put("cookies", cookies);
+        map.put("localStorage", localStorage);
+        map.put("sessionStorage", sessionStorage);
+        map.put("indexedDb", indexedDb);
+        return map;
+    }
+
+    private static Path stateFile(String environment, String user) {
+        String dir = ConfigReader.getInstance().getProperty("storage.state.dir", "target/storage-state");
+        return Paths.get(dir, environment.replaceAll("[^A-Za-z0-9._-]", "_"),
+            user.replaceAll("[^A-Za-z0-9._-]", "_") + ".json");
+    }
+
+    private static void runSetup(Class<? extends SetupFlow> flowClass, WebDriver driver, ConfigReader config) {
+        try {
+            flowClass.getDeclaredConstructor().newInstance().run(driver, config);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate setup flow " + flowClass.getName(), e);
+        }
+    }
+
+    private static Map<String, Object> toCdpCookie(Map<String, Object> cookie) {
+        Map<String, Object> cdp = new HashMap<>();
+        cdp.put("name", cookie.get("name"));
+        cdp.put("value", cookie.get("value"));
+        cdp.put("domain", cookie.get("domain"));
+        cdp.put("path", cookie.getOrDefault("path", "/"));
+        cdp.put("secure", cookie.getOrDefault("secure", false));
+        cdp.put("httpOnly", cookie.getOrDefault("httpOnly", false));
+        if (cookie.get("sameSite") != null) {
+            cdp.put("sameSite", cookie.get("sameSite"));
+        }
+        if (cookie.get("expiry") instanceof Number) {
+            cdp.put("expires", ((Number) cookie.get("expiry")).doubleValue());
+        }
+        return cdp;
+    }
+
+    private static Cookie toCookie(Map<String, Object> cookie) {
+        Cookie.Builder builder = new Cookie.Builder((String) cookie.get("name"), (String) cookie.get("value"))
+            .domain((String) cookie.get("domain"))
+            .path((String) cookie.getOrDefault("path", "/"))
+            .isSecure(Boolean.TRUE.equals(cookie.get("secure")))
+            .isHttpOnly(Boolean.TRUE.equals(cookie.get("httpOnly")));
+        if (cookie.get("sameSite") != null) {
+            builder.sameSite((String) cookie.get("sameSite"));
+        }
+        if (cookie.get("expiry") instanceof Number) {
+            builder.expiresOn(new Date(((Number) cookie.get("expiry")).longValue() * 1000));
+        }
+        return builder.build();
+    }
+}
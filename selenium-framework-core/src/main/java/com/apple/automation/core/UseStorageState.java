@@ -0,0 +1,31 @@
+package com.apple.automation.core;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Starts a test from a cached browser storage state instead of repeating UI setup.
+ * The setup flow runs once per user and environment; later tests get the captured
+ * cookies and storage injected before their first navigation.
+ *
+ * <pre>
+ * &#64;UseStorageState(user = "shopper", setup = FilledBagSetup.class)
+ * public void testCheckoutWithItems() { ... }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface UseStorageState {
+
+    /**
+     * Logical user the state belongs to. Part of the cache key.
+     */
+    String user() default "default";
+
+    /**
+     * Flow that produces the state, e.g. logging in or filling the bag through the UI.
+     */
+    Class<? extends StorageState.SetupFlow> setup();
+}
@@ -0,0 +1,294 @@
+package com.apple.automation.listeners;
+
+import com.apple.automation.utils.ConfigReader;
+import com.apple.automation.utils.TestImpactMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs only the tests affected by changed files, using the {@link TestImpactMap} recorded by
+ * earlier runs. Inactive unless {@code impact.diff} (a git ref to diff the working tree
+ * against, e.g. {@code origin/main}) or {@code impact.changed.files} (comma-separated paths)
+ * is set.
+ *
+ * <p>A changed Java source selects the tests that ran code of its class. When every changed
+ * line of a page object is a locator declaration ({@code By.*(...)} or {@code @FindBy}), only
+ * the tests that sent one of the old locator values are selected instead. Changes under
+ * {@code impact.full.run.paths} (framework code, build and suite files), other non-Java
+ * changes, a changed class no recorded test ran code of and a missing map run everything; {@code impact.ignore.paths} are skipped. Tests
+ * that are not in the map yet always run.</p>
+ */
+public class TestImpactSelector implements IMethodInterceptor {
+
+    private static final Logger logger = LogManager.getLogger(TestImpactSelector.class);
+
+    private static final Pattern LOCATOR_LINE = Pattern.compile(
+        "^\\s*(@Find(By|Bys|All)\\b.*|.*\\bBy\\.(id|name|className|cssSelector|xpath|linkText|partialLinkText|tagName)\\(.*)$");
+    private static final Pattern COMMENT_LINE = Pattern.compile("^\\s*(//.*|/?\\*.*)?$");
+    private static final Pattern STRING_LITERAL = Pattern.compile("\"((?:[^\"\\\\]|\\\\.)*)\"");
+    private static final String[] SOURCE_ROOTS = {"src/main/java/", "src/test/java/"};
+
+    // One selection per run: the interceptor is called for every <test> of the suite
+    private static Selection selection;
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        Selection current = selection();
+        if (current == null || current.runAll) {
+            return methods;
+        }
+        List<IMethodInstance> selected = new ArrayList<>();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            String test = TestImpactMap.testKey(method.getRealClass().getName(), method.getMethodName());
+            if (!current.recorded.contains(test) || current.affected.contains(test)) {
+                selected.add(instance);
+            } else {
+                logger.debug("Skipping unaffected test {}", test);
+            }
+        }
+        logger.info("Test impact selection for '{}': {} of {} tests", context.getName(), selected.size(), methods.size());
+        return selected;
+    }
+
+    private static synchronized Selection selection() {
+        ConfigReader config = ConfigReader.getInstance();
+        String ref = config.getProperty("impact.diff", "").trim();
+        String files = config.getProperty("impact.changed.files", "").trim();
+        if (ref.isEmpty() && files.isEmpty()) {
+            return null;
+        }
+        if (selection == null) {
+            selection = select(ref.isEmpty() ? null : ref, files);
+            logger.info(selection.runAll
+                ? "Test impact: running all tests, " + selection.reason
+                : "Test impact: " + selection.reason + ", affected tests: " + selection.affected);
+        }
+        return selection;
+    }
+
+    static Selection select(String ref, String files) {
+        ConfigReader config = ConfigReader.getInstance();
+        List<String> changed;
+        String root = null;
+        try {
+            if (ref != null) {
+                root = git(null, "rev-parse", "--show-toplevel").get(0);
+                changed = git(root, "diff", "--name-only", ref);
+            } else {
+                changed = split(files);
+            }
+        } catch (IOException | RuntimeException e) {
+            return Selection.all("changed files are unknown: " + e.getMessage());
+        }
+
+        Map<String, TestImpactMap.Entry> map = TestImpactMap.load();
+        if (map.isEmpty()) {
+            return Selection.all("no test impact map at " + TestImpactMap.file().toAbsolutePath());
+        }
+        List<String> ignored = split(config.getProperty("impact.ignore.paths", "*.md,docs/"));
+        List<String> fullRun = split(config.getProperty("impact.full.run.paths",
+            "selenium-framework-core/,selenium-framework-processor/,pom.xml,src/test/resources/"));
+
+        Set<String> affected = new TreeSet<>();
+        int considered = 0;
+        for (String path : changed) {
+            path = path.replace('\\', '/');
+            if (matchesAny(path, ignored)) {
+                continue;
+            }
+            considered++;
+            if (matchesAny(path, fullRun)) {
+                return Selection.all("framework or build file changed: " + path);
+            }
+            String className = className(path);
+            if (className == null) {
+                return Selection.all("file outside the Java sources changed: " + path);
+            }
+            Set<String> byLocator = root == null ? null : testsByLocators(root, ref, path, map);
+            if (byLocator != null) {
+                logger.info("Test impact: {} changed locators only", path);
+                affected.addAll(byLocator);
+                continue;
+            }
+            Set<String> byClass = new TreeSet<>();
+            map.forEach((test, entry) -> {
+                if (entry.getClasses().contains(className)) {
+                    byClass.add(test);
+                }
+            });
+            // Code no test had on its stack during a command (URL builders, test data, constants)
+            // may still be used by any test
+            if (byClass.isEmpty()) {
+                return Selection.all("no recorded test ran code of changed class " + className);
+            }
+            affected.addAll(byClass);
+        }
+        return new Selection(false, considered + " changed files", map.keySet(), affected);
+    }
+
+    /**
+     * Tests that sent one of the locator values a change removed or replaced, or null if the
+     * change is not limited to locator declarations or an old value was never recorded.
+     */
+    private static Set<String> testsByLocators(String root, String ref, String path, Map<String, TestImpactMap.Entry> map) {
+        List<String> diff;
+        try {
+            diff = git(root, "diff", "-U0", ref, "--", path);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Cannot diff {}: {}", path, e.getMessage());
+            return null;
+        }
+        Set<String> oldValues = new LinkedHashSet<>();
+        for (String line : diff) {
+            if (line.startsWith("+++") || line.startsWith("---")
+                || !(line.startsWith("+") || line.startsWith("-"))) {
+                continue;
+            }
+            String code = line.substring(1);
+            if (COMMENT_LINE.matcher(code).matches()) {
+                continue;
+            }
+            if (!LOCATOR_LINE.matcher(code).matches()) {
+                return null;
+            }
+            if (line.startsWith("-")) {
+                Matcher literal = STRING_LITERAL.matcher(code);
+                while (literal.find()) {
+                    oldValues.add(literal.group(1).replace("\\\"", "\"").replace("\\\\", "\\"));
+                }
+            }
+        }
+        if (oldValues.isEmpty()) {
+            return null;
+        }
+
+        // Values are matched by containment: By.id("x") reaches the browser as "css selector: #x"
+        Set<String> tests = new TreeSet<>();
+        for (String value : oldValues) {
+            boolean used = false;
+            for (Map.Entry<String, TestImpactMap.Entry> test : map.entrySet()) {
+                for (String locator : test.getValue().getLocators()) {
+                    if (locator.contains(value)) {
+                        tests.add(test.getKey());
+                        used = true;
+                        break;
+                    }
+                }
+            }
+            if (!used) {
+                return null;
+            }
+        }
+        return tests;
+    }
+
+    /**
+     * Fully qualified name of the class a Java source path declares, or null for other files.
+     */
+    private static String className(String path) {
+        if (!path.endsWith(".java")) {
+            return null;
+        }
+        for (String sourceRoot : SOURCE_ROOTS) {
+            int start = path.startsWith(sourceRoot) ? 0 : path.indexOf("/" + sourceRoot) + 1;
+            if (start > 0 || path.startsWith(sourceRoot)) {
+                String name = path.substring(start + sourceRoot.length(), path.length() - ".java".length());
+                return name.replace('/', '.');
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Patterns: {@code *.ext} matches the extension, {@code dir/} a directory at any depth,
+     * anything else a file name or a path suffix.
+     */
+    private static boolean matchesAny(String path, List<String> patterns) {
+        for (String pattern : patterns) {
+            if (pattern.startsWith("*")
+                ? path.endsWith(pattern.substring(1))
+                : pattern.endsWith("/")
+                    ? path.startsWith(pattern) || path.contains("/" + pattern)
+                    : path.equals(pattern) || path.endsWith("/" + pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> split(String value) {
+        List<String> parts = new ArrayList<>();
+        for (String part : value.split(",")) {
+            if (!part.isBlank()) {
+                parts.add(part.trim());
+            }
+        }
+        return parts;
+    }
+
+    private static List<String> git(String directory, String... arguments) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        if (directory != null) {
+            command.add("-C");
+            command.add(directory);
+        }
+        Collections.addAll(command, arguments);
+        Process process = new ProcessBuilder(command)
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        try {
+            if (!process.waitFor(30, TimeUnit.SECONDS) || process.exitValue() != 0) {
+                process.destroy();
+                throw new IOException("git " + String.join(" ", arguments) + " failed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted running git", e);
+        }
+        List<String> lines = new ArrayList<>();
+        for (String line : output.split("\n")) {
+            if (!line.isBlank()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    static final class Selection {
+        final boolean runAll;
+        final String reason;
+        final Set<String> recorded;
+        final Set<String> affected;
+
+        private Selection(boolean runAll, String reason, Set<String> recorded, Set<String> affected) {
+            this.runAll = runAll;
+            this.reason = reason;
+            this.recorded = recorded;
+            this.affected = affected;
+        }
+
+        private static Selection all(String reason) {
+            return new Selection(true, reason, Collections.emptySet(), Collections.emptySet());
+        }
+    }
+}
@@ -1,14 +1,18 @@
 package com.apple.automation.listeners;
 
+import com.apple.automation.core.CircuitBreaker;
 import com.apple.automation.core.DriverManager;
+import com.apple.automation.core.NetworkArchive;
+import com.apple.automation.performance.PerformanceRecorder;
+import com.apple.automation.performance.TrendStore;
+import com.apple.automation.utils.AllureReporter;
 import com.apple.automation.utils.ScreenshotUtil;
-import io.qameta.allure.Allure;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.WebDriver;
 import org.testng.*;
 
-import java.io.ByteArrayInputStream;
+import java.util.List;
 
 /**
  * TestNG listener for enhanced test reporting and lifecycle management.
@@ -18,8 +22,11 @@ public class TestListener implements ITestListener, ISuiteListener, IInvokedMeth
     private static final Logger logger = LogManager.getLogger(TestListener.class);
     private static final String SEPARATOR = "=" .repeat(80);
     
+    private long suiteStartMillis;
+    
     @Override
     public void onStart(ISuite suite) {
+        suiteStartMillis = System.currentTimeMillis();
         logger.info("\n{}", SEPARATOR);
         logger.info("TEST SUITE STARTED: {}", suite.getName());
         logger.info("Parallel: {}", suite.getParallel());
@@ -34,8 +41,13 @@ public class TestListener implements ITestListener, ISuiteListener, IInvokedMeth
         logger.info("\n{}", SEPARATOR);
         logger.info("TEST SUITE FINISHED: {}", suite.getName());
         logger.info("Total Run Time: {} seconds", 
-            (System.currentTimeMillis() - suite.getStartMillis()) / 1000);
+            (System.currentTimeMillis() - suiteStartMillis) / 1000);
         logger.info("{}\n", SEPARATOR);
+        
+        AllureReporter.logResultsFootprint(suiteStartMillis);
+        
+        // Compare this run with the rolling baseline; fails the build on regression when configured
+        TrendStore.recordAndCheck(PerformanceRecorder.drainCompleted());
     }
     
     @Override
@@ -48,10 +60,6 @@ public class TestListener implements ITestListener, ISuiteListener, IInvokedMeth
         logger.info("Description: {}", result.getMethod().getDescription());
         logger.info("Groups: {}", String.join(", ", result.getMethod().getGroups()));
         logger.info("{}", "-".repeat(60));
-        
-        // Add test info to Allure
-        Allure.addAttachment("Test Class", className);
-        Allure.addAttachment("Test Method", testName);
     }
     
     @Override
@@ -62,9 +70,10 @@ public class TestListener implements ITestListener, ISuiteListener, IInvokedMeth
             result.getName(), 
             duration);
         
-        // Add success info to Allure
-        Allure.addAttachment("Status", "PASSED");
-        Allure.addAttachment("Duration", String.format("%d ms", duration));
+        // Passing tests do not keep their buffered log
+        TestLogAppender.discardCurrentTest();
+        PerformanceRecorder.finishTest(duration);
+        CircuitBreaker.recordSuccess();
     }
     
     @Override
@@ -75,13 +84,15 @@ public class TestListener implements ITestListener, ISuiteListener, IInvokedMeth
         logger.error("✗ TEST FAILED: {}", testName);
         logger.error("Failure Reason:", throwable);
         
+        // Environment failures count towards the suite-wide circuit breaker
+        CircuitBreaker.recordFailure(throwable);
+        
         // Capture failure details
         captureFailureEvidence(result);
         
-        // Add failure info to Allure
-        Allure.addAttachment("Status", "FAILED");
-        Allure.addAttachment("Error Message", throwable.getMessage());
-        Allure.addAttachment("Stack Trace", getStackTrace(throwable));
+        // Attach this test's own log lines, already separated from other threads
+        AllureReporter.attachText("Test Log", "text/plain", TestLogAppender.drainCurrentTest(), "log");
+        PerformanceRecorder.discardTest();
     }
     
     @Override
@@ -91,8 +102,13 @@ public class TestListener implements ITestListener, ISuiteListener, IInvokedMeth
         if (result.getThrowable() != null) {
             logger.warn("Skip Reason: {}", result.getThrowable().getMessage());
         }
+        // A failed attempt that is retried is reported as skipped
+        if (result.wasRetried()) {
+            CircuitBreaker.recordFailure(result.getThrowable());
+        }
         
-        Allure.addAttachment("Status", "SKIPPED");
+        TestLogAppender.discardCurrentTest();
+        PerformanceRecorder.discardTest();
     }
     
     @Override
@@ -109,6 +125,16 @@ public class TestListener implements ITestListener, ISuiteListener, IInvokedMeth
             logger.error("Configuration method failed: {}", 
                 method.getTestMethod().getMethodName());
         }
+        
+        // Strict replay: a test that needed unrecorded traffic is not reproducible offline
+        if (method.isTestMethod() && testResult.isSuccess()) {
+            List<String> unrecorded = NetworkArchive.unrecordedRequests();
+            if (!unrecorded.isEmpty()) {
+                testResult.setStatus(ITestResult.FAILURE);
+                testResult.setThrowable(new AssertionError(String.format(
+                    "%d request(s) not found in network archive: %s", unrecorded.size(), unrecorded)));
+            }
+        }
     }
     
     /**
@@ -121,8 +147,7 @@ public class TestListener implements ITestListener, ISuiteListener, IInvokedMeth
             try {
                 // Capture screenshot
                 byte[] screenshot = ScreenshotUtil.captureScreenshot(driver);
-                Allure.addAttachment("Failure Screenshot", 
-                    new ByteArrayInputStream(screenshot));
+                AllureReporter.attach("Failure Screenshot", "image/png", "png", screenshot);
                 
                 // Save screenshot to file
                 String screenshotPath = ScreenshotUtil.captureAndSaveScreenshot(
@@ -133,8 +158,8 @@ public class TestListener implements ITestListener, ISuiteListener, IInvokedMeth
                 String currentUrl = driver.getCurrentUrl();
                 String pageTitle = driver.getTitle();
                 
-                Allure.addAttachment("Failed URL", currentUrl);
-                Allure.addAttachment("Page Title", pageTitle);
+                AllureReporter.parameter("Failed URL", currentUrl);
+                AllureReporter.parameter("Page Title", pageTitle);
                 
                 logger.info("Failed at URL: {}", currentUrl);
                 logger.info("Page Title: {}", pageTitle);
@@ -144,24 +169,4 @@ public class TestListener implements ITestListener, ISuiteListener, IInvokedMeth
             }
         }
     }
-    
-    /**
-     * Formats stack trace for better readability.
-     */
-    private String getStackTrace(Throwable throwable) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(throwable.toString()).append("\n");
-        
-        for (StackTraceElement element : throwable.getStackTrace()) {
-            sb.append("\tat ").append(element).append("\n");
-            
-            // Stop at test method to keep trace concise
-            if (element.getClassName().contains("com.apple.automation.tests")) {
-                sb.append("\t... (truncated)");
-                break;
-            }
-        }
-        
-        return sb.toString();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,152 @@
+package com.apple.automation.listeners;
+
+import com.apple.automation.core.BaseTest;
+import org.apache.logging.log4j.ThreadContext;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Core;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log4j appender that keeps the log lines of each running test in a bounded in-memory buffer,
+ * keyed on the {@code testId} ThreadContext entry set by BaseTest. Events without a test id
+ * are ignored. The buffer is attached to the report when the test fails and dropped otherwise,
+ * so passing tests never pay for their DEBUG output on disk. Events are kept as immutable
+ * snapshots and only formatted with the layout when a failed test's log is drained, so
+ * logging threads do not pay for formatting either.
+ *
+ * <pre>
+ * &lt;TestLogBuffer name="TestLogBuffer" maxLines="2000"&gt;
+ *     &lt;PatternLayout pattern="%d{HH:mm:ss.SSS} %-5level %logger{36} - %msg%n"/&gt;
+ * &lt;/TestLogBuffer&gt;
+ * </pre>
+ */
+@Plugin(name = "TestLogBuffer", category = Core.CATEGORY_NAME, elementType = Appender.ELEMENT_TYPE)
+public final class TestLogAppender extends AbstractAppender {
+
+    private static volatile TestLogAppender active;
+
+    private final int maxLines;
+    private final Map<String, Buffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * Events of one test. Oldest events are dropped once the limit is reached.
+     */
+    private static class Buffer {
+        private final Deque<LogEvent> events = new ArrayDeque<>();
+        private int dropped;
+    }
+
+    private TestLogAppender(String name, Filter filter, Layout<? extends Serializable> layout, int maxLines) {
+        super(name, filter, layout, true, Property.EMPTY_ARRAY);
+        this.maxLines = maxLines;
+    }
+
+    @PluginFactory
+    public static TestLogAppender createAppender(@PluginAttribute("name") String name,
+                                                 @PluginAttribute(value = "maxLines", defaultInt = 2000) int maxLines,
+                                                 @PluginElement("Layout") Layout<? extends Serializable> layout,
+                                                 @PluginElement("Filter") Filter filter) {
+        if (layout == null) {
+            layout = PatternLayout.createDefaultLayout();
+        }
+        return new TestLogAppender(name == null ? "TestLogBuffer" : name, filter, layout, maxLines);
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        active = this;
+    }
+
+    @Override
+    public boolean stop(long timeout, TimeUnit timeUnit) {
+        if (active == this) {
+            active = null;
+        }
+        buffers.clear();
+        return super.stop(timeout, timeUnit);
+    }
+
+    @Override
+    public void append(LogEvent event) {
+        String testId = event.getContextData().getValue(BaseTest.TEST_ID_KEY);
+        if (testId == null) {
+            return;
+        }
+
+        // Mutable (reused) events must be copied before the logging call returns
+        LogEvent snapshot = event.toImmutable();
+        Buffer buffer = buffers.computeIfAbsent(testId, key -> new Buffer());
+        synchronized (buffer) {
+            if (buffer.events.size() >= maxLines) {
+                buffer.events.pollFirst();
+                buffer.dropped++;
+            }
+            buffer.events.addLast(snapshot);
+        }
+    }
+
+    /**
+     * Removes and returns the buffered log of the current thread's test.
+     *
+     * @return Log text, or null if the appender is not configured or nothing was logged
+     */
+    public static String drainCurrentTest() {
+        TestLogAppender appender = active;
+        String testId = ThreadContext.get(BaseTest.TEST_ID_KEY);
+        if (appender == null || testId == null) {
+            return null;
+        }
+
+        Buffer buffer = appender.buffers.remove(testId);
+        if (buffer == null) {
+            return null;
+        }
+
+        StringBuilder log = new StringBuilder();
+        Layout<? extends Serializable> layout = appender.getLayout();
+        synchronized (buffer) {
+            if (buffer.dropped > 0) {
+                log.append("... ").append(buffer.dropped).append(" earlier lines dropped (maxLines=")
+                    .append(appender.maxLines).append(")\n");
+            }
+            for (LogEvent event : buffer.events) {
+                log.append(layout.toSerializable(event));
+            }
+        }
+        return log.toString();
+    }
+
+    /**
+     * Drops the buffered log of a test.
+     */
+    public static void discard(String testId) {
+        TestLogAppender appender = active;
+        if (appender != null && testId != null) {
+            appender.buffers.remove(testId);
+        }
+    }
+
+    /**
+     * Drops the buffered log of the current thread's test.
+     */
+    public static void discardCurrentTest() {
+        discard(ThreadContext.get(BaseTest.TEST_ID_KEY));
+    }
+}
@@ -0,0 +1,23 @@
+package com.apple.automation.listeners;
+
+import com.apple.automation.performance.TraceRecorder;
+import io.qameta.allure.listener.StepLifecycleListener;
+import io.qameta.allure.model.StepResult;
+
+/**
+ * Allure listener that turns every step, including {@code @Step} page object methods,
+ * into a span of the current test's trace timeline.
+ * Registered through META-INF/services/io.qameta.allure.listener.LifecycleListener.
+ */
+public class TraceStepListener implements StepLifecycleListener {
+
+    @Override
+    public void beforeStepStart(StepResult result) {
+        TraceRecorder.beginSpan(result.getName(), "step");
+    }
+
+    @Override
+    public void afterStepStop(StepResult result) {
+        TraceRecorder.endSpan("status", result.getStatus() == null ? "unknown" : result.getStatus().value());
+    }
+}
@@ -0,0 +1,366 @@
+package com.apple.automation.performance;
+
+import com.apple.automation.core.DriverManager;
+import com.apple.automation.core.ListLocator;
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.support.FindAll;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.FindBys;
+import org.openqa.selenium.support.pagefactory.Annotations;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Times page object locators against recorded DOM snapshots and suggests faster selectors.
+ *
+ * <p>With {@code locator.snapshot.mode=record}, every page object saves the rendered DOM of
+ * its first load in the run to {@code locator.snapshot.dir/<PageClass>.html}. The analyzer
+ * then parses each snapshot in a headless browser (with {@code DOMParser}, so page scripts
+ * and resources are not loaded) and, for every static {@link By} field and {@code @FindBy}
+ * field of the page class:</p>
+ * <ul>
+ *   <li>times the lookup (best of five rounds) and counts its matches,</li>
+ *   <li>flags locators slower than {@code locator.slow.micros}, locators matching nothing, and
+ *       single-element locators that match more than one element (a {@code By} constant is a
+ *       list locator if it is marked {@link ListLocator}, a {@code @FindBy} field if it is a
+ *       {@code List}),</li>
+ *   <li>suggests the fastest CSS selector that selects exactly the same elements in the
+ *       snapshot (id, stable attributes, classes, or a direct XPath translation).</li>
+ * </ul>
+ *
+ * <p>One report per page class is written to {@code locator.report.dir/<PageClass>.json} and
+ * logged as a table. Usage: {@code LocatorAnalyzer [page class ...]}; without arguments every
+ * snapshot is analyzed.</p>
+ */
+public final class LocatorAnalyzer {
+
+    private static final Logger logger = LogManager.getLogger(LocatorAnalyzer.class);
+    private static final Json JSON = new Json();
+    private static final Set<Class<?>> recorded = ConcurrentHashMap.newKeySet();
+
+    private static final String SNAPSHOT_SCRIPT =
+        "var doctype = document.doctype ? new XMLSerializer().serializeToString(document.doctype) : '';"
+        + "return doctype + document.documentElement.outerHTML;";
+
+    private static final String LOAD_SCRIPT =
+        "window.__locatorSnapshot = new DOMParser().parseFromString(arguments[0], 'text/html');"
+        + "return window.__locatorSnapshot.getElementsByTagName('*').length;";
+
+    // arguments: locator {using, value}, extra CSS candidates, time budget per round in ms
+    private static final String ANALYZE_SCRIPT =
+        "var doc = window.__locatorSnapshot, locator = arguments[0], budget = arguments[2];"
+        + "var links = function(partial, text) {"
+        + "  return Array.prototype.filter.call(doc.getElementsByTagName('a'), function(a) {"
+        + "    var t = a.textContent.trim(); return partial ? t.indexOf(text) >= 0 : t === text;"
+        + "  });"
+        + "};"
+        // Same strategies the driver uses: id, name, class and tag name become CSS selectors
+        + "var query = function(a) {"
+        + "  switch (a.using) {"
+        + "    case 'id': return doc.querySelectorAll('#' + CSS.escape(a.value));"
+        + "    case 'name': return doc.querySelectorAll('[name=\"' + CSS.escape(a.value) + '\"]');"
+        + "    case 'class name': return doc.querySelectorAll('.' + CSS.escape(a.value));"
+        + "    case 'tag name': case 'css selector': return doc.querySelectorAll(a.value);"
+        + "    case 'xpath':"
+        + "      var result = doc.evaluate(a.value, doc, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), nodes = [];"
+        + "      for (var i = 0; i < result.snapshotLength; i++) { nodes.push(result.snapshotItem(i)); }"
+        + "      return nodes;"
+        + "    case 'link text': return links(false, a.value);"
+        + "    case 'partial link text': return links(true, a.value);"
+        + "  }"
+        + "  throw new Error('Unsupported locator strategy ' + a.using);"
+        + "};"
+        + "var time = function(fn) {"
+        + "  var best = Infinity;"
+        + "  for (var round = 0; round < 5; round++) {"
+        + "    var n = 0, start = performance.now(), elapsed;"
+        + "    do { fn(); n++; } while ((elapsed = performance.now() - start) < budget && n < 100000);"
+        + "    best = Math.min(best, elapsed * 1000 / n);"
+        + "  }"
+        + "  return best;"
+        + "};"
+        + "var same = function(a, b) {"
+        + "  if (a.length !== b.length) { return false; }"
+        + "  for (var i = 0; i < a.length; i++) { if (a[i] !== b[i]) { return false; } }"
+        + "  return true;"
+        + "};"
+        + "var elements = Array.prototype.slice.call(query(locator));"
+        + "var report = {matches: elements.length, micros: time(function() { query(locator).length; }), candidates: []};"
+        + "if (!elements.length) { return report; }"
+        + "var e = elements[0], tag = e.tagName.toLowerCase(), selectors = arguments[1].slice();"
+        + "if (elements.length === 1 && e.id) { selectors.push('#' + CSS.escape(e.id)); }"
+        + "['data-autom', 'data-analytics-title', 'name', 'type', 'aria-label', 'href', 'value'].forEach(function(attr) {"
+        + "  var value = e.getAttribute(attr);"
+        + "  if (value !== null && elements.every(function(x) { return x.getAttribute(attr) === value; })) {"
+        + "    selectors.push(tag + '[' + attr + '=\"' + value.replace(/[\"\\\\]/g, '\\\\$&') + '\"]');"
+        + "  }"
+        + "});"
+        + "var common = Array.prototype.filter.call(e.classList, function(c) {"
+        + "  return elements.every(function(x) { return x.classList.contains(c); });"
+        + "}).map(function(c) { return CSS.escape(c); });"
+        + "common.forEach(function(c) { selectors.push('.' + c); selectors.push(tag + '.' + c); });"
+        + "if (common.length > 1) { selectors.push('.' + common.join('.')); }"
+        + "selectors.forEach(function(selector) {"
+        + "  try {"
+        + "    if (!same(doc.querySelectorAll(selector), elements)) { return; }"
+        + "  } catch (err) { return; }"
+        + "  report.candidates.push({selector: selector, micros: time(function() { doc.querySelectorAll(selector).length; })});"
+        + "});"
+        + "return report;";
+
+    // //tag[@attr='value'] and //tag[@attr="value"], the XPath shape that maps directly to CSS
+    private static final Pattern SIMPLE_XPATH =
+        Pattern.compile("^//([a-zA-Z][\\w-]*|\\*)\\[@([\\w-]+)=(['\"])([^'\"]*)\\3\\]$");
+
+    private final WebDriver driver;
+    private final Path reportDir;
+    private final double slowMicros;
+
+    LocatorAnalyzer(WebDriver driver) {
+        ConfigReader config = ConfigReader.getInstance();
+        this.driver = driver;
+        this.reportDir = Paths.get(config.getProperty("locator.report.dir", "target/locator-report"));
+        this.slowMicros = Double.parseDouble(config.getProperty("locator.slow.micros", "100"));
+    }
+
+    /**
+     * Saves the rendered DOM for a page class the first time it loads in this run,
+     * when {@code locator.snapshot.mode=record}. Called by BasePage once the page is ready.
+     */
+    public static void recordSnapshot(WebDriver driver, Class<?> pageClass) {
+        if (!"record".equalsIgnoreCase(ConfigReader.getInstance().getProperty("locator.snapshot.mode", "off"))
+            || !recorded.add(pageClass)) {
+            return;
+        }
+        Path file = snapshotDir().resolve(pageClass.getName() + ".html");
+        try {
+            String html = (String) ((JavascriptExecutor) driver).executeScript(SNAPSHOT_SCRIPT);
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, html, StandardCharsets.UTF_8);
+            logger.debug("Saved DOM snapshot of {} to {}", pageClass.getSimpleName(), file);
+        } catch (IOException | WebDriverException e) {
+            logger.warn("Failed to save DOM snapshot of {}: {}", pageClass.getSimpleName(), e.getMessage());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> pageClasses = new ArrayList<>(Arrays.asList(args));
+        if (pageClasses.isEmpty()) {
+            try (DirectoryStream<Path> snapshots = Files.newDirectoryStream(snapshotDir(), "*.html")) {
+                for (Path snapshot : snapshots) {
+                    String name = snapshot.getFileName().toString();
+                    pageClasses.add(name.substring(0, name.length() - ".html".length()));
+                }
+            }
+        }
+        if (pageClasses.isEmpty()) {
+            System.err.println("No DOM snapshots in " + snapshotDir().toAbsolutePath()
+                + "; run the tests with -Dlocator.snapshot.mode=record first");
+            System.exit(1);
+        }
+
+        WebDriver driver = DriverManager.createDriver(DriverManager.BrowserType.CHROME_HEADLESS);
+        try {
+            LocatorAnalyzer analyzer = new LocatorAnalyzer(driver);
+            for (String pageClass : pageClasses) {
+                analyzer.analyze(Class.forName(pageClass));
+            }
+        } finally {
+            DriverManager.quitDriver();
+        }
+    }
+
+    /**
+     * Analyzes the locators of one page class against its snapshot and writes the report.
+     */
+    @SuppressWarnings("unchecked")
+    List<Map<String, Object>> analyze(Class<?> pageClass) throws IOException {
+        Path snapshot = snapshotDir().resolve(pageClass.getName() + ".html");
+        if (!Files.exists(snapshot)) {
+            logger.warn("No DOM snapshot for {} at {}", pageClass.getSimpleName(), snapshot);
+            return new ArrayList<>();
+        }
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        Number elements = (Number) js.executeScript(LOAD_SCRIPT, Files.readString(snapshot, StandardCharsets.UTF_8));
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (Map.Entry<String, LocatorField> entry : locators(pageClass).entrySet()) {
+            LocatorField field = entry.getValue();
+            Map<String, Object> parameters = parameters(field.locator);
+            Map<String, Object> entryReport = new LinkedHashMap<>();
+            entryReport.put("field", entry.getKey());
+            entryReport.put("locator", field.locator.toString());
+            entryReport.put("multiple", field.multiple);
+            List<String> flags = new ArrayList<>();
+
+            try {
+                Map<String, Object> result = (Map<String, Object>) js.executeScript(ANALYZE_SCRIPT,
+                    parameters, translations(parameters), 10);
+                long matches = ((Number) result.get("matches")).longValue();
+                double micros = ((Number) result.get("micros")).doubleValue();
+                entryReport.put("matches", matches);
+                entryReport.put("micros", round(micros));
+
+                Map<String, Object> fastest = null;
+                for (Map<String, Object> candidate : (List<Map<String, Object>>) result.get("candidates")) {
+                    if (fastest == null || ((Number) candidate.get("micros")).doubleValue()
+                        < ((Number) fastest.get("micros")).doubleValue()) {
+                        fastest = candidate;
+                    }
+                }
+                // Only worth a rewrite when clearly faster, not within timer noise
+                if (fastest != null && ((Number) fastest.get("micros")).doubleValue() * 1.5 < micros) {
+                    Map<String, Object> suggestion = new LinkedHashMap<>();
+                    suggestion.put("selector", "By.cssSelector(\"" + fastest.get("selector") + "\")");
+                    suggestion.put("micros", round(((Number) fastest.get("micros")).doubleValue()));
+                    entryReport.put("suggestion", suggestion);
+                }
+
+                if (micros > slowMicros) {
+                    flags.add("SLOW");
+                }
+                if (matches == 0) {
+                    flags.add("NO_MATCH");
+                } else if (matches > 1 && !field.multiple) {
+                    flags.add("AMBIGUOUS");
+                }
+            } catch (WebDriverException e) {
+                flags.add("INVALID");
+                entryReport.put("error", e.getRawMessage());
+            }
+            entryReport.put("flags", flags);
+            entries.add(entryReport);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("page", pageClass.getName());
+        report.put("snapshot", snapshot.toString());
+        report.put("snapshotElements", elements);
+        report.put("slowMicros", slowMicros);
+        report.put("locators", entries);
+        Files.createDirectories(reportDir);
+        Path file = reportDir.resolve(pageClass.getSimpleName() + ".json");
+        Files.writeString(file, JSON.toJson(report), StandardCharsets.UTF_8);
+
+        logReport(pageClass, elements, entries);
+        logger.info("Locator report written to {}", file.toAbsolutePath());
+        return entries;
+    }
+
+    /**
+     * Static {@code By} fields and {@code @FindBy}/{@code @FindBys}/{@code @FindAll} fields of a page class.
+     */
+    static Map<String, LocatorField> locators(Class<?> pageClass) {
+        Map<String, LocatorField> locators = new LinkedHashMap<>();
+        for (Field field : pageClass.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && By.class.isAssignableFrom(field.getType())) {
+                try {
+                    field.setAccessible(true);
+                    By locator = (By) field.get(null);
+                    locators.put(field.getName(), new LocatorField(locator, field.isAnnotationPresent(ListLocator.class)));
+                } catch (IllegalAccessException e) {
+                    logger.warn("Cannot read locator {}.{}", pageClass.getSimpleName(), field.getName());
+                }
+            } else if (field.isAnnotationPresent(FindBy.class) || field.isAnnotationPresent(FindBys.class)
+                || field.isAnnotationPresent(FindAll.class)) {
+                locators.put(field.getName(),
+                    new LocatorField(new Annotations(field).buildBy(), List.class.isAssignableFrom(field.getType())));
+            }
+        }
+        return locators;
+    }
+
+    /**
+     * Locator map for the analyze script; chained locators cannot be evaluated in the page.
+     */
+    private static Map<String, Object> parameters(By locator) {
+        Map<String, Object> parameters = new HashMap<>();
+        if (locator instanceof By.Remotable) {
+            By.Remotable.Parameters remote = ((By.Remotable) locator).getRemoteParameters();
+            parameters.put("using", remote.using());
+            parameters.put("value", String.valueOf(remote.value()));
+        } else {
+            parameters.put("using", locator.getClass().getSimpleName());
+            parameters.put("value", locator.toString());
+        }
+        return parameters;
+    }
+
+    /**
+     * CSS equivalents that follow from the locator text alone, verified in the page like the others.
+     */
+    private static List<String> translations(Map<String, Object> parameters) {
+        List<String> selectors = new ArrayList<>();
+        if ("xpath".equals(parameters.get("using"))) {
+            Matcher matcher = SIMPLE_XPATH.matcher(String.valueOf(parameters.get("value")));
+            if (matcher.matches()) {
+                String tag = "*".equals(matcher.group(1)) ? "" : matcher.group(1);
+                selectors.add(tag + "[" + matcher.group(2) + "=\"" + matcher.group(4) + "\"]");
+            }
+        }
+        return selectors;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void logReport(Class<?> pageClass, Number elements, List<Map<String, Object>> entries) {
+        logger.info("Locators of {} ({} elements in snapshot)", pageClass.getSimpleName(), elements);
+        logger.info(String.format(Locale.ROOT, "  %-28s %8s %10s  %-22s %s", "field", "matches", "micros", "flags", "suggestion"));
+        for (Map<String, Object> entry : entries) {
+            Map<String, Object> suggestion = (Map<String, Object>) entry.get("suggestion");
+            logger.info(String.format(Locale.ROOT, "  %-28s %8s %10s  %-22s %s",
+                entry.get("field"), entry.getOrDefault("matches", "-"), entry.getOrDefault("micros", "-"),
+                String.join(",", (List<String>) entry.get("flags")),
+                suggestion == null ? "" : suggestion.get("selector") + " (" + suggestion.get("micros") + " µs)"));
+        }
+    }
+
+    private static Path snapshotDir() {
+        return Paths.get(ConfigReader.getInstance().getProperty("locator.snapshot.dir", "target/locator-snapshots"));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * A locator declared by a page and whether the page looks it up as a list.
+     */
+    static final class LocatorField {
+        private final By locator;
+        private final boolean multiple;
+
+        LocatorField(By locator, boolean multiple) {
+            this.locator = locator;
+            this.multiple = multiple;
+        }
+
+        boolean isMultiple() {
+            return multiple;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.apple.automation.performance;
+
+/**
+ * A single performance value of a test or page object in one run.
+ */
+public final class Measurement {
+
+    public static final String DURATION_MS = "duration_ms";
+    public static final String COMMANDS = "commands";
+    public static final String READY_MS = "ready_ms";
+
+    public enum Kind {
+        TEST, PAGE
+    }
+
+    private final Kind kind;
+    private final String name;
+    private final String metric;
+    private final double value;
+
+    public Measurement(Kind kind, String name, String metric, double value) {
+        this.kind = kind;
+        this.name = name.replaceAll("[\\t\\r\\n]", " ");
+        this.metric = metric;
+        this.value = value;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Key identifying the series this value belongs to across runs.
+     */
+    public String seriesKey() {
+        return kind + "\t" + name + "\t" + metric;
+    }
+}
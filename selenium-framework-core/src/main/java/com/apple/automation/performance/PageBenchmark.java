@@ -0,0 +1,263 @@
+package com.apple.automation.performance;
+
+import com.apple.automation.utils.AllureReporter;
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Repeated-measurement runner for page-level scenarios such as loading the homepage or
+ * running a search.
+ *
+ * <p>Each cache mode runs {@code benchmark.warmup} unrecorded iterations followed by
+ * {@code benchmark.iterations} measured ones. A cold iteration clears the browser cache
+ * first (Chromium only); a warm one reuses what earlier iterations cached. Outliers beyond
+ * Tukey's fences are rejected, and p50/p90/p99 are reported with distribution-free
+ * confidence intervals. Results go to {@code benchmark.output.dir/<scenario>-<timestamp>.json}
+ * with the environment they were taken in, so runs can be compared.</p>
+ *
+ * <p>Iterations run one after another on the calling thread. Run benchmarks on their own
+ * ({@code testng-benchmark.xml}) so parallel tests do not skew them; the runner logs a
+ * warning when the machine is already busy.</p>
+ *
+ * <pre>
+ * PageBenchmark.scenario("homepage-load")
+ *     .before(driver -&gt; driver.get("about:blank"))
+ *     .run(driver, d -&gt; { d.get(baseUrl); new AppleHomePage(d); });
+ * </pre>
+ */
+public final class PageBenchmark {
+
+    private static final Logger logger = LogManager.getLogger(PageBenchmark.class);
+    private static final Json JSON = new Json();
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final double[] QUANTILES = {0.50, 0.90, 0.99};
+    private static final int SCHEMA_VERSION = 1;
+
+    public enum CacheMode {
+        COLD, WARM
+    }
+
+    /**
+     * The measured action of a scenario.
+     */
+    @FunctionalInterface
+    public interface Scenario {
+        void run(WebDriver driver) throws Exception;
+    }
+
+    private final String name;
+    private int warmup;
+    private int iterations;
+    private List<CacheMode> cacheModes;
+    private Consumer<WebDriver> before = driver -> { };
+
+    private PageBenchmark(String name) {
+        ConfigReader config = ConfigReader.getInstance();
+        this.name = name;
+        this.warmup = config.getIntProperty("benchmark.warmup", 3);
+        this.iterations = config.getIntProperty("benchmark.iterations", 20);
+        this.cacheModes = new ArrayList<>();
+        for (String mode : config.getProperty("benchmark.cache.modes", "cold,warm").split(",")) {
+            if (!mode.isBlank()) {
+                cacheModes.add(CacheMode.valueOf(mode.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+    }
+
+    /**
+     * Starts describing a benchmark with the configured defaults.
+     *
+     * @param name Scenario name, used in logs and the result file name
+     */
+    public static PageBenchmark scenario(String name) {
+        return new PageBenchmark(name);
+    }
+
+    public PageBenchmark warmup(int warmup) {
+        this.warmup = warmup;
+        return this;
+    }
+
+    public PageBenchmark iterations(int iterations) {
+        this.iterations = iterations;
+        return this;
+    }
+
+    public PageBenchmark cacheModes(CacheMode... cacheModes) {
+        this.cacheModes = List.of(cacheModes);
+        return this;
+    }
+
+    /**
+     * Untimed preparation before every iteration, e.g. opening the page a scenario starts from.
+     */
+    public PageBenchmark before(Consumer<WebDriver> before) {
+        this.before = before;
+        return this;
+    }
+
+    /**
+     * Runs every cache mode, writes the JSON result and attaches it to the current test.
+     *
+     * @return Summary per cache mode, as written to the result file
+     */
+    public Map<CacheMode, Map<String, Object>> run(WebDriver driver, Scenario scenario) {
+        Map<String, Object> environment = environment(driver);
+        double loadPerCpu = (Double) environment.get("loadAveragePerCpu");
+        double maxLoad = Double.parseDouble(ConfigReader.getInstance().getProperty("benchmark.max.load.per.cpu", "0.5"));
+        if (loadPerCpu > maxLoad) {
+            logger.warn("Benchmark {} starts on a busy machine (load {} per CPU); results may be skewed",
+                name, String.format(Locale.ROOT, "%.2f", loadPerCpu));
+        }
+
+        Map<CacheMode, Map<String, Object>> summaries = new LinkedHashMap<>();
+        for (CacheMode mode : cacheModes) {
+            if (mode == CacheMode.COLD && !(driver instanceof HasCdp)) {
+                logger.warn("Cold-cache runs need a Chromium browser to clear the cache; skipping for {}", name);
+                continue;
+            }
+
+            for (int i = 0; i < warmup; i++) {
+                measure(driver, scenario, mode);
+            }
+            List<Double> samples = new ArrayList<>(iterations);
+            for (int i = 0; i < iterations; i++) {
+                samples.add(measure(driver, scenario, mode));
+            }
+
+            Map<String, Object> summary = summarize(samples);
+            summaries.put(mode, summary);
+            logger.info("Benchmark {} ({} cache): p50 {} ms, p90 {} ms, p99 {} ms over {} samples, {} outliers",
+                name, mode.name().toLowerCase(Locale.ROOT), quantileValue(summary, "p50"),
+                quantileValue(summary, "p90"), quantileValue(summary, "p99"),
+                summary.get("count"), ((List<?>) summary.get("rejected")).size());
+        }
+
+        write(environment, summaries);
+        return summaries;
+    }
+
+    /**
+     * Runs one iteration and returns its duration in milliseconds.
+     */
+    private double measure(WebDriver driver, Scenario scenario, CacheMode mode) {
+        before.accept(driver);
+        if (mode == CacheMode.COLD) {
+            ((HasCdp) driver).executeCdpCommand("Network.clearBrowserCache", Map.of());
+        }
+
+        long start = System.nanoTime();
+        try {
+            scenario.run(driver);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Benchmark scenario " + name + " failed", e);
+        }
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+
+    private static Map<String, Object> summarize(List<Double> samples) {
+        List<List<Double>> split = Statistics.rejectOutliers(samples);
+        Statistics statistics = new Statistics(split.get(0));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", statistics.count());
+        summary.put("mean", round(statistics.mean()));
+        summary.put("stdDev", round(statistics.standardDeviation()));
+        summary.put("min", round(statistics.min()));
+        summary.put("max", round(statistics.max()));
+        for (double q : QUANTILES) {
+            double[] interval = statistics.quantileInterval(q, 0.95);
+            Map<String, Object> quantile = new LinkedHashMap<>();
+            quantile.put("value", round(statistics.quantile(q)));
+            quantile.put("ciLower", round(interval[0]));
+            quantile.put("ciUpper", round(interval[1]));
+            quantile.put("confidence", round(interval[2]));
+            summary.put("p" + Math.round(q * 100), quantile);
+        }
+        summary.put("samples", round(samples));
+        summary.put("rejected", round(split.get(1)));
+        return summary;
+    }
+
+    private Map<String, Object> environment(WebDriver driver) {
+        Map<String, Object> environment = new LinkedHashMap<>();
+        if (driver instanceof HasCapabilities) {
+            Capabilities capabilities = ((HasCapabilities) driver).getCapabilities();
+            environment.put("browser", capabilities.getBrowserName());
+            environment.put("browserVersion", capabilities.getBrowserVersion());
+        }
+        int cpus = Runtime.getRuntime().availableProcessors();
+        double load = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+        environment.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        environment.put("java", System.getProperty("java.version"));
+        environment.put("cpus", cpus);
+        environment.put("loadAveragePerCpu", load < 0 ? 0.0 : round(load / cpus));
+        environment.put("baseUrl", ConfigReader.getInstance().getProperty("base.url", ""));
+        return environment;
+    }
+
+    private void write(Map<String, Object> environment, Map<CacheMode, Map<String, Object>> summaries) {
+        Instant now = Instant.now();
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("schemaVersion", SCHEMA_VERSION);
+        document.put("scenario", name);
+        document.put("timestamp", now.toString());
+        document.put("warmup", warmup);
+        document.put("iterations", iterations);
+        document.put("environment", environment);
+        Map<String, Object> results = new LinkedHashMap<>();
+        summaries.forEach((mode, summary) -> results.put(mode.name().toLowerCase(Locale.ROOT), summary));
+        document.put("results", results);
+        String json = JSON.toJson(document);
+
+        Path file = Paths.get(ConfigReader.getInstance().getProperty("benchmark.output.dir", "target/benchmarks"),
+            name.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + FILE_TIMESTAMP.format(now) + ".json");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, json, StandardCharsets.UTF_8);
+            logger.info("Benchmark results written to {}", file);
+        } catch (IOException e) {
+            logger.error("Failed to write benchmark results {}", file, e);
+        }
+        AllureReporter.attachText("Benchmark - " + name, "application/json", json, "json");
+    }
+
+    private static Object quantileValue(Map<String, Object> summary, String key) {
+        return ((Map<?, ?>) summary.get(key)).get("value");
+    }
+
+    private static double round(double value) {
+        return Double.isNaN(value) ? value : Math.round(value * 100) / 100.0;
+    }
+
+    private static List<Double> round(List<Double> values) {
+        List<Double> rounded = new ArrayList<>(values.size());
+        values.forEach(value -> rounded.add(round(value)));
+        return rounded;
+    }
+}
@@ -0,0 +1,425 @@
+package com.apple.automation.performance;
+
+import com.apple.automation.utils.AllureReporter;
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonInput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Captures a DevTools performance trace and a JavaScript CPU profile of the browser
+ * while a page loads, and attaches them to the Allure result when the load was slow.
+ *
+ * <p>{@code profile.capture} controls when: {@code off} never profiles, {@code slow}
+ * records every profiled load but keeps it only when the caller reports it as slow,
+ * {@code always} keeps every capture. Tracing slows the page down, so a timing that is
+ * asserted on should be measured without a profiler and the action repeated under
+ * {@link #profileRepeat} when it was slow. Kept captures are attached gzip-compressed
+ * (the trace opens in the DevTools Performance panel or Perfetto, the profile in the
+ * DevTools JavaScript Profiler after unpacking) with a text summary of the longest
+ * main-thread tasks and the most expensive scripts. Requires a Chromium-based browser.</p>
+ *
+ * <pre>
+ * long loadTime = timed(() -&gt; driver.navigate().refresh());
+ * PageProfiler.profileRepeat(driver, "Homepage load", loadTime &gt; budget,
+ *     () -&gt; driver.navigate().refresh());
+ * </pre>
+ */
+public final class PageProfiler {
+
+    private static final Logger logger = LogManager.getLogger(PageProfiler.class);
+    private static final Json JSON = new Json();
+
+    private static final List<String> TRACE_CATEGORIES = List.of(
+        "devtools.timeline",
+        "disabled-by-default-devtools.timeline",
+        "disabled-by-default-devtools.timeline.frame",
+        "toplevel",
+        "v8.execute",
+        "blink.user_timing",
+        "loading",
+        "latencyInfo");
+
+    private static final Set<String> TASK_EVENTS = Set.of("RunTask", "ThreadControllerImpl::RunTask");
+    private static final Set<String> SCRIPT_EVENTS = Set.of("EvaluateScript", "FunctionCall", "v8.compile",
+        "v8.compileModule", "TimerFire", "EventDispatch");
+    private static final Set<String> PROFILER_PSEUDO_NODES = Set.of("(idle)", "(root)");
+    private static final long LONG_TASK_MICROS = 50_000;
+    private static final int SUMMARY_ROWS = 10;
+
+    /** Pending trace stream per DevTools connection; one listener per connection, since listeners cannot be removed. */
+    private static final Map<DevTools, AtomicReference<CompletableFuture<String>>> traceStreams =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final PageProfiler INACTIVE = new PageProfiler(null, false);
+    private static final AtomicBoolean invalidModeReported = new AtomicBoolean();
+
+    public enum Mode {
+        OFF, SLOW, ALWAYS
+    }
+
+    private final DevTools devTools;
+    private final boolean keepAlways;
+
+    private PageProfiler(DevTools devTools, boolean keepAlways) {
+        this.devTools = devTools;
+        this.keepAlways = keepAlways;
+    }
+
+    /**
+     * Gets the configured capture mode. An unknown value is reported once and treated as off,
+     * so a typo in {@code profile.capture} does not fail the tests that load pages.
+     */
+    public static Mode configuredMode() {
+        String mode = ConfigReader.getInstance().getProperty("profile.capture", "off");
+        try {
+            return Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            if (invalidModeReported.compareAndSet(false, true)) {
+                logger.warn("Unknown profile.capture '{}', expected off, slow or always; profiling is off", mode);
+            }
+            return Mode.OFF;
+        }
+    }
+
+    /**
+     * Starts tracing and CPU profiling in the driver's current page. Returns an inactive
+     * profiler when capturing is off or the browser has no DevTools support.
+     */
+    public static PageProfiler start(WebDriver driver) {
+        Mode mode = configuredMode();
+        if (mode == Mode.OFF) {
+            return INACTIVE;
+        }
+        if (!(driver instanceof HasDevTools)) {
+            logger.warn("Profile capture requires a DevTools-capable browser; skipping");
+            return INACTIVE;
+        }
+
+        try {
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            traceStreams.computeIfAbsent(devTools, PageProfiler::listenForTraceStream)
+                .set(new CompletableFuture<>());
+
+            int samplingMicros = ConfigReader.getInstance().getIntProperty("profile.sampling.interval.us", 200);
+            devTools.send(new Command<>("Profiler.enable", Map.of()));
+            devTools.send(new Command<>("Profiler.setSamplingInterval", Map.of("interval", samplingMicros)));
+            devTools.send(new Command<>("Tracing.start", Map.of(
+                "traceConfig", Map.of("recordMode", "recordAsMuchAsPossible", "includedCategories", TRACE_CATEGORIES),
+                "transferMode", "ReturnAsStream")));
+            devTools.send(new Command<>("Profiler.start", Map.of()));
+            return new PageProfiler(devTools, mode == Mode.ALWAYS);
+
+        } catch (RuntimeException e) {
+            logger.warn("Could not start profile capture: {}", e.getMessage());
+            return INACTIVE;
+        }
+    }
+
+    /**
+     * Profiles a repeat of an action the caller has already timed without profiling, so the
+     * tracing overhead does not inflate the measured number. Does nothing when capturing is
+     * off, or when the action was not slow and {@code profile.capture=slow}.
+     *
+     * @param name Label of the profiled action, used for the attachment names
+     * @param slow Whether the measured run was too slow
+     * @param action Repeat of the measured action, e.g. the same navigation
+     */
+    public static void profileRepeat(WebDriver driver, String name, boolean slow, Runnable action) {
+        Mode mode = configuredMode();
+        if (mode == Mode.OFF || mode == Mode.SLOW && !slow) {
+            return;
+        }
+        PageProfiler profiler = start(driver);
+        try {
+            action.run();
+        } finally {
+            // Also stops tracing when the repeat fails, and keeps what it captured up to there
+            profiler.finish(name, true);
+        }
+    }
+
+    private static AtomicReference<CompletableFuture<String>> listenForTraceStream(DevTools devTools) {
+        AtomicReference<CompletableFuture<String>> pending = new AtomicReference<>();
+        devTools.addListener(new Event<>("Tracing.tracingComplete", PageProfiler::readObject), event -> {
+            CompletableFuture<String> stream = pending.get();
+            if (stream != null) {
+                stream.complete((String) event.get("stream"));
+            }
+        });
+        return pending;
+    }
+
+    /**
+     * Stops capturing and attaches the trace, the CPU profile and their summary to the
+     * current test or step if the load was slow or {@code profile.capture=always}.
+     *
+     * @param name Label of the profiled action, used for the attachment names
+     * @param slow Whether the caller considers the profiled action too slow
+     */
+    public void finish(String name, boolean slow) {
+        if (devTools == null) {
+            return;
+        }
+        boolean keep = slow || keepAlways;
+
+        try {
+            Map<String, Object> profile = devTools.send(
+                new Command<>("Profiler.stop", Map.of(), PageProfiler::readObject));
+            devTools.send(new Command<>("Profiler.disable", Map.of()));
+
+            CompletableFuture<String> pending = traceStreams.get(devTools).get();
+            devTools.send(new Command<>("Tracing.end", Map.of()));
+            String stream = pending.get(
+                ConfigReader.getInstance().getIntProperty("profile.timeout.seconds", 30), TimeUnit.SECONDS);
+
+            if (!keep) {
+                devTools.send(new Command<>("IO.close", Map.of("handle", stream)));
+                return;
+            }
+
+            byte[] trace = readStream(stream);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> cpuProfile = (Map<String, Object>) profile.get("profile");
+            String summary = summarize(name, trace, cpuProfile);
+
+            AllureReporter.attachText(name + " - Profile Summary", "text/plain", summary, "txt");
+            AllureReporter.attach(name + " - Performance Trace", "application/gzip", "json.gz", gzip(trace));
+            if (cpuProfile != null) {
+                AllureReporter.attach(name + " - CPU Profile", "application/gzip", "cpuprofile.gz",
+                    gzip(toCompactJson(cpuProfile).getBytes(StandardCharsets.UTF_8)));
+            }
+            logger.info("Captured browser profile for {} ({} KB trace)", name, trace.length / 1024);
+
+        } catch (Exception e) {
+            logger.warn("Failed to capture browser profile for {}: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a DevTools IO stream to the end and closes it.
+     */
+    private byte[] readStream(String handle) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        try {
+            while (true) {
+                Map<String, Object> chunk = devTools.send(new Command<>("IO.read",
+                    Map.of("handle", handle, "size", 1 << 20), PageProfiler::readObject));
+                String content = (String) chunk.get("data");
+                if (content != null) {
+                    byte[] bytes = Boolean.TRUE.equals(chunk.get("base64Encoded"))
+                        ? Base64.getDecoder().decode(content)
+                        : content.getBytes(StandardCharsets.UTF_8);
+                    data.write(bytes, 0, bytes.length);
+                }
+                if (Boolean.TRUE.equals(chunk.get("eof"))) {
+                    return data.toByteArray();
+                }
+            }
+        } finally {
+            devTools.send(new Command<>("IO.close", Map.of("handle", handle)));
+        }
+    }
+
+    /**
+     * Lists the longest main-thread tasks with the script that dominated each, the scripts
+     * with the most trace time and the functions with the most sampled CPU time.
+     */
+    @SuppressWarnings("unchecked")
+    private static String summarize(String name, byte[] trace, Map<String, Object> cpuProfile) {
+        Object parsed = JSON.toType(new String(trace, StandardCharsets.UTF_8), Object.class);
+        List<Map<String, Object>> events = parsed instanceof Map
+            ? (List<Map<String, Object>>) ((Map<String, Object>) parsed).getOrDefault("traceEvents", List.of())
+            : (List<Map<String, Object>>) parsed;
+
+        Set<String> mainThreads = new HashSet<>();
+        long firstTimestamp = Long.MAX_VALUE;
+        for (Map<String, Object> event : events) {
+            if ("thread_name".equals(event.get("name"))
+                && "CrRendererMain".equals(((Map<String, Object>) event.getOrDefault("args", Map.of())).get("name"))) {
+                mainThreads.add(event.get("pid") + ":" + event.get("tid"));
+            }
+            if (event.get("ts") instanceof Number && ((Number) event.get("ts")).longValue() > 0) {
+                firstTimestamp = Math.min(firstTimestamp, ((Number) event.get("ts")).longValue());
+            }
+        }
+
+        List<Map<String, Object>> longTasks = new ArrayList<>();
+        List<Map<String, Object>> scripts = new ArrayList<>();
+        Map<String, Long> scriptMicros = new HashMap<>();
+        long taskMicros = 0;
+        for (Map<String, Object> event : events) {
+            if (!"X".equals(event.get("ph")) || !(event.get("dur") instanceof Number)) {
+                continue;
+            }
+            String thread = event.get("pid") + ":" + event.get("tid");
+            if (!mainThreads.isEmpty() && !mainThreads.contains(thread)) {
+                continue;
+            }
+            long duration = ((Number) event.get("dur")).longValue();
+            String eventName = String.valueOf(event.get("name"));
+            if (TASK_EVENTS.contains(eventName)) {
+                taskMicros += duration;
+                if (duration >= LONG_TASK_MICROS) {
+                    longTasks.add(event);
+                }
+            } else if (SCRIPT_EVENTS.contains(eventName)) {
+                scripts.add(event);
+                scriptMicros.merge(scriptUrl(event), duration, Long::sum);
+            }
+        }
+        longTasks.sort(Comparator.comparingLong(event -> -((Number) event.get("dur")).longValue()));
+
+        StringBuilder summary = new StringBuilder();
+        summary.append("Browser profile: ").append(name).append('\n')
+            .append(String.format(Locale.ROOT, "Main thread: %d long tasks (>= %d ms), %.0f ms busy in tasks%n",
+                longTasks.size(), LONG_TASK_MICROS / 1000, taskMicros / 1000.0));
+
+        summary.append("\nLongest tasks (start offset, duration, dominant script):\n");
+        for (Map<String, Object> task : longTasks.subList(0, Math.min(SUMMARY_ROWS, longTasks.size()))) {
+            long start = ((Number) task.get("ts")).longValue();
+            long duration = ((Number) task.get("dur")).longValue();
+            summary.append(String.format(Locale.ROOT, "  +%7.0f ms  %6.0f ms  %s%n",
+                (start - firstTimestamp) / 1000.0, duration / 1000.0, dominantScript(task, scripts)));
+        }
+
+        summary.append("\nScripts by main-thread time (evaluate, compile, calls, timers, events):\n");
+        appendTop(summary, scriptMicros);
+
+        if (cpuProfile != null) {
+            summary.append("\nFunctions by sampled self time:\n");
+            appendTop(summary, selfTimeByFunction(cpuProfile));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Finds the script with the most time among the script events inside a task.
+     */
+    private static String dominantScript(Map<String, Object> task, List<Map<String, Object>> scripts) {
+        long start = ((Number) task.get("ts")).longValue();
+        long end = start + ((Number) task.get("dur")).longValue();
+        String thread = task.get("pid") + ":" + task.get("tid");
+
+        Map<String, Long> byUrl = new HashMap<>();
+        for (Map<String, Object> script : scripts) {
+            long scriptStart = ((Number) script.get("ts")).longValue();
+            if (scriptStart >= start && scriptStart < end && thread.equals(script.get("pid") + ":" + script.get("tid"))) {
+                byUrl.merge(scriptUrl(script), ((Number) script.get("dur")).longValue(), Long::sum);
+            }
+        }
+        return byUrl.entrySet().stream()
+            .max(Map.Entry.comparingByValue())
+            .map(Map.Entry::getKey)
+            .orElse("(no script, layout/paint/parse)");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String scriptUrl(Map<String, Object> event) {
+        Map<String, Object> args = (Map<String, Object>) event.getOrDefault("args", Map.of());
+        Map<String, Object> data = (Map<String, Object>) args.getOrDefault("data", args);
+        Object url = data.get("url");
+        if (url == null) {
+            url = data.get("fileName");
+        }
+        return url == null || String.valueOf(url).isEmpty() ? "(inline or native)" : String.valueOf(url);
+    }
+
+    /**
+     * Sums the sampled time of each function in a CPU profile, in microseconds.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Long> selfTimeByFunction(Map<String, Object> cpuProfile) {
+        Map<Long, String> functions = new HashMap<>();
+        for (Object item : (List<Object>) cpuProfile.getOrDefault("nodes", List.of())) {
+            Map<String, Object> node = (Map<String, Object>) item;
+            Map<String, Object> frame = (Map<String, Object>) node.getOrDefault("callFrame", Map.of());
+            String function = String.valueOf(frame.getOrDefault("functionName", ""));
+            String url = String.valueOf(frame.getOrDefault("url", ""));
+            Number line = (Number) frame.getOrDefault("lineNumber", -1);
+            functions.put(((Number) node.get("id")).longValue(), url.isEmpty()
+                ? (function.isEmpty() ? "(anonymous)" : function)
+                : (function.isEmpty() ? "(anonymous)" : function) + "  " + url + ":" + (line.intValue() + 1));
+        }
+
+        List<Object> samples = (List<Object>) cpuProfile.getOrDefault("samples", List.of());
+        List<Object> deltas = (List<Object>) cpuProfile.getOrDefault("timeDeltas", List.of());
+        Map<String, Long> selfMicros = new HashMap<>();
+        // A sample's time runs until the next sample is taken
+        for (int i = 0; i + 1 < samples.size() && i + 1 < deltas.size(); i++) {
+            String function = functions.get(((Number) samples.get(i)).longValue());
+            if (function != null && !PROFILER_PSEUDO_NODES.contains(function)) {
+                selfMicros.merge(function, ((Number) deltas.get(i + 1)).longValue(), Long::sum);
+            }
+        }
+        return selfMicros;
+    }
+
+    private static void appendTop(StringBuilder summary, Map<String, Long> micros) {
+        if (micros.isEmpty()) {
+            summary.append("  (none)\n");
+            return;
+        }
+        micros.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .limit(SUMMARY_ROWS)
+            .forEach(entry -> summary.append(String.format(Locale.ROOT, "  %8.1f ms  %s%n",
+                entry.getValue() / 1000.0, entry.getKey())));
+    }
+
+    private static Map<String, Object> readObject(JsonInput input) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        input.beginObject();
+        while (input.hasNext()) {
+            result.put(input.nextName(), input.read(Object.class));
+        }
+        input.endObject();
+        return result;
+    }
+
+    private static String toCompactJson(Object value) {
+        StringWriter writer = new StringWriter();
+        JSON.newOutput(writer).setPrettyPrint(false).write(value).close();
+        return writer.toString();
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 8 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,102 @@
+package com.apple.automation.performance;
+
+import org.openqa.selenium.remote.http.Filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects performance samples of the tests in the current run: test duration,
+ * number of WebDriver commands and page object ready times. Samples of passing
+ * tests are handed to {@link TrendStore} when the suite finishes.
+ */
+public final class PerformanceRecorder {
+
+    private static final ThreadLocal<TestSample> current = new ThreadLocal<>();
+    private static final Queue<Measurement> completed = new ConcurrentLinkedQueue<>();
+
+    private PerformanceRecorder() {
+    }
+
+    /**
+     * Samples gathered for the test running on the current thread.
+     */
+    private static class TestSample {
+        private final String testId;
+        private final List<Measurement> pages = new ArrayList<>();
+        private int commands;
+
+        TestSample(String testId) {
+            this.testId = testId;
+        }
+    }
+
+    /**
+     * Client filter that counts every WebDriver command sent on the calling thread.
+     * Installed on driver sessions through their ClientConfig.
+     */
+    public static Filter commandCounter() {
+        return next -> request -> {
+            TestSample sample = current.get();
+            if (sample != null) {
+                sample.commands++;
+            }
+            return next.execute(request);
+        };
+    }
+
+    /**
+     * Starts collecting samples for a test on the current thread.
+     */
+    public static void startTest(String testId) {
+        current.set(new TestSample(testId));
+    }
+
+    /**
+     * Records how long a page object took to become ready.
+     */
+    public static void recordPage(String pageName, long millis) {
+        TestSample sample = current.get();
+        if (sample != null) {
+            sample.pages.add(new Measurement(Measurement.Kind.PAGE, pageName, Measurement.READY_MS, millis));
+        }
+    }
+
+    /**
+     * Finishes the current thread's test and keeps its samples for the trend store.
+     *
+     * @param durationMillis Duration of the test method
+     */
+    public static void finishTest(long durationMillis) {
+        TestSample sample = current.get();
+        current.remove();
+        if (sample == null) {
+            return;
+        }
+
+        completed.add(new Measurement(Measurement.Kind.TEST, sample.testId, Measurement.DURATION_MS, durationMillis));
+        completed.add(new Measurement(Measurement.Kind.TEST, sample.testId, Measurement.COMMANDS, sample.commands));
+        completed.addAll(sample.pages);
+    }
+
+    /**
+     * Drops the current thread's samples, e.g. for failed or skipped tests.
+     */
+    public static void discardTest() {
+        current.remove();
+    }
+
+    /**
+     * Removes and returns every sample completed so far.
+     */
+    public static List<Measurement> drainCompleted() {
+        List<Measurement> measurements = new ArrayList<>();
+        Measurement measurement;
+        while ((measurement = completed.poll()) != null) {
+            measurements.add(measurement);
+        }
+        return measurements;
+    }
+}
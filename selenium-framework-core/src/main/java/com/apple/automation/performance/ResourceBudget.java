@@ -0,0 +1,245 @@
+package com.apple.automation.performance;
+
+import com.apple.automation.utils.AllureReporter;
+import com.apple.automation.utils.ConfigReader;
+import io.qameta.allure.Allure;
+import io.qameta.allure.model.Status;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resource budgets of a page: transferred bytes, request count, JS heap size, DOM node
+ * count and long-task time, each measured once the page object is ready.
+ *
+ * <p>Limits are read from {@code budget.<PageClass>.<metric>} and fall back to
+ * {@code budget.default.<metric>}; metrics without a limit are measured and reported but
+ * never violated. Transfer size and request count come from Resource Timing, so
+ * cross-origin resources without a {@code Timing-Allow-Origin} header count as requests
+ * but add no bytes. Heap size and DOM nodes come from CDP {@code Performance.getMetrics}
+ * in Chromium browsers, otherwise from {@code performance.memory} and the element count.</p>
+ */
+public final class ResourceBudget {
+
+    private static final Logger logger = LogManager.getLogger(ResourceBudget.class);
+    private static final Json JSON = new Json();
+
+    private static final String MEASURE_SCRIPT =
+        "var done = arguments[arguments.length - 1];"
+        + "var result = {};"
+        + "var navigation = performance.getEntriesByType('navigation')[0];"
+        + "var resources = performance.getEntriesByType('resource');"
+        + "var bytes = navigation ? navigation.transferSize || 0 : 0;"
+        + "for (var i = 0; i < resources.length; i++) { bytes += resources[i].transferSize || 0; }"
+        + "result.transferBytes = bytes;"
+        + "result.requests = resources.length + (navigation ? 1 : 0);"
+        + "result.domNodes = document.getElementsByTagName('*').length;"
+        + "result.jsHeapBytes = performance.memory ? performance.memory.usedJSHeapSize : null;"
+        + "var types = window.PerformanceObserver && PerformanceObserver.supportedEntryTypes || [];"
+        + "if (types.indexOf('longtask') < 0) { done(result); return; }"
+        // Buffered long tasks arrive in the observer callback or, if it has not run yet, via takeRecords()
+        + "var longTaskMs = 0;"
+        + "var add = function(entries) { entries.forEach(function(e) { longTaskMs += e.duration; }); };"
+        + "var observer = new PerformanceObserver(function(list) { add(list.getEntries()); });"
+        + "observer.observe({type: 'longtask', buffered: true});"
+        + "setTimeout(function() {"
+        + "  add(observer.takeRecords()); observer.disconnect();"
+        + "  result.longTaskMs = longTaskMs; done(result);"
+        + "}, 0);";
+
+    private ResourceBudget() {
+    }
+
+    /**
+     * Budgeted metrics with their configuration key suffix.
+     */
+    public enum Metric {
+        TRANSFER_KB("transfer.kb", "KB"),
+        REQUESTS("requests", ""),
+        JS_HEAP_MB("js.heap.mb", "MB"),
+        DOM_NODES("dom.nodes", ""),
+        LONG_TASK_MS("long.task.ms", "ms");
+
+        private final String key;
+        private final String unit;
+
+        Metric(String key, String unit) {
+            this.key = key;
+            this.unit = unit;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        String format(double value) {
+            String number = value == Math.rint(value)
+                ? String.valueOf((long) value)
+                : String.format(Locale.ROOT, "%.1f", value);
+            return unit.isEmpty() ? number : number + " " + unit;
+        }
+    }
+
+    /**
+     * Measured values of a page and the limits they were checked against.
+     */
+    public static final class Result {
+        private final String page;
+        private final Map<Metric, Double> measured;
+        private final Map<Metric, Double> limits;
+
+        Result(String page, Map<Metric, Double> measured, Map<Metric, Double> limits) {
+            this.page = page;
+            this.measured = measured;
+            this.limits = limits;
+        }
+
+        public String getPage() {
+            return page;
+        }
+
+        /**
+         * Gets a measured value, or null if the browser does not expose the metric.
+         */
+        public Double getMeasured(Metric metric) {
+            return measured.get(metric);
+        }
+
+        public boolean isWithinBudget() {
+            return violations().isEmpty();
+        }
+
+        /**
+         * Describes each metric that is over its limit.
+         */
+        public List<String> violations() {
+            List<String> violations = new ArrayList<>();
+            for (Map.Entry<Metric, Double> limit : limits.entrySet()) {
+                Double value = measured.get(limit.getKey());
+                if (value != null && value > limit.getValue()) {
+                    violations.add(String.format("%s %s is %s, budget %s", page, limit.getKey().getKey(),
+                        limit.getKey().format(value), limit.getKey().format(limit.getValue())));
+                }
+            }
+            return violations;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            for (Metric metric : Metric.values()) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("value", measured.get(metric));
+                entry.put("budget", limits.get(metric));
+                entry.put("unit", metric.unit);
+                entry.put("withinBudget", !limits.containsKey(metric) || measured.get(metric) == null
+                    || measured.get(metric) <= limits.get(metric));
+                metrics.put(metric.getKey(), entry);
+            }
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("page", page);
+            map.put("withinBudget", isWithinBudget());
+            map.put("metrics", metrics);
+            return map;
+        }
+    }
+
+    /**
+     * Measures the current page, checks it against the budget of the page class and
+     * reports the result as an Allure step with one sub-step per metric.
+     *
+     * @param driver Driver showing the page
+     * @param page Simple name of the page object class, used to look up its budget
+     */
+    public static Result check(WebDriver driver, String page) {
+        Result result = new Result(page, measure(driver), limitsFor(page));
+        report(result);
+        return result;
+    }
+
+    /**
+     * Reads the configured limits of a page class.
+     */
+    public static Map<Metric, Double> limitsFor(String page) {
+        ConfigReader config = ConfigReader.getInstance();
+        Map<Metric, Double> limits = new EnumMap<>(Metric.class);
+        for (Metric metric : Metric.values()) {
+            String value = config.getProperty("budget." + page + "." + metric.getKey(),
+                config.getProperty("budget.default." + metric.getKey(), ""));
+            if (!value.isBlank()) {
+                limits.put(metric, Double.parseDouble(value.trim()));
+            }
+        }
+        return limits;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Metric, Double> measure(WebDriver driver) {
+        Map<Metric, Double> measured = new EnumMap<>(Metric.class);
+        Map<String, Object> page = (Map<String, Object>) ((JavascriptExecutor) driver).executeAsyncScript(MEASURE_SCRIPT);
+
+        putIfNumber(measured, Metric.TRANSFER_KB, page.get("transferBytes"), 1024.0);
+        putIfNumber(measured, Metric.REQUESTS, page.get("requests"), 1);
+        putIfNumber(measured, Metric.DOM_NODES, page.get("domNodes"), 1);
+        putIfNumber(measured, Metric.JS_HEAP_MB, page.get("jsHeapBytes"), 1024.0 * 1024.0);
+        putIfNumber(measured, Metric.LONG_TASK_MS, page.get("longTaskMs"), 1);
+
+        if (driver instanceof HasCdp) {
+            try {
+                HasCdp cdp = (HasCdp) driver;
+                cdp.executeCdpCommand("Performance.enable", Map.of());
+                Map<String, Object> response = cdp.executeCdpCommand("Performance.getMetrics", Map.of());
+                cdp.executeCdpCommand("Performance.disable", Map.of());
+                for (Object item : (List<Object>) response.getOrDefault("metrics", List.of())) {
+                    Map<String, Object> metric = (Map<String, Object>) item;
+                    if ("JSHeapUsedSize".equals(metric.get("name"))) {
+                        putIfNumber(measured, Metric.JS_HEAP_MB, metric.get("value"), 1024.0 * 1024.0);
+                    } else if ("Nodes".equals(metric.get("name"))) {
+                        putIfNumber(measured, Metric.DOM_NODES, metric.get("value"), 1);
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.debug("CDP Performance.getMetrics unavailable: {}", e.getMessage());
+            }
+        }
+        return measured;
+    }
+
+    private static void putIfNumber(Map<Metric, Double> measured, Metric metric, Object value, double divisor) {
+        if (value instanceof Number) {
+            measured.put(metric, Math.round(((Number) value).doubleValue() / divisor * 10) / 10.0);
+        }
+    }
+
+    private static void report(Result result) {
+        List<String> violations = result.violations();
+        Allure.step("Resource budget: " + result.getPage(), () -> {
+            for (Metric metric : Metric.values()) {
+                Double value = result.measured.get(metric);
+                Double limit = result.limits.get(metric);
+                String name = metric.getKey() + ": "
+                    + (value == null ? "not measured" : metric.format(value))
+                    + (limit == null ? "" : " / budget " + metric.format(limit));
+                boolean over = value != null && limit != null && value > limit;
+                Allure.step(name, over ? Status.FAILED : Status.PASSED);
+            }
+            AllureReporter.attachText("Resource Budget - " + result.getPage(), "application/json",
+                JSON.toJson(result.toMap()), "json");
+        });
+
+        if (violations.isEmpty()) {
+            logger.info("{} is within its resource budget", result.getPage());
+        } else {
+            violations.forEach(violation -> logger.warn("Budget exceeded: {}", violation));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.apple.automation.performance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Descriptive statistics of benchmark samples, computed on a sorted copy.
+ */
+final class Statistics {
+
+    private final double[] sorted;
+
+    Statistics(List<Double> samples) {
+        this.sorted = samples.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+    }
+
+    int count() {
+        return sorted.length;
+    }
+
+    double min() {
+        return sorted.length == 0 ? Double.NaN : sorted[0];
+    }
+
+    double max() {
+        return sorted.length == 0 ? Double.NaN : sorted[sorted.length - 1];
+    }
+
+    double mean() {
+        return Arrays.stream(sorted).average().orElse(Double.NaN);
+    }
+
+    double standardDeviation() {
+        if (sorted.length < 2) {
+            return 0;
+        }
+        double mean = mean();
+        double squares = Arrays.stream(sorted).map(value -> (value - mean) * (value - mean)).sum();
+        return Math.sqrt(squares / (sorted.length - 1));
+    }
+
+    /**
+     * Quantile with linear interpolation between order statistics (Hyndman-Fan type 7).
+     */
+    double quantile(double q) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        double position = q * (sorted.length - 1);
+        int lower = (int) Math.floor(position);
+        int upper = Math.min(lower + 1, sorted.length - 1);
+        return sorted[lower] + (position - lower) * (sorted[upper] - sorted[lower]);
+    }
+
+    /**
+     * Distribution-free confidence interval of a quantile from order statistics.
+     * The number of samples below the true quantile is Binomial(n, q), so the interval
+     * between the l-th and u-th order statistics covers it with probability
+     * P(l &lt;= B &lt; u). Starting at the most likely rank, the interval grows towards the more
+     * probable side until it reaches the target confidence or runs out of samples; small
+     * samples and extreme quantiles therefore report a lower achieved confidence.
+     *
+     * @return {lower, upper, achieved confidence}
+     */
+    double[] quantileInterval(double q, double confidence) {
+        int n = sorted.length;
+        if (n < 2) {
+            double value = n == 0 ? Double.NaN : sorted[0];
+            return new double[] {value, value, 0};
+        }
+
+        double[] pmf = binomialPmf(n, q);
+        // B = k means the interval starts at sample k and ends at sample k + 1 (1-based)
+        int low = Math.max(1, Math.min(n - 1, (int) Math.floor((n + 1) * q)));
+        int high = low;
+        double coverage = pmf[low];
+        while (coverage < confidence) {
+            boolean canLower = low > 1;
+            boolean canRaise = high < n - 1;
+            if (!canLower && !canRaise) {
+                break;
+            }
+            if (canLower && (!canRaise || pmf[low - 1] >= pmf[high + 1])) {
+                coverage += pmf[--low];
+            } else {
+                coverage += pmf[++high];
+            }
+        }
+        return new double[] {sorted[low - 1], sorted[high], Math.min(1, coverage)};
+    }
+
+    /**
+     * Splits samples into those inside and outside Tukey's fences (1.5 IQR beyond the quartiles).
+     *
+     * @return {kept, rejected}
+     */
+    static List<List<Double>> rejectOutliers(List<Double> samples) {
+        Statistics statistics = new Statistics(samples);
+        double q1 = statistics.quantile(0.25);
+        double q3 = statistics.quantile(0.75);
+        double fence = 1.5 * (q3 - q1);
+
+        List<Double> kept = new ArrayList<>();
+        List<Double> rejected = new ArrayList<>();
+        for (Double sample : samples) {
+            if (sample < q1 - fence || sample > q3 + fence) {
+                rejected.add(sample);
+            } else {
+                kept.add(sample);
+            }
+        }
+        return List.of(kept, rejected);
+    }
+
+    private static double[] binomialPmf(int n, double q) {
+        double[] pmf = new double[n + 1];
+        double logCombination = 0;
+        for (int k = 0; k <= n; k++) {
+            if (k > 0) {
+                logCombination += Math.log(n - k + 1) - Math.log(k);
+            }
+            double logQ = k == 0 ? 0 : k * Math.log(q);
+            double logNotQ = k == n ? 0 : (n - k) * Math.log(1 - q);
+            pmf[k] = Math.exp(logCombination + logQ + logNotQ);
+        }
+        return pmf;
+    }
+}
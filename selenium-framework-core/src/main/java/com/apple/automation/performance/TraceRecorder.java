@@ -0,0 +1,401 @@
+package com.apple.automation.performance;
+
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records a timeline of nested spans per test: the test itself, Allure steps and
+ * WebDriver commands. When the test ends the timeline is written as a Chrome trace-event
+ * file ({@code trace.dir/<test>.json}, open it in Perfetto or chrome://tracing) and,
+ * if {@code trace.otlp.endpoint} is set, exported as OTLP/HTTP JSON to a collector.
+ *
+ * <p>Spans are plain objects on a thread-confined stack; nothing is formatted or written
+ * until the test has finished.</p>
+ */
+public final class TraceRecorder {
+
+    private static final Logger logger = LogManager.getLogger(TraceRecorder.class);
+    private static final ThreadLocal<Trace> current = new ThreadLocal<>();
+
+    /** Offset from System.nanoTime() to Unix epoch nanoseconds, for OTLP timestamps. */
+    private static final long EPOCH_OFFSET_NANOS = System.currentTimeMillis() * 1_000_000L - System.nanoTime();
+
+    private static volatile HttpClient otlpClient;
+
+    private TraceRecorder() {
+    }
+
+    /**
+     * A completed or open span.
+     */
+    private static class Span {
+        private final int id;
+        private final int parentId;
+        private final String name;
+        private final String category;
+        private final long startNanos;
+        private long endNanos;
+        private Map<String, Object> attributes;
+
+        Span(int id, int parentId, String name, String category) {
+            this.id = id;
+            this.parentId = parentId;
+            this.name = name;
+            this.category = category;
+            this.startNanos = System.nanoTime();
+        }
+
+        void attribute(String key, Object value) {
+            if (attributes == null) {
+                attributes = new LinkedHashMap<>();
+            }
+            attributes.put(key, value);
+        }
+    }
+
+    /**
+     * Timeline of one test.
+     */
+    private static class Trace {
+        private final String testId;
+        private final long threadId = Thread.currentThread().getId();
+        private final List<Span> spans = new ArrayList<>();
+        private final Deque<Span> open = new ArrayDeque<>();
+
+        Trace(String testId) {
+            this.testId = testId;
+        }
+
+        Span begin(String name, String category) {
+            Span parent = open.peek();
+            Span span = new Span(spans.size() + 1, parent == null ? 0 : parent.id, name, category);
+            spans.add(span);
+            open.push(span);
+            return span;
+        }
+
+        Span end() {
+            Span span = open.poll();
+            if (span != null) {
+                span.endNanos = System.nanoTime();
+            }
+            return span;
+        }
+    }
+
+    /**
+     * Checks if tracing is enabled in configuration.
+     */
+    public static boolean isEnabled() {
+        return ConfigReader.getInstance().getBooleanProperty("trace.enabled", true);
+    }
+
+    /**
+     * Starts the timeline of a test on the current thread with a root span.
+     */
+    public static void startTest(String testId) {
+        if (!isEnabled()) {
+            return;
+        }
+        Trace trace = new Trace(testId);
+        trace.begin(testId, "test");
+        current.set(trace);
+    }
+
+    /**
+     * Ends the current test's timeline and writes it out.
+     *
+     * @param status Final status of the test, recorded on the root span
+     */
+    public static void finishTest(String status) {
+        Trace trace = current.get();
+        current.remove();
+        if (trace == null) {
+            return;
+        }
+
+        while (trace.open.size() > 1) {
+            trace.end().attribute("unterminated", true);
+        }
+        Span root = trace.end();
+        if (root != null) {
+            root.attribute("status", status);
+        }
+
+        writeChromeTrace(trace);
+        exportOtlp(trace);
+    }
+
+    /**
+     * Opens a span nested in the current one. Must be closed with {@link #endSpan(String, Object)}.
+     */
+    public static void beginSpan(String name, String category) {
+        Trace trace = current.get();
+        if (trace != null) {
+            trace.begin(name, category);
+        }
+    }
+
+    /**
+     * Closes the innermost open span, optionally adding one attribute.
+     */
+    public static void endSpan(String attributeKey, Object attributeValue) {
+        Trace trace = current.get();
+        if (trace != null && trace.open.size() > 1) {
+            Span span = trace.end();
+            if (attributeKey != null) {
+                span.attribute(attributeKey, attributeValue);
+            }
+        }
+    }
+
+    /**
+     * Client filter that records a span for every WebDriver command sent on the calling thread.
+     */
+    public static Filter commandSpans() {
+        return next -> request -> {
+            Trace trace = current.get();
+            if (trace == null) {
+                return next.execute(request);
+            }
+
+            Span span = trace.begin(request.getMethod() + " " + commandPath(request.getUri()), "webdriver");
+            try {
+                HttpResponse response = next.execute(request);
+                span.attribute("http.status", response.getStatus());
+                return response;
+            } finally {
+                trace.end();
+            }
+        };
+    }
+
+    /**
+     * Strips the session prefix and replaces element, shadow root and window ids with {id},
+     * so the same command always gets the same span name.
+     */
+    private static String commandPath(String uri) {
+        int session = uri.indexOf("/session/");
+        if (session < 0) {
+            return uri;
+        }
+        int afterId = uri.indexOf('/', session + "/session/".length());
+        if (afterId < 0) {
+            return "/session";
+        }
+
+        StringBuilder path = new StringBuilder(uri.length() - afterId);
+        int start = afterId;
+        while (start < uri.length()) {
+            int end = uri.indexOf('/', start + 1);
+            if (end < 0) {
+                end = uri.length();
+            }
+            // Ids are long opaque tokens, command names are short words
+            path.append(end - start > 17 ? "/{id}" : uri.substring(start, end));
+            start = end;
+        }
+        return path.toString();
+    }
+
+    private static void writeChromeTrace(Trace trace) {
+        StringBuilder json = new StringBuilder(128 + trace.spans.size() * 160);
+        json.append("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[")
+            .append("{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":1,\"tid\":").append(trace.threadId)
+            .append(",\"args\":{\"name\":");
+        appendString(json, trace.testId);
+        json.append("}}");
+
+        for (Span span : trace.spans) {
+            json.append(",\n{\"name\":");
+            appendString(json, span.name);
+            json.append(",\"cat\":\"").append(span.category)
+                .append("\",\"ph\":\"X\",\"ts\":").append(span.startNanos / 1000)
+                .append(",\"dur\":").append(Math.max(0, span.endNanos - span.startNanos) / 1000)
+                .append(",\"pid\":1,\"tid\":").append(trace.threadId);
+            if (span.attributes != null) {
+                json.append(",\"args\":{");
+                boolean first = true;
+                for (Map.Entry<String, Object> attribute : span.attributes.entrySet()) {
+                    if (!first) {
+                        json.append(',');
+                    }
+                    first = false;
+                    appendString(json, attribute.getKey());
+                    json.append(':');
+                    appendValue(json, attribute.getValue());
+                }
+                json.append('}');
+            }
+            json.append('}');
+        }
+        json.append("]}");
+
+        Path file = Paths.get(ConfigReader.getInstance().getProperty("trace.dir", "target/traces"),
+            trace.testId.replaceAll("[^A-Za-z0-9._-]", "_") + ".json");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, json, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.warn("Failed to write trace {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Posts the spans to an OTLP/HTTP collector without waiting for the response.
+     */
+    private static void exportOtlp(Trace trace) {
+        String endpoint = ConfigReader.getInstance().getProperty("trace.otlp.endpoint", "");
+        if (endpoint.isEmpty()) {
+            return;
+        }
+
+        String traceId = randomHex(16);
+        String spanPrefix = randomHex(4);
+        StringBuilder json = new StringBuilder(256 + trace.spans.size() * 300);
+        json.append("{\"resourceSpans\":[{\"resource\":{\"attributes\":[");
+        appendAttribute(json, "service.name", "selenium-apple-framework");
+        json.append(',');
+        appendAttribute(json, "test.id", trace.testId);
+        json.append("]},\"scopeSpans\":[{\"scope\":{\"name\":\"").append(TraceRecorder.class.getName())
+            .append("\"},\"spans\":[");
+
+        for (int i = 0; i < trace.spans.size(); i++) {
+            Span span = trace.spans.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"traceId\":\"").append(traceId)
+                .append("\",\"spanId\":\"").append(spanPrefix).append(spanHex(span.id)).append('"');
+            if (span.parentId != 0) {
+                json.append(",\"parentSpanId\":\"").append(spanPrefix).append(spanHex(span.parentId))
+                    .append('"');
+            }
+            json.append(",\"name\":");
+            appendString(json, span.name);
+            json.append(",\"kind\":").append("webdriver".equals(span.category) ? 3 : 1)
+                .append(",\"startTimeUnixNano\":\"").append(span.startNanos + EPOCH_OFFSET_NANOS)
+                .append("\",\"endTimeUnixNano\":\"").append(span.endNanos + EPOCH_OFFSET_NANOS)
+                .append("\",\"attributes\":[");
+            appendAttribute(json, "span.category", span.category);
+            if (span.attributes != null) {
+                for (Map.Entry<String, Object> attribute : span.attributes.entrySet()) {
+                    json.append(',');
+                    appendAttribute(json, attribute.getKey(), attribute.getValue());
+                }
+            }
+            json.append("]}");
+        }
+        json.append("]}]}]}");
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(endpoint))
+            .timeout(Duration.ofSeconds(5))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json.toString()))
+            .build();
+        otlpClient().sendAsync(request, java.net.http.HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                if (error != null || response.statusCode() >= 300) {
+                    logger.debug("OTLP export to {} failed: {}", endpoint,
+                        error != null ? error.getMessage() : "HTTP " + response.statusCode());
+                }
+            });
+    }
+
+    private static HttpClient otlpClient() {
+        if (otlpClient == null) {
+            synchronized (TraceRecorder.class) {
+                if (otlpClient == null) {
+                    otlpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+                }
+            }
+        }
+        return otlpClient;
+    }
+
+    private static void appendAttribute(StringBuilder json, String key, Object value) {
+        json.append("{\"key\":");
+        appendString(json, key);
+        if (value instanceof Number) {
+            json.append(",\"value\":{\"intValue\":\"").append(((Number) value).longValue()).append("\"}}");
+        } else if (value instanceof Boolean) {
+            json.append(",\"value\":{\"boolValue\":").append(value).append("}}");
+        } else {
+            json.append(",\"value\":{\"stringValue\":");
+            appendString(json, String.valueOf(value));
+            json.append("}}");
+        }
+    }
+
+    private static void appendValue(StringBuilder json, Object value) {
+        if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else {
+            appendString(json, String.valueOf(value));
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    private static String spanHex(int id) {
+        String hex = Integer.toHexString(id);
+        return "00000000".substring(hex.length()) + hex;
+    }
+
+    private static String randomHex(int bytes) {
+        StringBuilder hex = new StringBuilder(bytes * 2);
+        for (int i = 0; i < bytes; i++) {
+            hex.append(String.format("%02x", ThreadLocalRandom.current().nextInt(256)));
+        }
+        return hex.toString();
+    }
+}
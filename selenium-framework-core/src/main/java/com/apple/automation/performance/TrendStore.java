@@ -0,0 +1,199 @@
+package com.apple.automation.performance;
+
+import com.apple.automation.utils.ConfigReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Append-only store of per-run performance values, used to detect regressions.
+ *
+ * <p>Every run appends one tab-separated row per measurement
+ * ({@code run, kind, name, metric, value}) to {@code trend.store.path}. Before appending,
+ * the median of each series in the current run is compared with the medians of the last
+ * {@code trend.baseline.runs} runs. A series regresses when it is both statistically
+ * significant ({@code trend.z.threshold} standard deviations above the baseline mean)
+ * and material ({@code trend.min.slowdown.percent} above the mean).</p>
+ */
+public final class TrendStore {
+
+    private static final Logger logger = LogManager.getLogger(TrendStore.class);
+    private static final String HEADER = "run\tkind\tname\tmetric\tvalue";
+
+    private TrendStore() {
+    }
+
+    /**
+     * A series whose current value is significantly above its baseline.
+     */
+    public static final class Regression {
+        private final String series;
+        private final double current;
+        private final double baselineMean;
+        private final double zScore;
+        private final int baselineRuns;
+
+        Regression(String series, double current, double baselineMean, double zScore, int baselineRuns) {
+            this.series = series;
+            this.current = current;
+            this.baselineMean = baselineMean;
+            this.zScore = zScore;
+            this.baselineRuns = baselineRuns;
+        }
+
+        public String describe() {
+            return String.format(Locale.ROOT, "%s: %.0f vs baseline %.0f (+%.0f%%, z=%.1f over %d runs)",
+                series.replace('\t', ' '), current, baselineMean,
+                (current / baselineMean - 1) * 100, zScore, baselineRuns);
+        }
+    }
+
+    /**
+     * Compares the run with its baseline, appends it to the store and applies
+     * {@code trend.regression.action}: {@code warn} logs regressions, {@code fail} also
+     * throws, {@code off} only records.
+     *
+     * @param measurements Values collected during the run
+     * @throws AssertionError if regressions were found and the action is {@code fail}
+     */
+    public static void recordAndCheck(List<Measurement> measurements) {
+        if (measurements.isEmpty()) {
+            return;
+        }
+
+        ConfigReader config = ConfigReader.getInstance();
+        String action = config.getProperty("trend.regression.action", "warn").toLowerCase(Locale.ROOT);
+        Path store = Paths.get(config.getProperty("trend.store.path", "target/performance/trend.tsv"));
+
+        List<Regression> regressions = "off".equals(action)
+            ? List.of()
+            : findRegressions(measurements, readHistory(store), config);
+        append(store, measurements);
+
+        if (regressions.isEmpty()) {
+            logger.info("Performance trend: {} values recorded, no regressions", measurements.size());
+            return;
+        }
+
+        regressions.forEach(regression -> logger.warn("Performance regression: {}", regression.describe()));
+        if ("fail".equals(action)) {
+            throw new AssertionError(regressions.size() + " performance regression(s) detected, see "
+                + store + " and the log for details");
+        }
+    }
+
+    private static List<Regression> findRegressions(List<Measurement> measurements,
+                                                    Map<String, Map<String, List<Double>>> history,
+                                                    ConfigReader config) {
+        int baselineRuns = config.getIntProperty("trend.baseline.runs", 10);
+        int minRuns = config.getIntProperty("trend.min.runs", 5);
+        double zThreshold = Double.parseDouble(config.getProperty("trend.z.threshold", "3.0"));
+        double minSlowdown = Double.parseDouble(config.getProperty("trend.min.slowdown.percent", "20")) / 100;
+
+        Map<String, List<Double>> currentRun = new LinkedHashMap<>();
+        for (Measurement measurement : measurements) {
+            currentRun.computeIfAbsent(measurement.seriesKey(), key -> new ArrayList<>()).add(measurement.getValue());
+        }
+
+        List<Regression> regressions = new ArrayList<>();
+        for (Map.Entry<String, List<Double>> series : currentRun.entrySet()) {
+            Map<String, List<Double>> runs = history.get(series.getKey());
+            if (runs == null || runs.size() < minRuns) {
+                continue;
+            }
+
+            List<Double> baseline = new ArrayList<>();
+            for (List<Double> values : runs.values()) {
+                baseline.add(median(values));
+            }
+            baseline = baseline.subList(Math.max(0, baseline.size() - baselineRuns), baseline.size());
+
+            double mean = baseline.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+            double variance = baseline.stream().mapToDouble(value -> (value - mean) * (value - mean)).sum()
+                / Math.max(1, baseline.size() - 1);
+            double stdDev = Math.sqrt(variance);
+            double current = median(series.getValue());
+
+            // A perfectly stable baseline makes any material increase significant
+            double zScore = stdDev > 0 ? (current - mean) / stdDev : (current > mean ? Double.POSITIVE_INFINITY : 0);
+            if (mean > 0 && zScore >= zThreshold && current >= mean * (1 + minSlowdown)) {
+                regressions.add(new Regression(series.getKey(), current, mean, zScore, baseline.size()));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Reads the store into series key -> run -> values, with runs in chronological order.
+     */
+    private static Map<String, Map<String, List<Double>>> readHistory(Path store) {
+        if (!Files.exists(store)) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Map<String, List<Double>>> history = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(store, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t");
+                if (columns.length != 5 || line.equals(HEADER)) {
+                    continue;
+                }
+                String key = columns[1] + "\t" + columns[2] + "\t" + columns[3];
+                history.computeIfAbsent(key, k -> new LinkedHashMap<>())
+                    .computeIfAbsent(columns[0], k -> new ArrayList<>())
+                    .add(Double.parseDouble(columns[4]));
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Could not read performance trend store {}: {}", store, e.getMessage());
+        }
+        return history;
+    }
+
+    private static void append(Path store, List<Measurement> measurements) {
+        String run = String.valueOf(System.currentTimeMillis());
+        try {
+            if (store.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(store.toAbsolutePath().getParent());
+            }
+            boolean created = !Files.exists(store);
+            try (BufferedWriter writer = Files.newBufferedWriter(store, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (created) {
+                    writer.write(HEADER);
+                    writer.newLine();
+                }
+                for (Measurement measurement : measurements) {
+                    writer.write(run + "\t" + measurement.getKind() + "\t"
+                        + measurement.getName() + "\t"
+                        + measurement.getMetric() + "\t" + (long) measurement.getValue());
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to append to performance trend store {}", store, e);
+        }
+    }
+
+    private static double median(List<Double> values) {
+        List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int middle = sorted.size() / 2;
+        return sorted.size() % 2 == 1 ? sorted.get(middle) : (sorted.get(middle - 1) + sorted.get(middle)) / 2;
+    }
+}
@@ -0,0 +1,161 @@
+package com.apple.automation.utils;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.util.PropertiesUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Reporting layer on top of Allure that keeps the results directory small.
+ * Short metadata is stored on the test result itself as labels or parameters, which
+ * costs no extra files. Real attachments are registered on the current test or step
+ * immediately and their content is written by a single background thread, so test
+ * threads never wait on disk.
+ */
+public class AllureReporter {
+
+    private static final Logger logger = LogManager.getLogger(AllureReporter.class);
+
+    private static final AtomicInteger pendingWrites = new AtomicInteger();
+    private static final AtomicInteger attachmentCount = new AtomicInteger();
+    private static final AtomicLong attachmentBytes = new AtomicLong();
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "allure-attachment-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(AllureReporter::flush, "allure-attachment-flush"));
+    }
+
+    private AllureReporter() {
+    }
+
+    /**
+     * Adds a label to the current test, e.g. browser or environment.
+     */
+    public static void label(String name, String value) {
+        if (value != null) {
+            Allure.label(name, value);
+        }
+    }
+
+    /**
+     * Adds a parameter to the current test. Parameters added here are excluded from the
+     * history id, so values that change between runs do not split a test's history.
+     */
+    public static void parameter(String name, Object value) {
+        Allure.parameter(name, String.valueOf(value), true);
+    }
+
+    /**
+     * Attaches text to the current test or step.
+     */
+    public static void attachText(String name, String mimeType, String content, String extension) {
+        if (content != null) {
+            attach(name, mimeType, extension, content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Attaches binary content to the current test or step. The attachment is linked
+     * synchronously and its file is written asynchronously.
+     */
+    public static void attach(String name, String mimeType, String extension, byte[] content) {
+        if (content == null || content.length == 0) {
+            return;
+        }
+
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String source = lifecycle.prepareAttachment(name, mimeType, extension);
+        attachmentCount.incrementAndGet();
+        attachmentBytes.addAndGet(content.length);
+
+        pendingWrites.incrementAndGet();
+        writer.execute(() -> {
+            try {
+                lifecycle.writeAttachment(source, new ByteArrayInputStream(content));
+            } catch (Exception e) {
+                logger.warn("Failed to write Allure attachment {}: {}", name, e.getMessage());
+            } finally {
+                pendingWrites.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Waits until every queued attachment has been written.
+     */
+    public static void flush() {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (pendingWrites.get() > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (pendingWrites.get() > 0) {
+            logger.warn("{} Allure attachments were still pending after flush", pendingWrites.get());
+        }
+    }
+
+    /**
+     * Flushes pending attachments and logs how many files and bytes the run produced
+     * in the Allure results directory.
+     *
+     * @param runStartMillis Start of the run; older files from previous runs are not counted
+     */
+    public static void logResultsFootprint(long runStartMillis) {
+        flush();
+
+        Path resultsDir = Paths.get(PropertiesUtils.loadAllureProperties()
+            .getProperty("allure.results.directory", "allure-results"));
+        if (!Files.isDirectory(resultsDir)) {
+            return;
+        }
+
+        long[] results = new long[2];
+        long[] attachments = new long[2];
+        try (Stream<Path> files = Files.list(resultsDir)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < runStartMillis) {
+                        return;
+                    }
+                    long[] bucket = file.getFileName().toString().contains("-attachment") ? attachments : results;
+                    bucket[0]++;
+                    bucket[1] += Files.size(file);
+                } catch (IOException e) {
+                    logger.debug("Could not stat {}", file);
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("Could not scan Allure results directory {}: {}", resultsDir, e.getMessage());
+            return;
+        }
+
+        logger.info("Allure results: {} files, {} KB ({} result/container files, {} KB; {} attachments, {} KB)",
+            results[0] + attachments[0], (results[1] + attachments[1]) / 1024,
+            results[0], results[1] / 1024, attachments[0], attachments[1] / 1024);
+        logger.debug("Attachments queued through AllureReporter: {} ({} KB)",
+            attachmentCount.get(), attachmentBytes.get() / 1024);
+    }
+}
@@ -75,7 +75,7 @@ public class ConfigReader {
      * Gets property value by key.
      */
     public String getProperty(String key) {
-        String value = properties.getProperty(key);
+        String value = lookup(key);
         if (value == null) {
             logger.warn("Property '{}' not found", key);
         }
@@ -86,14 +86,15 @@ public class ConfigReader {
      * Gets property value with default.
      */
     public String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        String value = lookup(key);
+        return value != null ? value : defaultValue;
     }
     
     /**
      * Gets integer property value.
      */
     public int getIntProperty(String key, int defaultValue) {
-        String value = properties.getProperty(key);
+        String value = lookup(key);
         if (value != null) {
             try {
                 return Integer.parseInt(value);
@@ -108,13 +109,20 @@ public class ConfigReader {
      * Gets boolean property value.
      */
     public boolean getBooleanProperty(String key, boolean defaultValue) {
-        String value = properties.getProperty(key);
+        String value = lookup(key);
         if (value != null) {
             return Boolean.parseBoolean(value);
         }
         return defaultValue;
     }
     
+    /**
+     * Resolves a property, letting system properties (-Dkey=value) override the file.
+     */
+    private String lookup(String key) {
+        return System.getProperty(key, properties.getProperty(key));
+    }
+    
     /**
      * Gets all properties.
      */
@@ -0,0 +1,126 @@
+package com.apple.automation.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Measures memory used by browser and driver processes started by this JVM.
+ * Uses proportional set size (PSS) where available so pages shared between
+ * browser processes are not counted twice. Linux only; other platforms report -1.
+ */
+public class ProcessMemory {
+
+    private static final Logger logger = LogManager.getLogger(ProcessMemory.class);
+    private static final Path PROC = Paths.get("/proc");
+
+    private ProcessMemory() {
+    }
+
+    /**
+     * Snapshot of memory used by child processes, in kilobytes.
+     */
+    public static class Usage {
+        private final long browserKb;
+        private final long driverKb;
+        private final int browserProcesses;
+
+        Usage(long browserKb, long driverKb, int browserProcesses) {
+            this.browserKb = browserKb;
+            this.driverKb = driverKb;
+            this.browserProcesses = browserProcesses;
+        }
+
+        public long getBrowserKb() {
+            return browserKb;
+        }
+
+        public long getDriverKb() {
+            return driverKb;
+        }
+
+        public long getTotalKb() {
+            return browserKb < 0 ? -1 : browserKb + driverKb;
+        }
+
+        public int getBrowserProcesses() {
+            return browserProcesses;
+        }
+
+        /**
+         * Formats the snapshot, including the per-session share of the total.
+         */
+        public String describe(int sessions) {
+            if (browserKb < 0) {
+                return "memory usage unavailable on this platform";
+            }
+            return String.format("browser %d MB in %d processes, drivers %d MB, %d sessions, %.1f MB/session",
+                browserKb / 1024, browserProcesses, driverKb / 1024, sessions,
+                sessions == 0 ? 0.0 : getTotalKb() / 1024.0 / sessions);
+        }
+    }
+
+    /**
+     * Measures all descendant processes of the current JVM.
+     */
+    public static Usage measure() {
+        if (!Files.isDirectory(PROC)) {
+            return new Usage(-1, -1, 0);
+        }
+
+        long browserKb = 0;
+        long driverKb = 0;
+        int browserProcesses = 0;
+
+        for (ProcessHandle process : (Iterable<ProcessHandle>) ProcessHandle.current().descendants()::iterator) {
+            String command = process.info().command().orElse("");
+            long kb = memoryKb(process.pid());
+            if (kb <= 0) {
+                continue;
+            }
+            if (command.contains("driver")) {
+                driverKb += kb;
+            } else {
+                browserKb += kb;
+                browserProcesses++;
+            }
+        }
+
+        return new Usage(browserKb, driverKb, browserProcesses);
+    }
+
+    /**
+     * Reads PSS from smaps_rollup, falling back to VmRSS.
+     */
+    private static long memoryKb(long pid) {
+        Path dir = PROC.resolve(String.valueOf(pid));
+        try {
+            Path rollup = dir.resolve("smaps_rollup");
+            if (Files.isReadable(rollup)) {
+                long pss = readField(Files.readAllLines(rollup), "Pss:");
+                if (pss >= 0) {
+                    return pss;
+                }
+            }
+            return readField(Files.readAllLines(dir.resolve("status")), "VmRSS:");
+        } catch (IOException | SecurityException e) {
+            logger.debug("Cannot read memory of process {}: {}", pid, e.getMessage());
+            return -1;
+        }
+    }
+
+    private static long readField(List<String> lines, String field) {
+        for (String line : lines) {
+            if (line.startsWith(field)) {
+                String[] parts = line.substring(field.length()).trim().split("\\s+");
+                return Long.parseLong(parts[0]);
+            }
+        }
+        return -1;
+    }
+}
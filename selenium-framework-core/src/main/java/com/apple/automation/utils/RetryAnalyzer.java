@@ -1,5 +1,6 @@
 package com.apple.automation.utils;
 
+import com.apple.automation.core.CircuitBreaker;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.testng.IRetryAnalyzer;
@@ -22,6 +23,12 @@ public class RetryAnalyzer implements IRetryAnalyzer {
     
     @Override
     public boolean retry(ITestResult result) {
+        // A retry cannot pass while the environment is down
+        if (CircuitBreaker.isOpen()) {
+            logger.warn("Not retrying test '{}': environment circuit breaker is open", result.getName());
+            return false;
+        }
+        
         if (retryCount < maxRetryCount) {
             retryCount++;
             logger.warn("Retrying test '{}' - Attempt {} of {}", 
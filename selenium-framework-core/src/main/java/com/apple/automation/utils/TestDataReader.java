@@ -0,0 +1,331 @@
+package com.apple.automation.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonInput;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams data provider rows from CSV or JSON files.
+ * Rows are read lazily, so large data sets are never materialized in memory.
+ */
+public class TestDataReader {
+
+    private static final Logger logger = LogManager.getLogger(TestDataReader.class);
+
+    private TestDataReader() {
+    }
+
+    /**
+     * Returns a lazy iterator of rows converted to the parameter types of the test method.
+     * CSV files must start with a header line; JSON files must contain a top-level array
+     * of arrays or objects. Object rows, and CSV columns whose header names are the parameter
+     * names, are matched to parameters by name, which needs the test classes compiled with
+     * {@code -parameters} (set in the parent pom). CSV files with other headers are matched
+     * by position.
+     *
+     * @param location Classpath resource or file system path
+     * @param method Test method the rows are provided for
+     * @return Iterator suitable for a TestNG data provider
+     */
+    public static Iterator<Object[]> rows(String location, Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Reader reader = open(location);
+        logger.debug("Streaming test data from {} for {}", location, method.getName());
+
+        if (location.toLowerCase().endsWith(".json")) {
+            return new JsonRowIterator(reader, method);
+        }
+        return new CsvRowIterator(reader, method);
+    }
+
+    /**
+     * Opens the data file from classpath first, then from the file system.
+     */
+    private static Reader open(String location) {
+        InputStream inputStream = TestDataReader.class.getClassLoader().getResourceAsStream(location);
+
+        try {
+            if (inputStream == null) {
+                Path path = Paths.get(location);
+                if (!Files.exists(path)) {
+                    path = Paths.get("src/test/resources", location);
+                }
+                inputStream = Files.newInputStream(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open test data: " + location, e);
+        }
+
+        return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Converts raw values to the declared parameter types.
+     */
+    private static Object[] convert(List<?> values, Class<?>[] types) {
+        if (values.size() != types.length) {
+            throw new IllegalArgumentException(String.format(
+                "Test data row has %d values but method expects %d: %s", values.size(), types.length, values));
+        }
+
+        Object[] row = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            row[i] = convert(values.get(i), types[i]);
+        }
+        return row;
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+
+        String text = String.valueOf(value).trim();
+        if (type == int.class || type == Integer.class) {
+            return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(text);
+        }
+        if (type == long.class || type == Long.class) {
+            return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(text);
+        }
+        if (type == double.class || type == Double.class) {
+            return value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(text);
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return Boolean.parseBoolean(text);
+        }
+        if (type == String.class) {
+            return text;
+        }
+        throw new IllegalArgumentException("Unsupported test data parameter type: " + type.getName());
+    }
+
+    private static void closeQuietly(Reader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close test data reader", e);
+        }
+    }
+
+    /**
+     * Reads one CSV record per line. Supports double-quoted values with escaped quotes.
+     */
+    private static class CsvRowIterator implements Iterator<Object[]> {
+
+        private final BufferedReader reader;
+        private final Method method;
+        private final Class<?>[] types;
+        private String nextLine;
+        private List<String> header;
+        // Column of each parameter, or null to take columns in order
+        private int[] columns;
+
+        CsvRowIterator(Reader reader, Method method) {
+            this.reader = (BufferedReader) reader;
+            this.method = method;
+            this.types = method.getParameterTypes();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextLine != null) {
+                return true;
+            }
+
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank() || line.startsWith("#")) {
+                        continue;
+                    }
+                    if (header == null) {
+                        header = parseLine(line);
+                        columns = columnsByName(header);
+                        continue;
+                    }
+                    nextLine = line;
+                    return true;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read CSV test data", e);
+            }
+
+            closeQuietly(reader);
+            return false;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String line = nextLine;
+            nextLine = null;
+            List<String> values = parseLine(line);
+            if (columns == null) {
+                return convert(values, types);
+            }
+            if (values.size() != header.size()) {
+                throw new IllegalArgumentException(String.format(
+                    "Test data row has %d values but the header has %d: %s", values.size(), header.size(), values));
+            }
+            List<String> ordered = new ArrayList<>();
+            for (int column : columns) {
+                ordered.add(values.get(column));
+            }
+            return convert(ordered, types);
+        }
+
+        /**
+         * Maps parameters to the columns named after them, when the header names exactly the
+         * method's parameters. Returns null for positional rows otherwise.
+         */
+        private int[] columnsByName(List<String> names) {
+            Parameter[] parameters = method.getParameters();
+            List<String> trimmed = new ArrayList<>();
+            for (String name : names) {
+                trimmed.add(name.trim());
+            }
+            if (trimmed.size() != parameters.length) {
+                return null;
+            }
+            int[] mapping = new int[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                mapping[i] = parameters[i].isNamePresent() ? trimmed.indexOf(parameters[i].getName()) : -1;
+                if (mapping[i] < 0) {
+                    logger.debug("CSV header {} does not name the parameters of {}; matching columns by position",
+                        trimmed, method.getName());
+                    return null;
+                }
+            }
+            return mapping;
+        }
+
+        private List<String> parseLine(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            values.add(current.toString());
+            return values;
+        }
+    }
+
+    /**
+     * Reads one element of the top-level JSON array at a time.
+     */
+    private static class JsonRowIterator implements Iterator<Object[]> {
+
+        private final Reader reader;
+        private final JsonInput input;
+        private final Method method;
+        private final Class<?>[] types;
+        private boolean finished;
+
+        JsonRowIterator(Reader reader, Method method) {
+            this.reader = reader;
+            this.input = new Json().newInput(reader);
+            this.method = method;
+            this.types = method.getParameterTypes();
+            this.input.beginArray();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (finished) {
+                return false;
+            }
+            if (input.hasNext()) {
+                return true;
+            }
+
+            finished = true;
+            input.endArray();
+            input.close();
+            closeQuietly(reader);
+            return false;
+        }
+
+        @Override
+        public Object[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Object element = input.read(Object.class);
+            if (element instanceof Map) {
+                return convert(byParameterName((Map<?, ?>) element), types);
+            }
+            if (element instanceof Collection) {
+                return convert(new ArrayList<>((Collection<?>) element), types);
+            }
+            return convert(List.of(element), types);
+        }
+
+        /**
+         * Values of an object row in parameter order, whatever the key order in the file.
+         */
+        private List<Object> byParameterName(Map<?, ?> row) {
+            Parameter[] parameters = method.getParameters();
+            List<Object> values = new ArrayList<>();
+            for (Parameter parameter : parameters) {
+                if (!parameter.isNamePresent()) {
+                    throw new IllegalStateException(String.format(
+                        "Object rows need parameter names; compile %s with -parameters or use array rows",
+                        method.getDeclaringClass().getName()));
+                }
+                if (!row.containsKey(parameter.getName())) {
+                    throw new IllegalArgumentException(String.format(
+                        "Test data row has no '%s' for %s: %s", parameter.getName(), method.getName(), row));
+                }
+                values.add(row.get(parameter.getName()));
+            }
+            if (row.size() != parameters.length) {
+                throw new IllegalArgumentException(String.format(
+                    "Test data row has %d values but %s expects %d: %s",
+                    row.size(), method.getName(), parameters.length, row));
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.apple.automation.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Which project classes and locators each test exercises, recorded while tests run and
+ * kept in {@code impact.map.file} for selecting tests by changed files
+ * ({@link com.apple.automation.listeners.TestImpactSelector}).
+ *
+ * <p>While a test runs, every WebDriver command records the classes on the calling stack
+ * that belong to the project under test (loaded from a class directory other than this
+ * framework's, so page objects, helpers and the test class but no library or framework
+ * code) and the locators it sends, from find commands and from the locator arguments of
+ * batched scripts. Entries of tests that ran are replaced when the suite finishes; entries
+ * of tests that did not run are kept.</p>
+ */
+public final class TestImpactMap {
+
+    private static final Logger logger = LogManager.getLogger(TestImpactMap.class);
+    private static final Json JSON = new Json();
+    private static final ThreadLocal<Entry> current = new ThreadLocal<>();
+    private static final Map<String, Entry> recorded = new ConcurrentHashMap<>();
+
+    private static final StackWalker STACK = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final URL FRAMEWORK_LOCATION = location(TestImpactMap.class);
+
+    // Classes compiled from the project's own sources, as opposed to libraries and this framework
+    private static final ClassValue<Boolean> PROJECT_CLASS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            URL location = location(type);
+            return location != null && "file".equals(location.getProtocol())
+                && location.getPath().endsWith("/") && !location.equals(FRAMEWORK_LOCATION);
+        }
+    };
+
+    private TestImpactMap() {
+    }
+
+    public static boolean isEnabled() {
+        return ConfigReader.getInstance().getBooleanProperty("impact.record", true);
+    }
+
+    /**
+     * Starts recording for a test method of a test class, keyed {@code <test class>#<method>}.
+     */
+    public static void startTest(Class<?> testClass, String method) {
+        if (isEnabled()) {
+            Entry entry = recorded.computeIfAbsent(testKey(testClass.getName(), method), key -> new Entry());
+            entry.classes.add(topLevelName(testClass));
+            current.set(entry);
+        }
+    }
+
+    public static String testKey(String testClass, String method) {
+        return testClass + "#" + method;
+    }
+
+    public static void finishTest() {
+        current.remove();
+    }
+
+    /**
+     * Client filter that records the calling test's classes and locators for every command.
+     */
+    public static Filter commandRecorder() {
+        return next -> request -> {
+            Entry entry = current.get();
+            if (entry != null) {
+                STACK.forEach(frame -> {
+                    if (PROJECT_CLASS.get(frame.getDeclaringClass())) {
+                        entry.classes.add(topLevelName(frame.getDeclaringClass()));
+                    }
+                });
+                if (request.getMethod() == HttpMethod.POST) {
+                    recordLocators(entry, request);
+                }
+            }
+            return next.execute(request);
+        };
+    }
+
+    private static void recordLocators(Entry entry, HttpRequest request) {
+        String uri = request.getUri();
+        boolean find = uri.endsWith("/element") || uri.endsWith("/elements");
+        if (!find && !uri.contains("/execute/")) {
+            return;
+        }
+        byte[] body = Contents.bytes(request.getContent());
+        request.setContent(Contents.bytes(body));
+        try {
+            Object payload = JSON.toType(new String(body, StandardCharsets.UTF_8), Object.class);
+            collectLocators(find ? payload : ((Map<?, ?>) payload).get("args"), entry.locators);
+        } catch (JsonException | ClassCastException e) {
+            logger.debug("Cannot read locators of {}: {}", uri, e.getMessage());
+        }
+    }
+
+    /**
+     * Locator maps ({@code using}/{@code value}) anywhere in a find body or script arguments.
+     */
+    private static void collectLocators(Object value, Set<String> locators) {
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            if (map.get("using") instanceof String && map.get("value") instanceof String) {
+                locators.add(map.get("using") + ": " + map.get("value"));
+                return;
+            }
+            map.values().forEach(nested -> collectLocators(nested, locators));
+        } else if (value instanceof Collection) {
+            ((Collection<?>) value).forEach(nested -> collectLocators(nested, locators));
+        }
+    }
+
+    /**
+     * Merges the tests recorded in this run into the map file.
+     */
+    public static synchronized void save() {
+        if (recorded.isEmpty()) {
+            return;
+        }
+        Map<String, Object> tests = new TreeMap<>();
+        load().forEach((test, entry) -> tests.put(test, entry.toJson(null)));
+        String now = Instant.now().toString();
+        recorded.forEach((test, entry) -> tests.put(test, entry.toJson(now)));
+
+        Path file = file();
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "impact", ".json");
+            Files.writeString(temp, JSON.toJson(Map.of("tests", tests)), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Test impact map updated for {} tests: {}", recorded.size(), file.toAbsolutePath());
+        } catch (IOException e) {
+            logger.warn("Failed to write test impact map {}: {}", file, e.getMessage());
+        }
+        recorded.clear();
+    }
+
+    /**
+     * Entries by test key; empty if no map has been recorded yet.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Entry> load() {
+        Path file = file();
+        if (!Files.exists(file)) {
+            return Collections.emptyMap();
+        }
+        try {
+            Map<String, Object> json = JSON.toType(Files.readString(file, StandardCharsets.UTF_8), Map.class);
+            Map<String, Entry> entries = new TreeMap<>();
+            ((Map<String, Map<String, Object>>) json.get("tests")).forEach((test, value) -> {
+                Entry entry = new Entry();
+                entry.classes.addAll((List<String>) value.get("classes"));
+                entry.locators.addAll((List<String>) value.get("locators"));
+                entry.recordedAt = (String) value.get("recorded");
+                entries.put(test, entry);
+            });
+            return entries;
+        } catch (IOException | JsonException | ClassCastException | NullPointerException e) {
+            logger.warn("Ignoring unreadable test impact map {}: {}", file, e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    public static Path file() {
+        return Paths.get(ConfigReader.getInstance().getProperty("impact.map.file", "target/test-impact/map.json"));
+    }
+
+    private static String topLevelName(Class<?> type) {
+        String name = type.getName();
+        int nested = name.indexOf('$');
+        return nested < 0 ? name : name.substring(0, nested);
+    }
+
+    private static URL location(Class<?> type) {
+        CodeSource source = type.getProtectionDomain().getCodeSource();
+        return source == null ? null : source.getLocation();
+    }
+
+    /**
+     * Classes and locators one test method exercised, over all its invocations.
+     */
+    public static final class Entry {
+        private final Set<String> classes = ConcurrentHashMap.newKeySet();
+        private final Set<String> locators = ConcurrentHashMap.newKeySet();
+        private String recordedAt;
+
+        /**
+         * Top-level names of the project classes the test ran code of, the test class included.
+         */
+        public Set<String> getClasses() {
+            return Collections.unmodifiableSet(classes);
+        }
+
+        /**
+         * Locators as sent to the browser, e.g. {@code css selector: .rs-bag}.
+         */
+        public Set<String> getLocators() {
+            return Collections.unmodifiableSet(locators);
+        }
+
+        private Map<String, Object> toJson(String now) {
+            return Map.of(
+                "classes", new TreeSet<>(classes),
+                "locators", new TreeSet<>(locators),
+                "recorded", now != null ? now : String.valueOf(recordedAt));
+        }
+
+        @Override
+        public String toString() {
+            return classes.stream().sorted().collect(Collectors.joining(", "));
+        }
+    }
+}
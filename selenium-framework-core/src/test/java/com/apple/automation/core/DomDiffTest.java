@@ -0,0 +1,144 @@
+package com.apple.automation.core;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.apple.automation.core.DomTrees.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Pairing of children and reported changes between hand-built snapshot trees.
+ */
+public class DomDiffTest {
+
+    private static DomNode list(String... items) {
+        List<Object> children = new ArrayList<>();
+        for (String item : items) {
+            children.add(el("li", item));
+        }
+        return tree(attr(el("ul", children.toArray()), "class", "items"));
+    }
+
+    private static List<String> describe(DomDiff diff) {
+        List<String> changes = new ArrayList<>();
+        for (DomDiff.Change change : diff.getChanges()) {
+            changes.add(change.getType() + " " + change.getNode().getText()
+                + (change.getBefore() == null ? "" : ": " + change.getBefore() + " -> " + change.getAfter()));
+        }
+        return changes;
+    }
+
+    @Test
+    public void identicalTreesHaveNoChanges() {
+        DomDiff diff = DomDiff.between(list("A", "B"), list("A", "B"));
+
+        assertThat(diff.isEmpty()).isTrue();
+        assertThat(diff).hasToString("No changes");
+    }
+
+    @Test
+    public void insertionBeforeUnkeyedItemsIsOneAddition() {
+        // Pairing by position would report three text changes and an addition at the end
+        DomDiff diff = DomDiff.between(list("A", "B", "C"), list("X", "A", "B", "C"));
+
+        assertThat(describe(diff)).containsExactly("ADDED X");
+        assertThat(diff.getChanges().get(0).getNode().getPath()).isEqualTo("ul.items > li:nth-of-type(1)");
+    }
+
+    @Test
+    public void removalFromTheMiddleIsOneRemoval() {
+        DomDiff diff = DomDiff.between(list("A", "B", "C", "D"), list("A", "C", "D"));
+
+        assertThat(describe(diff)).containsExactly("REMOVED B");
+    }
+
+    @Test
+    public void changedItemIsPairedByTagBetweenUnchangedOnes() {
+        DomDiff diff = DomDiff.between(list("A", "B", "C"), list("A", "B2", "C"));
+
+        assertThat(describe(diff)).containsExactly("TEXT B2: B -> B2");
+    }
+
+    @Test
+    public void replacedItemIsPairedByTagAndExtraItemAdded() {
+        DomDiff diff = DomDiff.between(list("A", "B"), list("A", "X", "Y"));
+
+        assertThat(describe(diff)).containsExactly("TEXT X: B -> X", "ADDED Y");
+    }
+
+    @Test
+    public void unpairedTagsAreRemovedAndAdded() {
+        DomNode before = tree(el("div", el("p", "A"), el("section", "Old")));
+        DomNode after = tree(el("div", el("p", "A"), el("aside", "New")));
+
+        assertThat(DomDiff.between(before, after).getChanges())
+            .extracting(change -> change.getType() + " " + change.getNode().getTag())
+            .containsExactly("REMOVED section", "ADDED aside");
+    }
+
+    @Test
+    public void keyedChildrenArePairedAcrossReordering() {
+        DomNode before = tree(el("ul",
+            attr(el("li", "iPhone"), "data-autom", "iphone", "class", "item"),
+            attr(el("li", "AirPods"), "data-autom", "airpods", "class", "item")));
+        DomNode after = tree(el("ul",
+            attr(el("li", "AirPods"), "data-autom", "airpods", "class", "item"),
+            attr(el("li", "iPhone"), "data-autom", "iphone", "class", "item selected")));
+
+        DomDiff diff = DomDiff.between(before, after);
+
+        assertThat(diff.getChanges()).hasSize(1);
+        DomDiff.Change change = diff.getChanges().get(0);
+        assertThat(change.getType()).isEqualTo(DomDiff.Type.ATTRIBUTE);
+        assertThat(change.getName()).isEqualTo("class");
+        assertThat(change.getBefore()).isEqualTo("item");
+        assertThat(change.getAfter()).isEqualTo("item selected");
+        assertThat(change.getNode().getIndex()).isEqualTo(1);
+    }
+
+    @Test
+    public void keyedChildWithNewKeyIsAnAddition() {
+        DomNode before = tree(el("form", attr(el("input"), "name", "email")));
+        DomNode after = tree(el("form", attr(el("input"), "name", "email"), attr(el("input"), "name", "phone")));
+
+        assertThat(DomDiff.between(before, after).getChanges(DomDiff.Type.ADDED))
+            .extracting(change -> change.getNode().getAttribute("name"))
+            .containsExactly("phone");
+    }
+
+    @Test
+    public void reportsPropertyAndVisibilityChanges() {
+        DomNode before = tree(el("form",
+            prop(attr(el("input"), "name", "quantity"), "value", "1"),
+            attr(el("p", "Saved"), "class", "status")));
+        DomNode after = tree(el("form",
+            prop(attr(el("input"), "name", "quantity"), "value", "2"),
+            hidden(attr(el("p", "Saved"), "class", "status"))));
+
+        DomDiff diff = DomDiff.between(before, after);
+
+        assertThat(diff.getChanges(DomDiff.Type.PROPERTY)).singleElement()
+            .satisfies(change -> {
+                assertThat(change.getName()).isEqualTo("value");
+                assertThat(change.getAfter()).isEqualTo("2");
+            });
+        assertThat(diff.getChanges(DomDiff.Type.VISIBILITY)).singleElement()
+            .satisfies(change -> assertThat(change.getAfter()).isEqualTo(false));
+        assertThat(diff.getChanges(".status")).hasSize(1);
+        assertThat(diff.getChanges("input[name=quantity]")).hasSize(1);
+    }
+
+    @Test
+    public void differentRootsAreReplaced() {
+        Map<String, Object> root = attr(el("div", "A"), "id", "bag");
+
+        DomDiff diff = DomDiff.between(tree(root), tree(attr(el("div", "A"), "id", "checkout")));
+
+        assertThat(diff.getChanges()).extracting(DomDiff.Change::getType)
+            .containsExactly(DomDiff.Type.REMOVED, DomDiff.Type.ADDED);
+        assertThat(diff.toString()).isEqualTo("REMOVED div#bag\nADDED div#checkout");
+    }
+}
@@ -0,0 +1,147 @@
+package com.apple.automation.core;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.apple.automation.core.DomTrees.*;
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * CSS selector matching against hand-built snapshot trees.
+ */
+public class DomSelectorTest {
+
+    private final DomNode bag = tree(attr(el("div",
+        attr(el("h2", "Your bag"), "class", "rs-bag-header"),
+        attr(el("ul",
+            attr(el("li", attr(el("span", "iPhone 16"), "class", "name"), " ", attr(el("span", "$799"), "class", "price")),
+                "class", "rs-bag-item first", "data-autom", "bag-item-iphone", "lang", "en-US"),
+            attr(el("li", attr(el("span", "AirPods"), "class", "name")),
+                "class", "rs-bag-item", "data-autom", "bag-item-airpods", "lang", "en"),
+            attr(hidden(el("li", attr(hidden(el("span", "Case")), "class", "name"))),
+                "class", "rs-bag-item removed", "data-autom", "bag-item-case", "lang", "fr"),
+            attr(el("li", "Gift wrap"), "class", "rs-bag-option"),
+            attr(el("li"), "class", "rs-bag-option placeholder")),
+            "class", "rs-bag-items"),
+        attr(el("form",
+            prop(prop(attr(el("input"), "type", "checkbox", "name", "gift"), "checked", true), "disabled", false),
+            prop(attr(el("input"), "type", "text", "name", "promo"), "disabled", true)),
+            "id", "checkout")),
+        "class", "rs-bag"));
+
+    private List<String> texts(String selector) {
+        List<String> texts = new ArrayList<>();
+        for (DomNode node : bag.query(selector)) {
+            texts.add(node.getText());
+        }
+        return texts;
+    }
+
+    @Test
+    public void matchesTypeClassAndId() {
+        assertThat(bag.query("li")).hasSize(5);
+        assertThat(bag.query("li.rs-bag-item.first")).hasSize(1);
+        assertThat(bag.query("LI")).hasSize(5);
+        assertThat(bag.query("#checkout input")).hasSize(2);
+        assertThat(bag.query("*")).hasSize(14);
+        assertThat(bag.matches("div.rs-bag")).isTrue();
+    }
+
+    @Test
+    public void descendantAndChildCombinators() {
+        assertThat(texts("ul span.name")).containsExactly("iPhone 16", "AirPods", "");
+        assertThat(bag.query("div > span")).isEmpty();
+        assertThat(bag.query("div > ul > li > span")).hasSize(4);
+        assertThat(bag.query("div li > .price")).hasSize(1);
+    }
+
+    @Test
+    public void siblingCombinators() {
+        assertThat(texts("h2 + ul > li:first-child")).containsExactly("iPhone 16 $799");
+        assertThat(bag.query("h2 + form")).isEmpty();
+        assertThat(bag.query("h2 ~ form")).hasSize(1);
+        assertThat(texts(".rs-bag-item ~ .rs-bag-option")).containsExactly("Gift wrap", "");
+        assertThat(texts(".first + li")).containsExactly("AirPods");
+    }
+
+    @Test
+    public void selectorListsMatchInDocumentOrder() {
+        assertThat(bag.query(".price, h2")).extracting(DomNode::getText).containsExactly("Your bag", "$799");
+    }
+
+    @Test
+    public void notExcludesEveryAlternative() {
+        assertThat(bag.query("li:not(.rs-bag-option)")).hasSize(3);
+        assertThat(texts("li:not(.removed, .rs-bag-option)")).containsExactly("iPhone 16 $799", "AirPods");
+        assertThat(bag.query("li:not(ul > li)")).isEmpty();
+    }
+
+    @Test
+    public void nthChildWithStepAndOffset() {
+        assertThat(indexes("li:nth-child(2)")).containsExactly(2);
+        assertThat(indexes("li:nth-child(odd)")).containsExactly(1, 3, 5);
+        assertThat(indexes("li:nth-child(even)")).containsExactly(2, 4);
+        assertThat(indexes("li:nth-child(2n+1)")).containsExactly(1, 3, 5);
+        assertThat(indexes("li:nth-child(3n)")).containsExactly(3);
+        assertThat(indexes("li:nth-child(3n-1)")).containsExactly(2, 5);
+        assertThat(indexes("li:nth-child(n+4)")).containsExactly(4, 5);
+        assertThat(indexes("li:nth-child(-n+2)")).containsExactly(1, 2);
+        assertThat(indexes("li:nth-child( 2n + 3 )")).containsExactly(3, 5);
+        assertThat(indexes("li:nth-child(0n+0)")).isEmpty();
+    }
+
+    private List<Integer> indexes(String selector) {
+        List<Integer> indexes = new ArrayList<>();
+        for (DomNode node : bag.query(selector)) {
+            indexes.add(node.getIndex() + 1);
+        }
+        return indexes;
+    }
+
+    @Test
+    public void structuralPseudoClasses() {
+        assertThat(texts("li:last-child")).containsExactly("");
+        assertThat(bag.query("li:empty")).extracting(DomNode::getPath)
+            .containsExactly("div.rs-bag > ul.rs-bag-items > li.rs-bag-option:nth-of-type(5)");
+        assertThat(bag.query("li > span:only-child")).hasSize(2);
+    }
+
+    @Test
+    public void attributeOperators() {
+        assertThat(bag.query("[data-autom]")).hasSize(3);
+        assertThat(bag.query("[data-autom=bag-item-airpods]")).hasSize(1);
+        assertThat(bag.query("[data-autom='bag-item-airpods']")).hasSize(1);
+        assertThat(bag.query("[class~=rs-bag-item]")).hasSize(3);
+        assertThat(bag.query("[class~=rs-bag]")).isEmpty();
+        assertThat(bag.matches("[class~=rs-bag]")).isTrue();
+        assertThat(bag.query("[lang|=en]")).hasSize(2);
+        assertThat(bag.query("[data-autom^=\"bag-item-\"]")).hasSize(3);
+        assertThat(bag.query("[data-autom$=case]")).hasSize(1);
+        assertThat(bag.query("[class*=bag-opt]")).hasSize(2);
+        assertThat(bag.query("[data-autom^='']")).isEmpty();
+        assertThat(bag.query("[lang=EN i]")).hasSize(1);
+        assertThat(bag.query("[lang=EN]")).isEmpty();
+    }
+
+    @Test
+    public void formStateAndVisibility() {
+        assertThat(bag.query("input:checked")).extracting(node -> node.getAttribute("name")).containsExactly("gift");
+        assertThat(bag.query("input:disabled")).extracting(node -> node.getAttribute("name")).containsExactly("promo");
+        assertThat(bag.query("input:enabled")).extracting(node -> node.getAttribute("name")).containsExactly("gift");
+        assertThat(bag.query("li:hidden")).hasSize(1);
+        assertThat(bag.query(".rs-bag-item:visible")).hasSize(2);
+        assertThat(texts("li:contains(\"AirPods\")")).containsExactly("AirPods");
+    }
+
+    @Test
+    public void rejectsUnsupportedOrMalformedSelectors() {
+        assertThatIllegalArgumentException().isThrownBy(() -> DomSelector.parse("li:hover"));
+        assertThatIllegalArgumentException().isThrownBy(() -> DomSelector.parse("[lang!=en]"));
+        assertThatIllegalArgumentException().isThrownBy(() -> DomSelector.parse("li:nth-child(x)"));
+        assertThatIllegalArgumentException().isThrownBy(() -> DomSelector.parse("li >"));
+        assertThatIllegalArgumentException().isThrownBy(() -> DomSelector.parse("li:not(.a"));
+        assertThatIllegalArgumentException().isThrownBy(() -> DomSelector.parse("li)"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.apple.automation.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds {@link DomNode} trees in the form the snapshot script serializes them, without a browser.
+ */
+final class DomTrees {
+
+    private static final List<String> INLINE = Arrays.asList("a", "b", "span", "label", "input", "button");
+
+    private DomTrees() {
+    }
+
+    /**
+     * Root of a snapshot.
+     */
+    static DomNode tree(Map<String, Object> root) {
+        return new DomNode(root, null, 0);
+    }
+
+    /**
+     * Visible element with text segments and child elements as content.
+     */
+    static Map<String, Object> el(String tag, Object... content) {
+        Map<String, Object> node = new LinkedHashMap<>();
+        node.put("t", tag);
+        node.put("a", new LinkedHashMap<String, String>());
+        node.put("s", new LinkedHashMap<String, Object>());
+        node.put("c", new ArrayList<>(Arrays.asList(content)));
+        node.put("v", true);
+        node.put("b", !INLINE.contains(tag));
+        return node;
+    }
+
+    /**
+     * Adds attributes given as name, value pairs.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> attr(Map<String, Object> node, String... namesAndValues) {
+        Map<String, String> attributes = (Map<String, String>) node.get("a");
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            attributes.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return node;
+    }
+
+    /**
+     * Sets a form state property such as {@code value} or {@code checked}.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> prop(Map<String, Object> node, String name, Object value) {
+        ((Map<String, Object>) node.get("s")).put(name, value);
+        return node;
+    }
+
+    static Map<String, Object> hidden(Map<String, Object> node) {
+        node.put("v", false);
+        return node;
+    }
+}
@@ -0,0 +1,79 @@
+package com.apple.automation.listeners;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Test selection from changed files against a recorded impact map, without git.
+ */
+public class TestImpactSelectorTest {
+
+    private static final String PAGES = "selenium-apple-guide/src/main/java/com/apple/automation/pages/";
+
+    private Path map;
+
+    @BeforeClass
+    public void writeMap() throws IOException {
+        map = Files.createTempFile("impact", ".json");
+        Files.writeString(map, "{\"tests\": {"
+            + "\"t.AppleE2ETest#bag\": {\"classes\": [\"t.AppleE2ETest\", \"p.AppleBagPage\"],"
+            + " \"locators\": [\"css selector: .rs-bag\"], \"recorded\": \"2026-01-01T00:00:00Z\"},"
+            + "\"t.AppleE2ETest#search\": {\"classes\": [\"t.AppleE2ETest\", \"p.AppleSearchResultsPage\"],"
+            + " \"locators\": [], \"recorded\": \"2026-01-01T00:00:00Z\"}}}", StandardCharsets.UTF_8);
+        System.setProperty("impact.map.file", map.toString());
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteMap() throws IOException {
+        System.clearProperty("impact.map.file");
+        Files.deleteIfExists(map);
+    }
+
+    @Test
+    public void selectsTestsThatRanCodeOfChangedClass() {
+        TestImpactSelector.Selection selection = TestImpactSelector.select(null,
+            "selenium-apple-guide/src/main/java/p/AppleBagPage.java");
+
+        assertThat(selection.runAll).isFalse();
+        assertThat(selection.affected).containsExactly("t.AppleE2ETest#bag");
+    }
+
+    @Test
+    public void runsAllWhenNoRecordedTestRanCodeOfChangedClass() {
+        // e.g. a URL builder or test data class only called outside WebDriver commands
+        TestImpactSelector.Selection selection = TestImpactSelector.select(null,
+            "selenium-apple-guide/src/main/java/p/AppleBagPage.java," + PAGES + "SearchUrls.java");
+
+        assertThat(selection.runAll).isTrue();
+        assertThat(selection.reason).contains("com.apple.automation.pages.SearchUrls");
+    }
+
+    @Test
+    public void runsAllForFrameworkChanges() {
+        TestImpactSelector.Selection selection = TestImpactSelector.select(null,
+            "selenium-framework-core/src/main/java/com/apple/automation/core/BasePage.java");
+
+        assertThat(selection.runAll).isTrue();
+    }
+
+    @Test
+    public void runsAllForNonJavaChanges() {
+        assertThat(TestImpactSelector.select(null, "selenium-apple-guide/testdata/terms.csv").runAll).isTrue();
+    }
+
+    @Test
+    public void skipsIgnoredPaths() {
+        TestImpactSelector.Selection selection = TestImpactSelector.select(null, "README.md,docs/guide.html");
+
+        assertThat(selection.runAll).isFalse();
+        assertThat(selection.affected).isEmpty();
+    }
+}
@@ -0,0 +1,57 @@
+package com.apple.automation.performance;
+
+import com.apple.automation.core.ListLocator;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Which locators of a page count as list locators: marked {@code By} constants and {@code List} fields.
+ */
+public class LocatorAnalyzerTest {
+
+    @SuppressWarnings("unused")
+    static class SamplePage {
+        @ListLocator
+        private static final By RESULTS = By.cssSelector(".result");
+        private static final By SETTINGS = By.id("settings");
+        private static final By UNUSED_ITEMS = By.cssSelector(".unused");
+        private final By instanceLocator = By.id("ignored");
+
+        @FindBy(css = ".item")
+        List<WebElement> items;
+
+        @FindBy(id = "title")
+        WebElement title;
+    }
+
+    @Test
+    public void collectsByConstantsAndFindByFields() {
+        assertThat(LocatorAnalyzer.locators(SamplePage.class))
+            .containsOnlyKeys("RESULTS", "SETTINGS", "UNUSED_ITEMS", "items", "title");
+    }
+
+    @Test
+    public void byConstantsAreListsWhenMarked() {
+        Map<String, LocatorAnalyzer.LocatorField> locators = LocatorAnalyzer.locators(SamplePage.class);
+
+        assertThat(locators.get("RESULTS").isMultiple()).isTrue();
+        assertThat(locators.get("SETTINGS").isMultiple()).isFalse();
+        // Not a list just because the name ends in S
+        assertThat(locators.get("UNUSED_ITEMS").isMultiple()).isFalse();
+    }
+
+    @Test
+    public void findByFieldsAreListsByType() {
+        Map<String, LocatorAnalyzer.LocatorField> locators = LocatorAnalyzer.locators(SamplePage.class);
+
+        assertThat(locators.get("items").isMultiple()).isTrue();
+        assertThat(locators.get("title").isMultiple()).isFalse();
+    }
+}
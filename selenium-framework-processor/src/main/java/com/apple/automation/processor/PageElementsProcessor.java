@@ -0,0 +1,399 @@
+package com.apple.automation.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code <Page>_Elements} class next to every page object with {@code @FindBy},
+ * {@code @FindBys} or {@code @FindAll} fields.
+ *
+ * <p>The generated class holds the page's locators as {@code By} constants and assigns each
+ * annotated field a lazy element (or element list) that looks the locator up on every call,
+ * which is what {@code PageFactory.initElements} does with reflection and dynamic proxies at
+ * runtime. BasePage binds pages through the generated class, so constructing a page only
+ * allocates the lazy elements.</p>
+ *
+ * <p>Locators follow Selenium's rules for these annotations, including {@code how}/{@code using},
+ * {@code @CacheLookup} and the errors for conflicting strategies, which are reported at compile
+ * time instead of on first construction. Fields must not be static or final, must be
+ * {@code WebElement} or {@code List<WebElement>}, and the page class must not be private.
+ * A class with a private annotated field gets a warning and no generated class, so it is
+ * bound with {@code PageFactory} at runtime as before.</p>
+ */
+@SupportedAnnotationTypes({
+    PageElementsProcessor.FIND_BY,
+    PageElementsProcessor.FIND_BYS,
+    PageElementsProcessor.FIND_ALL
+})
+public class PageElementsProcessor extends AbstractProcessor {
+
+    static final String FIND_BY = "org.openqa.selenium.support.FindBy";
+    static final String FIND_BYS = "org.openqa.selenium.support.FindBys";
+    static final String FIND_ALL = "org.openqa.selenium.support.FindAll";
+    private static final String CACHE_LOOKUP = "org.openqa.selenium.support.CacheLookup";
+    private static final String WEB_ELEMENT = "org.openqa.selenium.WebElement";
+
+    static final String SUFFIX = "_Elements";
+
+    // @FindBy attributes in the order Selenium checks them
+    private static final String[] STRATEGIES = {
+        "id", "name", "className", "css", "tagName", "linkText", "partialLinkText", "xpath"
+    };
+
+    private Elements elements;
+    private Types types;
+    private Messager messager;
+    private Filer filer;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.messager = processingEnv.getMessager();
+        this.filer = processingEnv.getFiler();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<VariableElement>> pages = new LinkedHashMap<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.FIELD) {
+                    continue;
+                }
+                List<VariableElement> fields = pages.computeIfAbsent(
+                    (TypeElement) element.getEnclosingElement(), page -> new ArrayList<>());
+                if (!fields.contains(element)) {
+                    fields.add((VariableElement) element);
+                }
+            }
+        }
+
+        for (Map.Entry<TypeElement, List<VariableElement>> page : pages.entrySet()) {
+            // Declaration order, as in the source file
+            List<VariableElement> fields = new ArrayList<>();
+            for (Element member : page.getKey().getEnclosedElements()) {
+                if (page.getValue().contains(member)) {
+                    fields.add((VariableElement) member);
+                }
+            }
+            generate(page.getKey(), fields);
+        }
+        return false;
+    }
+
+    private void generate(TypeElement page, List<VariableElement> fields) {
+        boolean valid = checkAccessible(page);
+        boolean privateFields = false;
+        List<Binding> bindings = new ArrayList<>();
+        for (VariableElement field : fields) {
+            if (field.getModifiers().contains(Modifier.PRIVATE)) {
+                messager.printMessage(Diagnostic.Kind.WARNING, String.format(
+                    "@FindBy field %s is private; %s is bound with PageFactory instead of a generated %s class",
+                    field.getSimpleName(), page.getSimpleName(), binaryName(page) + SUFFIX), field);
+                privateFields = true;
+            }
+            Binding binding = binding(field);
+            if (binding == null) {
+                valid = false;
+            } else {
+                bindings.add(binding);
+            }
+        }
+        if (!valid || privateFields) {
+            return;
+        }
+
+        String packageName = elements.getPackageOf(page).getQualifiedName().toString();
+        String className = binaryName(page) + SUFFIX;
+        String pageName = page.getQualifiedName().toString();
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+
+        try (PrintWriter out = new PrintWriter(filer.createSourceFile(qualifiedName, page).openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("import com.apple.automation.core.LazyElement;");
+            out.println("import com.apple.automation.core.LazyElementList;");
+            out.println("import com.apple.automation.core.PageElements;");
+            out.println("import org.openqa.selenium.By;");
+            out.println("import org.openqa.selenium.SearchContext;");
+            out.println();
+            out.println("/**");
+            out.println(" * Locators and element binding of {@link " + pageName + "}.");
+            out.println(" */");
+            out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+            out.println("public final class " + className + " implements PageElements<" + pageName + "> {");
+            out.println();
+            for (Binding binding : bindings) {
+                out.println("    public static final By " + binding.constant + " = " + binding.locator + ";");
+            }
+            out.println();
+            out.println("    @Override");
+            out.println("    public void bind(" + pageName + " page, SearchContext context) {");
+            for (Binding binding : bindings) {
+                out.println("        page." + binding.field + " = new "
+                    + (binding.list ? "LazyElementList" : "LazyElement")
+                    + "(context, " + binding.constant + ", " + binding.cached + ");");
+            }
+            out.println("    }");
+            out.println("}");
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Cannot write " + qualifiedName + ": " + e.getMessage(), page);
+        }
+    }
+
+    /**
+     * Field assignment and locator expression for one annotated field, or null after reporting an error.
+     */
+    private Binding binding(VariableElement field) {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+            error(field, "@FindBy fields are assigned by the generated %s class and must not be static or final",
+                binaryName((TypeElement) field.getEnclosingElement()) + SUFFIX);
+            return null;
+        }
+
+        Boolean list = elementOrList(field.asType());
+        if (list == null) {
+            error(field, "@FindBy fields must be WebElement or List<WebElement>");
+            return null;
+        }
+
+        AnnotationMirror findBy = annotation(field, FIND_BY);
+        AnnotationMirror findBys = annotation(field, FIND_BYS);
+        AnnotationMirror findAll = annotation(field, FIND_ALL);
+        int count = (findBy != null ? 1 : 0) + (findBys != null ? 1 : 0) + (findAll != null ? 1 : 0);
+        if (count > 1) {
+            error(field, "If you use a '@FindBys' annotation, you must not also use a '@FindBy' or '@FindAll' annotation");
+            return null;
+        }
+
+        String locator;
+        if (findBy != null) {
+            locator = findBy(field, findBy);
+        } else {
+            AnnotationMirror composite = findBys != null ? findBys : findAll;
+            String type = findBys != null ? "org.openqa.selenium.support.pagefactory.ByChained"
+                : "org.openqa.selenium.support.pagefactory.ByAll";
+            List<String> parts = new ArrayList<>();
+            for (Object value : (List<?>) value(composite, "value").getValue()) {
+                String part = findBy(field, (AnnotationMirror) ((AnnotationValue) value).getValue());
+                if (part == null) {
+                    return null;
+                }
+                parts.add(part);
+            }
+            locator = "new " + type + "(" + String.join(", ", parts) + ")";
+        }
+        if (locator == null) {
+            return null;
+        }
+
+        String name = field.getSimpleName().toString();
+        return new Binding(name, constantName(name), locator, list, annotation(field, CACHE_LOOKUP) != null);
+    }
+
+    /**
+     * Locator expression for a {@code @FindBy}, following {@code FindBy.FindByBuilder}.
+     */
+    private String findBy(VariableElement field, AnnotationMirror findBy) {
+        String how = ((VariableElement) value(findBy, "how").getValue()).getSimpleName().toString();
+        String using = (String) value(findBy, "using").getValue();
+        if (!"UNSET".equals(how)) {
+            if (using.isEmpty()) {
+                error(field, "If you set the 'how' property, you must also set 'using'");
+                return null;
+            }
+            return locator(how, using);
+        }
+
+        String strategy = null;
+        String value = null;
+        for (String attribute : STRATEGIES) {
+            String candidate = (String) value(findBy, attribute).getValue();
+            if (candidate.isEmpty()) {
+                continue;
+            }
+            if (strategy != null) {
+                error(field, "You must specify at most one location strategy, found %s and %s",
+                    strategy, attribute);
+                return null;
+            }
+            strategy = attribute;
+            value = candidate;
+        }
+        if (strategy == null) {
+            error(field, "Cannot determine how to locate element %s", field.getSimpleName());
+            return null;
+        }
+        return locator(strategy, value);
+    }
+
+    private String locator(String strategy, String value) {
+        String literal = elements.getConstantExpression(value);
+        switch (strategy) {
+            case "ID":
+            case "id":
+                return "By.id(" + literal + ")";
+            case "NAME":
+            case "name":
+                return "By.name(" + literal + ")";
+            case "CLASS_NAME":
+            case "className":
+                return "By.className(" + literal + ")";
+            case "CSS":
+            case "css":
+                return "By.cssSelector(" + literal + ")";
+            case "TAG_NAME":
+            case "tagName":
+                return "By.tagName(" + literal + ")";
+            case "LINK_TEXT":
+            case "linkText":
+                return "By.linkText(" + literal + ")";
+            case "PARTIAL_LINK_TEXT":
+            case "partialLinkText":
+                return "By.partialLinkText(" + literal + ")";
+            case "XPATH":
+            case "xpath":
+                return "By.xpath(" + literal + ")";
+            case "ID_OR_NAME":
+                return "new org.openqa.selenium.support.ByIdOrName(" + literal + ")";
+            default:
+                throw new IllegalArgumentException("Unknown locator strategy: " + strategy);
+        }
+    }
+
+    /**
+     * True for {@code List<WebElement>}, false for {@code WebElement}, null for any other type.
+     */
+    private Boolean elementOrList(TypeMirror type) {
+        TypeElement webElement = elements.getTypeElement(WEB_ELEMENT);
+        if (webElement == null) {
+            return null;
+        }
+        if (types.isSameType(type, webElement.asType())) {
+            return false;
+        }
+        if (type instanceof DeclaredType) {
+            DeclaredType declared = (DeclaredType) type;
+            List<? extends TypeMirror> arguments = declared.getTypeArguments();
+            if (((TypeElement) declared.asElement()).getQualifiedName().contentEquals("java.util.List")
+                && arguments.size() == 1 && types.isSameType(arguments.get(0), webElement.asType())) {
+                return true;
+            }
+        }
+        return null;
+    }
+
+    private boolean checkAccessible(TypeElement page) {
+        if (page.getNestingKind().isNested() && !page.getModifiers().contains(Modifier.STATIC)) {
+            error(page, "Nested page classes with @FindBy fields must be static");
+            return false;
+        }
+        for (Element type = page; !(type instanceof PackageElement); type = type.getEnclosingElement()) {
+            if (type.getModifiers().contains(Modifier.PRIVATE)) {
+                error(page, "Page classes with @FindBy fields must not be private or nested in a private class");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private AnnotationMirror annotation(Element element, String type) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(type)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private AnnotationValue value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+            : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        throw new IllegalArgumentException("No attribute " + name + " on " + mirror);
+    }
+
+    private void error(Element element, String message, Object... args) {
+        messager.printMessage(Diagnostic.Kind.ERROR, String.format(message, args), element);
+    }
+
+    /**
+     * Class name within the package, with {@code $} between nested classes like the binary name,
+     * so the runtime can find the generated class from {@code Class.getName()}.
+     */
+    private static String binaryName(TypeElement type) {
+        String name = type.getSimpleName().toString();
+        Element enclosing = type.getEnclosingElement();
+        return enclosing instanceof TypeElement ? binaryName((TypeElement) enclosing) + "$" + name : name;
+    }
+
+    /**
+     * {@code itemNames} becomes {@code ITEM_NAMES}.
+     */
+    static String constantName(String field) {
+        StringBuilder constant = new StringBuilder();
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(field.charAt(i - 1))) {
+                constant.append('_');
+            }
+            constant.append(Character.toUpperCase(c));
+        }
+        return constant.toString();
+    }
+
+    private static final class Binding {
+        private final String field;
+        private final String constant;
+        private final String locator;
+        private final boolean list;
+        private final boolean cached;
+
+        private Binding(String field, String constant, String locator, boolean list, boolean cached) {
+            this.field = field;
+            this.constant = constant;
+            this.locator = locator;
+            this.list = list;
+            this.cached = cached;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.apple.automation.processor;
+
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+import org.openqa.selenium.support.FindBy;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Compiles page sources with the processor: the generated binders, and the errors reported
+ * for pages PageFactory would reject at runtime.
+ */
+public class PageElementsProcessorTest {
+
+    private static final String IMPORTS = "import org.openqa.selenium.WebElement;\n"
+        + "import org.openqa.selenium.support.*;\n"
+        + "import java.util.List;\n";
+
+    // Minimal stand-ins for the framework core classes the generated code uses
+    private static final String[] CORE = {
+        "com.apple.automation.core.PageElements",
+        "package com.apple.automation.core;\n"
+            + "public interface PageElements<T> { void bind(T page, org.openqa.selenium.SearchContext context); }",
+        "com.apple.automation.core.LazyElement",
+        "package com.apple.automation.core;\n"
+            + "public class LazyElement extends org.openqa.selenium.remote.RemoteWebElement {\n"
+            + "    public LazyElement(org.openqa.selenium.SearchContext context, org.openqa.selenium.By locator, boolean cached) {}\n"
+            + "}",
+        "com.apple.automation.core.LazyElementList",
+        "package com.apple.automation.core;\n"
+            + "public class LazyElementList extends java.util.AbstractList<org.openqa.selenium.WebElement> {\n"
+            + "    public LazyElementList(org.openqa.selenium.SearchContext context, org.openqa.selenium.By locator, boolean cached) {}\n"
+            + "    public org.openqa.selenium.WebElement get(int index) { throw new IndexOutOfBoundsException(); }\n"
+            + "    public int size() { return 0; }\n"
+            + "}"
+    };
+
+    private Path workDirectory;
+    private int compilations;
+
+    @BeforeClass
+    public void createWorkDirectory() throws IOException {
+        workDirectory = Files.createTempDirectory("page-elements");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteWorkDirectory() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void generatesLocatorsAndBindings() throws Exception {
+        Compilation compilation = compile(page("LoginPage",
+            "@FindBy(id = \"email\") WebElement email;\n"
+                + "@FindBy(css = \".item \\\"name\\\"\") List<WebElement> itemNames;\n"
+                + "@CacheLookup @FindBy(how = How.XPATH, using = \"//h1\") WebElement title;\n"
+                + "@FindBy(how = How.ID_OR_NAME, using = \"user\") WebElement user;\n"
+                + "@FindBys({@FindBy(id = \"results\"), @FindBy(tagName = \"li\")}) List<WebElement> rows;\n"
+                + "@FindAll({@FindBy(name = \"q\"), @FindBy(className = \"search\")}) WebElement search;\n"
+                + "WebElement unannotated;"));
+
+        assertThat(compilation.errors()).isEmpty();
+        assertThat(compilation.generated("pages/LoginPage_Elements.java")).contains(
+            "public final class LoginPage_Elements implements PageElements<pages.LoginPage> {",
+            "public static final By EMAIL = By.id(\"email\");",
+            "public static final By ITEM_NAMES = By.cssSelector(\".item \\\"name\\\"\");",
+            "public static final By TITLE = By.xpath(\"//h1\");",
+            "public static final By USER = new org.openqa.selenium.support.ByIdOrName(\"user\");",
+            "public static final By ROWS = new org.openqa.selenium.support.pagefactory.ByChained("
+                + "By.id(\"results\"), By.tagName(\"li\"));",
+            "public static final By SEARCH = new org.openqa.selenium.support.pagefactory.ByAll("
+                + "By.name(\"q\"), By.className(\"search\"));",
+            "page.email = new LazyElement(context, EMAIL, false);",
+            "page.itemNames = new LazyElementList(context, ITEM_NAMES, false);",
+            "page.title = new LazyElement(context, TITLE, true);")
+            .doesNotContain("UNANNOTATED");
+
+        // The generated class compiles and binds a page instance
+        try (URLClassLoader loader = compilation.classLoader()) {
+            Class<?> pageClass = loader.loadClass("pages.LoginPage");
+            Object page = pageClass.getDeclaredConstructor().newInstance();
+            Class<?> binder = loader.loadClass("pages.LoginPage_Elements");
+            binder.getMethod("bind", pageClass, org.openqa.selenium.SearchContext.class)
+                .invoke(binder.getDeclaredConstructor().newInstance(), page, null);
+
+            Object title = field(page, "title");
+            assertThat(title.getClass().getName()).isEqualTo("com.apple.automation.core.LazyElement");
+            assertThat(binder.getField("TITLE").get(null)).hasToString("By.xpath: //h1");
+            assertThat(field(page, "rows").getClass().getSimpleName())
+                .isEqualTo("LazyElementList");
+            assertThat(field(page, "unannotated")).isNull();
+            assertThat(binder.getField("EMAIL").get(null)).hasToString("By.id: email");
+        }
+    }
+
+    @Test
+    public void namesNestedPageBindersLikeBinaryNames() throws IOException {
+        Compilation compilation = compile(page("Checkout",
+            "public static class Payment { @FindBy(name = \"card\") WebElement cardNumber; }"));
+
+        assertThat(compilation.errors()).isEmpty();
+        assertThat(compilation.generated("pages/Checkout$Payment_Elements.java")).contains(
+            "public final class Checkout$Payment_Elements implements PageElements<pages.Checkout.Payment> {",
+            "public static final By CARD_NUMBER = By.name(\"card\");",
+            "page.cardNumber = new LazyElement(context, CARD_NUMBER, false);");
+    }
+
+    @Test
+    public void rejectsStaticAndFinalFields() throws IOException {
+        String message = "@FindBy fields are assigned by the generated BagPage_Elements class "
+            + "and must not be static or final";
+
+        assertThat(compile(page("BagPage", "@FindBy(id = \"bag\") final WebElement bag = null;")).errors())
+            .containsExactly(message);
+        assertThat(compile(page("BagPage", "@FindBy(id = \"bag\") static WebElement bag;")).errors())
+            .containsExactly(message);
+    }
+
+    @Test
+    public void leavesPagesWithPrivateFieldsToPageFactory() throws IOException {
+        Compilation compilation = compile(page("BagPage",
+            "@FindBy(id = \"bag\") private WebElement bag;\n"
+                + "@FindBy(id = \"total\") WebElement total;"));
+
+        assertThat(compilation.errors()).isEmpty();
+        assertThat(compilation.warnings()).containsExactly(
+            "@FindBy field bag is private; BagPage is bound with PageFactory instead of a generated BagPage_Elements class");
+        assertThat(compilation.generatedFile("pages/BagPage_Elements.java")).doesNotExist();
+    }
+
+    @Test
+    public void reportsEveryInvalidFieldAndGeneratesNothing() throws IOException {
+        Compilation compilation = compile(page("BagPage",
+            "@FindBy(id = \"bag\") static WebElement bag;\n"
+                + "@FindBy(id = \"total\") String total;"));
+
+        assertThat(compilation.errors()).containsExactly(
+            "@FindBy fields are assigned by the generated BagPage_Elements class and must not be static or final",
+            "@FindBy fields must be WebElement or List<WebElement>");
+        assertThat(compilation.generatedFile("pages/BagPage_Elements.java")).doesNotExist();
+    }
+
+    @Test
+    public void rejectsFieldTypesOtherThanElementOrElementList() throws IOException {
+        assertThat(compile(page("BagPage", "@FindBy(id = \"items\") List<String> items;")).errors())
+            .containsExactly("@FindBy fields must be WebElement or List<WebElement>");
+        assertThat(compile(page("BagPage", "@FindBy(id = \"items\") java.util.Collection<WebElement> items;")).errors())
+            .containsExactly("@FindBy fields must be WebElement or List<WebElement>");
+    }
+
+    @Test
+    public void rejectsSeveralStrategies() throws IOException {
+        assertThat(compile(page("BagPage", "@FindBy(id = \"bag\", css = \".bag\") WebElement bag;")).errors())
+            .containsExactly("You must specify at most one location strategy, found id and css");
+        assertThat(compile(page("BagPage",
+            "@FindBys({@FindBy(id = \"bag\"), @FindBy(name = \"a\", xpath = \"//a\")}) WebElement bag;")).errors())
+            .containsExactly("You must specify at most one location strategy, found name and xpath");
+    }
+
+    @Test
+    public void rejectsMissingStrategy() throws IOException {
+        assertThat(compile(page("BagPage", "@FindBy WebElement bag;")).errors())
+            .containsExactly("Cannot determine how to locate element bag");
+    }
+
+    @Test
+    public void rejectsHowWithoutUsing() throws IOException {
+        assertThat(compile(page("BagPage", "@FindBy(how = How.CSS) WebElement bag;")).errors())
+            .containsExactly("If you set the 'how' property, you must also set 'using'");
+    }
+
+    @Test
+    public void rejectsCombinedAnnotations() throws IOException {
+        assertThat(compile(page("BagPage",
+            "@FindBy(id = \"bag\") @FindAll({@FindBy(id = \"cart\")}) WebElement bag;")).errors())
+            .containsExactly("If you use a '@FindBys' annotation, you must not also use a '@FindBy' or '@FindAll' annotation");
+    }
+
+    @Test
+    public void rejectsInnerPageClasses() throws IOException {
+        Compilation compilation = compile(page("Checkout",
+            "public class Payment { @FindBy(name = \"card\") WebElement card; }"));
+
+        assertThat(compilation.errors()).containsExactly("Nested page classes with @FindBy fields must be static");
+        assertThat(compilation.generatedFile("pages/Checkout$Payment_Elements.java")).doesNotExist();
+    }
+
+    @Test
+    public void rejectsPrivatePageClasses() throws IOException {
+        String message = "Page classes with @FindBy fields must not be private or nested in a private class";
+
+        assertThat(compile(page("Checkout",
+            "private static class Payment { @FindBy(name = \"card\") WebElement card; }")).errors())
+            .containsExactly(message);
+        assertThat(compile(page("Checkout",
+            "private static class Steps { static class Payment { @FindBy(name = \"card\") WebElement card; } }")).errors())
+            .containsExactly(message);
+    }
+
+    @Test
+    public void convertsFieldNamesToConstants() {
+        assertThat(PageElementsProcessor.constantName("email")).isEqualTo("EMAIL");
+        assertThat(PageElementsProcessor.constantName("itemNames")).isEqualTo("ITEM_NAMES");
+        assertThat(PageElementsProcessor.constantName("searchURL")).isEqualTo("SEARCH_URL");
+        assertThat(PageElementsProcessor.constantName("addToBag2")).isEqualTo("ADD_TO_BAG2");
+    }
+
+    private static Object field(Object page, String name) throws ReflectiveOperationException {
+        Field field = page.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(page);
+    }
+
+    private static String[] page(String className, String body) {
+        return new String[] {"pages." + className,
+            "package pages;\n" + IMPORTS + "public class " + className + " {\n" + body + "\n}\n"};
+    }
+
+    /**
+     * Compiles the core stand-ins and the given name, source pairs with the processor.
+     */
+    private Compilation compile(String... namesAndSources) throws IOException {
+        Path directory = workDirectory.resolve(String.valueOf(++compilations));
+        Path classes = Files.createDirectories(directory.resolve("classes"));
+        Path generated = Files.createDirectories(directory.resolve("generated"));
+
+        List<JavaFileObject> sources = new ArrayList<>();
+        for (String[] pairs : new String[][] {CORE, namesAndSources}) {
+            for (int i = 0; i < pairs.length; i += 2) {
+                sources.add(source(pairs[i], pairs[i + 1]));
+            }
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+            List.of("-classpath", classpath(), "-d", classes.toString(), "-s", generated.toString()),
+            null, sources);
+        task.setProcessors(List.of(new PageElementsProcessor()));
+        task.call();
+
+        List<String> errors = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(Locale.ROOT));
+            } else if (diagnostic.getKind() == Diagnostic.Kind.WARNING) {
+                warnings.add(diagnostic.getMessage(Locale.ROOT));
+            }
+        }
+        return new Compilation(errors, warnings, classes, generated);
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    /**
+     * Selenium jars, taken from the test's own classpath.
+     */
+    private static String classpath() {
+        List<String> entries = new ArrayList<>();
+        for (Class<?> type : new Class<?>[] {WebElement.class, FindBy.class, RemoteWebElement.class}) {
+            try {
+                entries.add(Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static final class Compilation {
+        private final List<String> errors;
+        private final List<String> warnings;
+        private final Path classes;
+        private final Path generated;
+
+        private Compilation(List<String> errors, List<String> warnings, Path classes, Path generated) {
+            this.errors = errors;
+            this.warnings = warnings;
+            this.classes = classes;
+            this.generated = generated;
+        }
+
+        List<String> errors() {
+            return errors;
+        }
+
+        List<String> warnings() {
+            return warnings;
+        }
+
+        Path generatedFile(String path) {
+            return generated.resolve(path);
+        }
+
+        String generated(String path) throws IOException {
+            return Files.readString(generatedFile(path), StandardCharsets.UTF_8);
+        }
+
+        URLClassLoader classLoader() throws IOException {
+            return new URLClassLoader(new URL[] {classes.toUri().toURL()}, getClass().getClassLoader());
+        }
+    }
+}
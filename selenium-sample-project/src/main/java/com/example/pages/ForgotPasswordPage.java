@@ -1,27 +1,26 @@
 package com.example.pages;
 
+import com.apple.automation.core.BasePage;
+import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
-import java.time.Duration;
-
-public class ForgotPasswordPage {
-    private WebDriver driver;
-    private WebDriverWait wait;
+public class ForgotPasswordPage extends BasePage {
 
     @FindBy(id = "email")
-    private WebElement emailInput;
+    WebElement emailInput;
 
     @FindBy(css = "button[type='submit']")
-    private WebElement resetButton;
+    WebElement resetButton;
 
     public ForgotPasswordPage(WebDriver driver) {
-        this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        PageFactory.initElements(driver, this);
+        super(driver);
+    }
+
+    @Override
+    public boolean isPageLoaded() {
+        return isElementVisible(By.id("email"));
     }
 
     public void enterEmail(String email) {
@@ -1,31 +1,39 @@
 package com.example.pages;
 
+import com.apple.automation.core.BasePage;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
-import java.time.Duration;
+public class HomePage extends BasePage {
 
-public class HomePage {
-    private WebDriver driver;
-    private WebDriverWait wait;
+    private static final By WELCOME_MESSAGE = By.className("welcome-message");
 
     @FindBy(className = "welcome-message")
-    private WebElement welcomeMessage;
+    WebElement welcomeMessage;
 
     @FindBy(id = "logout-button")
-    private WebElement logoutButton;
+    WebElement logoutButton;
 
     @FindBy(className = "user-profile")
-    private WebElement userProfile;
+    WebElement userProfile;
 
     public HomePage(WebDriver driver) {
-        this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        PageFactory.initElements(driver, this);
+        super(driver);
+    }
+
+    @Override
+    public boolean isPageLoaded() {
+        // The login form submits asynchronously, so wait for the greeting instead of checking once
+        try {
+            wait.until(ExpectedConditions.visibilityOfElementLocated(WELCOME_MESSAGE));
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
     }
 
     public boolean isUserLoggedIn() {
@@ -1,45 +1,49 @@
 package com.example.pages;
 
+import com.apple.automation.core.BasePage;
+import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-
-import java.time.Duration;
-
-public class LoginPage {
-    private WebDriver driver;
-    private WebDriverWait wait;
 
+public class LoginPage extends BasePage {
     // Page URL
     private static final String PAGE_URL = "https://example.com/login";
 
+    // Locators for batched form actions
+    private static final By USERNAME = By.id("username");
+    private static final By PASSWORD = By.id("password");
+    private static final By LOGIN_BUTTON = By.cssSelector("button[type='submit']");
+    private static final By REMEMBER_ME = By.id("remember-me");
+
     // Locators using @FindBy annotation
     @FindBy(id = "username")
-    private WebElement usernameInput;
+    WebElement usernameInput;
 
     @FindBy(id = "password")
-    private WebElement passwordInput;
+    WebElement passwordInput;
 
     @FindBy(css = "button[type='submit']")
-    private WebElement loginButton;
+    WebElement loginButton;
 
     @FindBy(className = "error-message")
-    private WebElement errorMessage;
+    WebElement errorMessage;
 
     @FindBy(linkText = "Forgot Password?")
-    private WebElement forgotPasswordLink;
+    WebElement forgotPasswordLink;
 
     @FindBy(id = "remember-me")
-    private WebElement rememberMeCheckbox;
+    WebElement rememberMeCheckbox;
 
-    // Constructor
+    // Constructor - waits for the document and verifies the form is shown
     public LoginPage(WebDriver driver) {
-        this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        PageFactory.initElements(driver, this);
+        super(driver);
+    }
+
+    @Override
+    public boolean isPageLoaded() {
+        return isElementVisible(LOGIN_BUTTON);
     }
 
     // Page Methods
@@ -77,18 +81,29 @@ public class LoginPage {
         }
     }
 
+    // Fills and submits the form in one script call instead of ~12 WebDriver commands
     public HomePage login(String username, String password) {
-        enterUsername(username);
-        enterPassword(password);
-        clickLoginButton();
+        submitLogin(username, password);
         return new HomePage(driver);
     }
 
+    // Submits the form without expecting the home page, for attempts that should fail
+    public LoginPage submitLogin(String username, String password) {
+        batch()
+            .fill(USERNAME, username)
+            .fill(PASSWORD, password)
+            .click(LOGIN_BUTTON)
+            .run();
+        return this;
+    }
+
     public HomePage loginWithRememberMe(String username, String password) {
-        enterUsername(username);
-        enterPassword(password);
-        checkRememberMe();
-        clickLoginButton();
+        batch()
+            .fill(USERNAME, username)
+            .fill(PASSWORD, password)
+            .check(REMEMBER_ME, true)
+            .click(LOGIN_BUTTON)
+            .run();
         return new HomePage(driver);
     }
 
@@ -127,8 +142,4 @@ public class LoginPage {
         passwordInput.clear();
         uncheckRememberMe();
     }
-
-    public String getPageTitle() {
-        return driver.getTitle();
-    }
 }
\ No newline at end of file
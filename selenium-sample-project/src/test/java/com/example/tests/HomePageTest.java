@@ -0,0 +1,46 @@
+package com.example.tests;
+
+import com.apple.automation.core.BaseTest;
+import com.apple.automation.core.StorageState;
+import com.apple.automation.core.UseStorageState;
+import com.apple.automation.utils.ConfigReader;
+import com.example.pages.HomePage;
+import com.example.pages.LoginPage;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests for a logged-in user. The first test logs in through the UI and captures the session;
+ * the others start with its cookies and storage already injected.
+ */
+@UseStorageState(user = "valid-user", setup = HomePageTest.ValidUserLogin.class)
+public class HomePageTest extends BaseTest {
+
+    @Test(priority = 1)
+    public void testRestoredSessionIsLoggedIn() {
+        // base.url is the login page, which sends logged-in users on to their home page
+        HomePage homePage = new HomePage(getDriver());
+
+        Assert.assertTrue(homePage.isUserLoggedIn(), "Restored session is not logged in");
+    }
+
+    @Test(priority = 2)
+    public void testWelcomeMessage() {
+        HomePage homePage = new HomePage(getDriver());
+
+        Assert.assertEquals(homePage.getWelcomeMessage(), "Welcome, User!",
+            "Welcome message is incorrect");
+    }
+
+    /**
+     * Logs the valid test user in through the login form.
+     */
+    public static class ValidUserLogin implements StorageState.SetupFlow {
+        @Override
+        public void run(WebDriver driver, ConfigReader config) {
+            driver.get(config.getProperty("base.url"));
+            new LoginPage(driver).login("valid@example.com", "ValidPassword123");
+        }
+    }
+}
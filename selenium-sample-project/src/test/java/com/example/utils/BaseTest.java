@@ -1,103 +0,0 @@
-package com.example.utils;
-
-import io.github.bonigarcia.wdm.WebDriverManager;
-import org.apache.commons.io.FileUtils;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
-import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.firefox.FirefoxDriver;
-import org.openqa.selenium.firefox.FirefoxOptions;
-import org.testng.ITestResult;
-import org.testng.annotations.AfterMethod;
-import org.testng.annotations.BeforeMethod;
-import org.testng.annotations.Optional;
-import org.testng.annotations.Parameters;
-
-import java.io.File;
-import java.io.IOException;
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-
-public class BaseTest {
-    protected WebDriver driver;
-    private static final String SCREENSHOT_DIR = "test-output/screenshots/";
-
-    @BeforeMethod
-    @Parameters("browser")
-    public void setUp(@Optional("chrome") String browser) {
-        driver = initializeDriver(browser);
-        driver.manage().window().maximize();
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-        driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(30));
-    }
-
-    private WebDriver initializeDriver(String browser) {
-        switch (browser.toLowerCase()) {
-            case "firefox":
-                WebDriverManager.firefoxdriver().setup();
-                FirefoxOptions firefoxOptions = new FirefoxOptions();
-                firefoxOptions.addArguments("--disable-blink-features=AutomationControlled");
-                return new FirefoxDriver(firefoxOptions);
-            
-            case "chrome":
-            default:
-                WebDriverManager.chromedriver().setup();
-                ChromeOptions chromeOptions = new ChromeOptions();
-                chromeOptions.addArguments("--disable-blink-features=AutomationControlled");
-                chromeOptions.addArguments("--disable-dev-shm-usage");
-                chromeOptions.addArguments("--no-sandbox");
-                // Uncomment for headless mode
-                // chromeOptions.addArguments("--headless");
-                return new ChromeDriver(chromeOptions);
-        }
-    }
-
-    @AfterMethod
-    public void tearDown(ITestResult result) {
-        // Take screenshot on failure
-        if (result.getStatus() == ITestResult.FAILURE) {
-            takeScreenshot(result.getName());
-        }
-
-        // Quit driver
-        if (driver != null) {
-            driver.quit();
-        }
-    }
-
-    protected void takeScreenshot(String testName) {
-        try {
-            TakesScreenshot screenshot = (TakesScreenshot) driver;
-            File sourceFile = screenshot.getScreenshotAs(OutputType.FILE);
-            
-            // Create screenshots directory if it doesn't exist
-            File screenshotDir = new File(SCREENSHOT_DIR);
-            if (!screenshotDir.exists()) {
-                screenshotDir.mkdirs();
-            }
-            
-            // Generate unique filename with timestamp
-            String timestamp = LocalDateTime.now()
-                .format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            String fileName = testName + "_" + timestamp + ".png";
-            
-            File destFile = new File(SCREENSHOT_DIR + fileName);
-            FileUtils.copyFile(sourceFile, destFile);
-            
-            System.out.println("Screenshot saved: " + destFile.getAbsolutePath());
-        } catch (IOException e) {
-            System.err.println("Failed to take screenshot: " + e.getMessage());
-        }
-    }
-
-    protected void sleep(int seconds) {
-        try {
-            Thread.sleep(seconds * 1000L);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-    }
-}
\ No newline at end of file
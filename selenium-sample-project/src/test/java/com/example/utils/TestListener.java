@@ -1,80 +0,0 @@
-package com.example.utils;
-
-import com.aventstack.extentreports.ExtentReports;
-import com.aventstack.extentreports.ExtentTest;
-import com.aventstack.extentreports.Status;
-import com.aventstack.extentreports.reporter.ExtentSparkReporter;
-import com.aventstack.extentreports.reporter.configuration.Theme;
-import org.testng.ITestContext;
-import org.testng.ITestListener;
-import org.testng.ITestResult;
-
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-
-public class TestListener implements ITestListener {
-    private static ExtentReports extent;
-    private static ThreadLocal<ExtentTest> test = new ThreadLocal<>();
-
-    @Override
-    public void onStart(ITestContext context) {
-        String timestamp = LocalDateTime.now()
-            .format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
-        String reportPath = "test-output/ExtentReport_" + timestamp + ".html";
-        
-        ExtentSparkReporter sparkReporter = new ExtentSparkReporter(reportPath);
-        sparkReporter.config().setTheme(Theme.STANDARD);
-        sparkReporter.config().setDocumentTitle("Selenium Test Report");
-        sparkReporter.config().setReportName("Test Execution Report");
-        sparkReporter.config().setTimeStampFormat("EEEE, MMMM dd, yyyy, hh:mm a '('zzz')'");
-        
-        extent = new ExtentReports();
-        extent.attachReporter(sparkReporter);
-        extent.setSystemInfo("OS", System.getProperty("os.name"));
-        extent.setSystemInfo("Java Version", System.getProperty("java.version"));
-        extent.setSystemInfo("User", System.getProperty("user.name"));
-        extent.setSystemInfo("Environment", "QA");
-    }
-
-    @Override
-    public void onTestStart(ITestResult result) {
-        ExtentTest extentTest = extent.createTest(
-            result.getMethod().getMethodName(),
-            result.getMethod().getDescription()
-        );
-        test.set(extentTest);
-        test.get().log(Status.INFO, "Test started: " + result.getMethod().getMethodName());
-    }
-
-    @Override
-    public void onTestSuccess(ITestResult result) {
-        test.get().log(Status.PASS, "Test passed: " + result.getMethod().getMethodName());
-        test.get().log(Status.INFO, "Execution time: " + 
-            (result.getEndMillis() - result.getStartMillis()) + " ms");
-    }
-
-    @Override
-    public void onTestFailure(ITestResult result) {
-        test.get().log(Status.FAIL, "Test failed: " + result.getMethod().getMethodName());
-        test.get().log(Status.FAIL, result.getThrowable());
-        
-        // Add screenshot path if available
-        String screenshotPath = "screenshots/" + result.getMethod().getMethodName() + ".png";
-        test.get().addScreenCaptureFromPath(screenshotPath);
-    }
-
-    @Override
-    public void onTestSkipped(ITestResult result) {
-        test.get().log(Status.SKIP, "Test skipped: " + result.getMethod().getMethodName());
-        if (result.getThrowable() != null) {
-            test.get().log(Status.SKIP, result.getThrowable());
-        }
-    }
-
-    @Override
-    public void onFinish(ITestContext context) {
-        if (extent != null) {
-            extent.flush();
-        }
-    }
-}
\ No newline at end of file